@@ -22,14 +22,66 @@ dependencies {
     implementation("org.openjfx:javafx-controls:21.0.3")
     implementation("org.openjfx:javafx-graphics:21.0.3")
 
+    // RichTextFX, a virtualized text area used as the note editor.
+    implementation("org.fxmisc.richtext:richtextfx:0.11.2")
+
     // Google's GSON library for JSON serialization and deserialization.
     implementation("com.google.code.gson:gson:2.10.1")
 
 
     // Apache Lucene libraries for text searching and indexing.
     implementation("org.apache.lucene:lucene-core:9.9.1")
-    implementation("org.apache.lucene:lucene-analyzers-common:8.11.3")
+    implementation("org.apache.lucene:lucene-analysis-common:9.9.1")
     implementation("org.apache.lucene:lucene-queryparser:9.9.1")
+    implementation("org.apache.lucene:lucene-suggest:9.9.1")
+    implementation("org.apache.lucene:lucene-facet:9.9.1")
+    implementation("org.apache.lucene:lucene-highlighter:9.9.1")
+    implementation("org.apache.lucene:lucene-memory:9.9.1")
+
+    // JUnit 5 for the unit tests.
+    testImplementation(platform("org.junit:junit-bom:5.10.2"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+}
+
+// Benchmarks live in their own source set so they never ship with the application.
+sourceSets {
+    create("bench") {
+        compileClasspath += sourceSets.main.get().output + sourceSets.main.get().compileClasspath
+        runtimeClasspath += output + compileClasspath + sourceSets.main.get().runtimeClasspath
+    }
+}
+
+// Runs the search latency benchmark, e.g. ./gradlew searchBenchmark --args="100000"
+tasks.register<JavaExec>("searchBenchmark") {
+    group = "benchmark"
+    description = "Measures per-keystroke search latency on a synthetic vault."
+    classpath = sourceSets["bench"].runtimeClasspath
+    mainClass.set("com.eureka.bench.SearchBenchmark")
+    jvmArgs("-Xmx2g")
+}
+
+// Runs the unit tests on the JUnit Platform.
+tasks.test {
+    useJUnitPlatform()
+}
+
+// Measures full index rebuild throughput per thread count, e.g. ./gradlew rebuildBenchmark --args="100000"
+tasks.register<JavaExec>("rebuildBenchmark") {
+    group = "benchmark"
+    description = "Measures parallel index rebuild throughput on a synthetic vault."
+    classpath = sourceSets["bench"].runtimeClasspath
+    mainClass.set("com.eureka.bench.RebuildBenchmark")
+    jvmArgs("-Xmx2g")
+}
+
+// Compares query and update latency per index directory mode, e.g. ./gradlew directoryBenchmark --args="100000"
+tasks.register<JavaExec>("directoryBenchmark") {
+    group = "benchmark"
+    description = "Measures query and update latency for each index directory mode."
+    classpath = sourceSets["bench"].runtimeClasspath
+    mainClass.set("com.eureka.bench.DirectoryBenchmark")
+    jvmArgs("-Xmx4g")
 }
 
 // Configure the JavaFX plugin.
@@ -52,4 +104,4 @@ tasks.withType<JavaCompile> {
 // This tells Gradle to process resource files (like .properties) as UTF-8
 tasks.withType<ProcessResources> {
     filteringCharset = "UTF-8"
-}
\ No newline at end of file
+}
@@ -0,0 +1,66 @@
+package com.eureka.bench;
+
+import com.eureka.IndexDirectoryMode;
+import com.eureka.SearchService;
+import com.eureka.model.AppState;
+import com.eureka.model.Note;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares query and update latency across the index directory modes,
+ * to help choose the best {@link IndexDirectoryMode} for a machine.
+ * Usage: {@code ./gradlew directoryBenchmark --args="[noteCount] [operations]"}.
+ */
+public final class DirectoryBenchmark {
+
+    private DirectoryBenchmark() {}
+
+    public static void main(String[] args) throws IOException {
+        int noteCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int operations = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+
+        SyntheticVault vault = new SyntheticVault(20_000, 42);
+        vault.populate(noteCount, 500);
+        List<Note> notes = AppState.getInstance().getAllNotes();
+
+        PrintStream console = System.out;
+        for (IndexDirectoryMode mode : IndexDirectoryMode.values()) {
+            long start = System.nanoTime();
+            SearchService service = new SearchService(Files.createTempDirectory("eureka-bench"), mode);
+            service.initialize(service.snapshotForRebuild(), null);
+            double buildSeconds = (System.nanoTime() - start) / 1e9;
+
+            LatencyRecorder queries = new LatencyRecorder();
+            LatencyRecorder updates = new LatencyRecorder();
+            Random random = new Random(11);
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            try {
+                for (int i = 0; i < operations; i++) {
+                    String word = vault.word();
+                    long begin = System.nanoTime();
+                    service.search(word.substring(0, Math.min(3, word.length())));
+                    queries.record(System.nanoTime() - begin);
+
+                    Note note = notes.get(random.nextInt(notes.size()));
+                    note.setContent(note.getContent() + " " + vault.word());
+                    begin = System.nanoTime();
+                    service.addOrUpdateNote(note);
+                    updates.record(System.nanoTime() - begin);
+                }
+            } finally {
+                System.setOut(console);
+            }
+
+            System.out.printf("%s (initial build %.1f s)%n", mode, buildSeconds);
+            System.out.println("  " + queries.summary("query"));
+            System.out.println("  " + updates.summary("update + NRT refresh"));
+            service.close();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.eureka.bench;
+
+import java.util.Arrays;
+
+/**
+ * Collects latency samples in nanoseconds and reports summary percentiles.
+ */
+public final class LatencyRecorder {
+
+    private long[] samples = new long[1024];
+    private int count;
+
+    /**
+     * Records one latency sample.
+     * @param nanos The measured duration in nanoseconds.
+     */
+    public void record(long nanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+    }
+
+    /**
+     * Returns the sample at the given percentile.
+     * @param percentile A value between 0 and 100.
+     * @return The latency in nanoseconds, or 0 if nothing was recorded.
+     */
+    public long percentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * count) - 1;
+        return sorted[Math.max(0, Math.min(index, count - 1))];
+    }
+
+    /**
+     * Formats the sample count, mean and main percentiles in milliseconds.
+     * @param label The name printed in front of the numbers.
+     * @return A single human-readable report line.
+     */
+    public String summary(String label) {
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            total += samples[i];
+        }
+        double mean = count == 0 ? 0 : (double) total / count;
+        return String.format("%-28s n=%-7d mean=%8.3f ms  p50=%8.3f ms  p90=%8.3f ms  p99=%8.3f ms  max=%8.3f ms",
+                label, count, mean / 1e6, percentile(50) / 1e6, percentile(90) / 1e6,
+                percentile(99) / 1e6, percentile(100) / 1e6);
+    }
+}
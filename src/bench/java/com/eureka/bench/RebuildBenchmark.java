@@ -0,0 +1,34 @@
+package com.eureka.bench;
+
+import com.eureka.SearchService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Measures full index rebuild throughput for an increasing number of indexing threads.
+ * Usage: {@code ./gradlew rebuildBenchmark --args="[noteCount]"}.
+ */
+public final class RebuildBenchmark {
+
+    private RebuildBenchmark() {}
+
+    public static void main(String[] args) throws IOException {
+        int noteCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        new SyntheticVault(20_000, 42).populate(noteCount, 500);
+        SearchService service = new SearchService(Files.createTempDirectory("eureka-bench"));
+
+        // One warm-up pass so JIT compilation does not skew the single-thread numbers.
+        service.rebuildIndex(service.snapshotForRebuild(), cores, null);
+        for (int threads = 1; threads <= cores; threads *= 2) {
+            long start = System.nanoTime();
+            service.rebuildIndex(service.snapshotForRebuild(), threads, null);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("threads=%-3d %8.2f s  %10.0f notes/s%n", threads, seconds, noteCount / seconds);
+        }
+        service.close();
+    }
+}
@@ -0,0 +1,84 @@
+package com.eureka.bench;
+
+import com.eureka.SearchService;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Measures search latency the way the search field drives it: one query per keystroke,
+ * growing a word one character at a time. Also measures fuzzy searches for misspelled words.
+ * Usage: {@code ./gradlew searchBenchmark --args="[noteCount] [typedWords]"}.
+ */
+public final class SearchBenchmark {
+
+    private SearchBenchmark() {}
+
+    public static void main(String[] args) throws IOException {
+        int noteCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int typedWords = args.length > 1 ? Integer.parseInt(args[1]) : 300;
+
+        SyntheticVault vault = new SyntheticVault(20_000, 42);
+        vault.populate(noteCount, 500);
+        Path storage = Files.createTempDirectory("eureka-bench");
+
+        long start = System.nanoTime();
+        SearchService service = new SearchService(storage);
+        service.initialize(service.snapshotForRebuild(), null);
+        System.out.printf("Indexed %d notes in %.1f s%n", noteCount, (System.nanoTime() - start) / 1e9);
+
+        // The service logs every query; keep the console quiet while measuring.
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        LatencyRecorder keystrokes;
+        LatencyRecorder fuzzy;
+        try {
+            typeWords(service, vault, typedWords / 10, new LatencyRecorder());
+            keystrokes = new LatencyRecorder();
+            typeWords(service, vault, typedWords, keystrokes);
+            fuzzy = new LatencyRecorder();
+            searchMisspelled(service, vault, typedWords, fuzzy);
+        } finally {
+            System.setOut(console);
+        }
+
+        System.out.println(keystrokes.summary("search-as-you-type"));
+        System.out.println(fuzzy.summary("fuzzy (one typo)"));
+        service.close();
+    }
+
+    /**
+     * Types each word prefix by prefix and records the latency of every search.
+     */
+    private static void typeWords(SearchService service, SyntheticVault vault, int words,
+                                  LatencyRecorder recorder) throws IOException {
+        for (int w = 0; w < words; w++) {
+            String word = vault.word();
+            for (int length = 1; length <= word.length(); length++) {
+                String prefix = word.substring(0, length);
+                long begin = System.nanoTime();
+                service.search(prefix);
+                recorder.record(System.nanoTime() - begin);
+            }
+        }
+    }
+
+    /**
+     * Searches whole words with one substituted character in fuzzy mode.
+     */
+    private static void searchMisspelled(SearchService service, SyntheticVault vault, int words,
+                                         LatencyRecorder recorder) throws IOException {
+        Random random = new Random(7);
+        for (int w = 0; w < words; w++) {
+            char[] word = vault.word().toCharArray();
+            word[1 + random.nextInt(word.length - 1)] = (char) ('a' + random.nextInt(26));
+            long begin = System.nanoTime();
+            service.search(new String(word), SearchService.SearchMode.FUZZY);
+            recorder.record(System.nanoTime() - begin);
+        }
+    }
+}
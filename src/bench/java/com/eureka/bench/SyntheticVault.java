@@ -0,0 +1,87 @@
+package com.eureka.bench;
+
+import com.eureka.model.AppState;
+import com.eureka.model.Note;
+import com.eureka.model.NoteSet;
+
+import java.util.Random;
+
+/**
+ * Generates a reproducible synthetic vault in the global {@link AppState} for benchmarks.
+ * Words are drawn from a generated vocabulary with a skewed distribution,
+ * so a few words are very common and most are rare, like in real notes.
+ */
+public final class SyntheticVault {
+
+    private static final String[] SYLLABLES = {
+            "ka", "lo", "mi", "ne", "ru", "sa", "ti", "vo", "ze", "pa",
+            "dor", "fen", "gal", "hin", "jus", "ker", "lum", "mar", "nox", "pel"
+    };
+
+    private final String[] vocabulary;
+    private final Random random;
+
+    /**
+     * Creates a generator with a fixed seed.
+     * @param vocabularySize The number of distinct words to generate.
+     * @param seed           The random seed, so runs are comparable.
+     */
+    public SyntheticVault(int vocabularySize, long seed) {
+        this.random = new Random(seed);
+        this.vocabulary = new String[vocabularySize];
+        for (int i = 0; i < vocabularySize; i++) {
+            StringBuilder word = new StringBuilder();
+            int syllables = 2 + random.nextInt(3);
+            for (int s = 0; s < syllables; s++) {
+                word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            vocabulary[i] = word.toString();
+        }
+    }
+
+    /**
+     * Replaces the global AppState with a fresh vault of the given size.
+     * @param noteCount   The number of notes to create.
+     * @param notesPerSet The number of notes per set.
+     * @return The populated AppState instance.
+     */
+    public AppState populate(int noteCount, int notesPerSet) {
+        AppState state = AppState.createEmptyState();
+        NoteSet currentSet = null;
+        for (int i = 0; i < noteCount; i++) {
+            if (i % notesPerSet == 0) {
+                currentSet = new NoteSet("Set " + (i / notesPerSet));
+                state.addSet(currentSet);
+            }
+            Note note = new Note(currentSet.getId(), words(2 + random.nextInt(4)));
+            note.setContent(words(50 + random.nextInt(250)));
+            state.addNote(note);
+        }
+        return state;
+    }
+
+    /**
+     * Returns a single word, favouring the common end of the vocabulary.
+     * @return A vocabulary word.
+     */
+    public String word() {
+        double skewed = Math.pow(random.nextDouble(), 3);
+        return vocabulary[(int) (skewed * vocabulary.length)];
+    }
+
+    /**
+     * Returns a space-separated sequence of words.
+     * @param count The number of words.
+     * @return The generated text.
+     */
+    public String words(int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append(i % 12 == 0 ? ".\n" : " ");
+            }
+            text.append(word());
+        }
+        return text.toString();
+    }
+}
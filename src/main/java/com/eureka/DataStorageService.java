@@ -1,6 +1,7 @@
 package com.eureka;
 
 import com.eureka.model.AppState;
+import com.eureka.model.Note;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 
@@ -27,19 +28,33 @@ public class DataStorageService {
      * Used for both saving and loading.
      */
     private static final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+    /**
+     * Duration of saving and loading the data file, and its size in bytes.
+     */
+    private static final Metrics.Histogram SAVE_TIMER = Metrics.timer("storage.save");
+    private static final Metrics.Histogram SAVE_BYTES = Metrics.histogram("storage.save.bytes", "bytes");
+    private static final Metrics.Histogram LOAD_TIMER = Metrics.timer("storage.load");
+    private static final Metrics.Histogram LOAD_BYTES = Metrics.histogram("storage.load.bytes", "bytes");
 
     private DataStorageService() {}
 
     /**
      * Saves the provided AppState object to a JSON file (eureka_data.json).
      * Serializes the AppState using Gson and writes it to the file using UTF-8 encoding.
-     * Prints success or error messages to the console.
+     * Prints success or error messages to the console and records the duration and size in {@link Metrics}.
      * @param appState The AppState object to save.
      */
     public static void saveData(AppState appState) {
         Path filePath = Paths.get(FILE_PATH);
-        try (BufferedWriter writer = Files.newBufferedWriter(filePath, StandardCharsets.UTF_8)) {
-            gson.toJson(appState, writer);
+        long start = System.nanoTime();
+        // Gson reads fields directly, so edits still buffered in a note must be applied first.
+        appState.getAllNotes().forEach(Note::flushEdits);
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(filePath, StandardCharsets.UTF_8)) {
+                gson.toJson(appState, writer);
+            }
+            SAVE_TIMER.recordSince(start);
+            SAVE_BYTES.record(Files.size(filePath));
             System.out.println("Data saved successfully in UTF-8 to: " + filePath.toAbsolutePath());
         } catch (IOException e) {
             System.err.println("Error saving data to file: " + filePath.toAbsolutePath());
@@ -55,7 +70,7 @@ public class DataStorageService {
      * Deserializes the JSON content using Gson and UTF-8 encoding.
      * If the file doesn't exist or an error occurs during loading/parsing,
      * it returns a new, empty AppState.
-     * Prints status messages to the console.
+     * Prints status messages to the console and records the duration and size in {@link Metrics}.
      * @return The loaded AppState object, or a new empty AppState if loading fails.
      */
     public static AppState loadData() {
@@ -65,9 +80,12 @@ public class DataStorageService {
             return AppState.createEmptyState();
         }
 
+        long start = System.nanoTime();
         // Use try-with-resources to ensure the reader is closed automatically.
         try (BufferedReader reader = Files.newBufferedReader(filePath, StandardCharsets.UTF_8)) {
             AppState loadedState = gson.fromJson(reader, AppState.class);
+            LOAD_TIMER.recordSince(start);
+            LOAD_BYTES.record(Files.size(filePath));
             System.out.println("Data loaded successfully in UTF-8 from: " + filePath.toAbsolutePath());
             return loadedState != null ? loadedState : AppState.createEmptyState();
         } catch (IOException e) {
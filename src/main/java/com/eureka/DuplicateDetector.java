@@ -0,0 +1,424 @@
+package com.eureka;
+
+import com.eureka.model.Note;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Finds clusters of near-duplicate notes with MinHash signatures and locality-sensitive hashing.
+ * Each note's content is split into overlapping word shingles; the signature keeps, for each of
+ * {@link #NUM_HASHES} hash functions, the smallest hash of any shingle, so the fraction of equal
+ * signature entries of two notes estimates the Jaccard similarity of their shingle sets.
+ * Signatures are cut into {@link #BANDS} bands, and notes sharing any band land in the same bucket.
+ * Only notes sharing a bucket are compared, so a scan costs roughly the number of similar pairs
+ * rather than the square of the vault size.
+ * Signatures are computed on a background thread and updated incrementally when a note changes.
+ */
+public class DuplicateDetector {
+
+    /**
+     * A group of notes whose content is nearly identical.
+     * @param noteIds    The IDs of the notes in the cluster.
+     * @param similarity The lowest estimated similarity of a verified pair in the cluster, between 0 and 1.
+     */
+    public record DuplicateCluster(List<String> noteIds, double similarity) {}
+
+    /**
+     * Number of consecutive words in a shingle.
+     */
+    private static final int SHINGLE_SIZE = 5;
+    /**
+     * Number of MinHash functions, i.e. the length of a signature.
+     */
+    private static final int NUM_HASHES = 128;
+    /**
+     * Number of LSH bands. With 4 rows per band, pairs above roughly 0.5 similarity almost always share a band.
+     */
+    private static final int BANDS = 32;
+    /**
+     * Number of signature entries per band.
+     */
+    private static final int ROWS = NUM_HASHES / BANDS;
+    /**
+     * Buckets larger than this are verified against one representative instead of pairwise.
+     */
+    private static final int MAX_PAIRWISE_BUCKET = 64;
+    /**
+     * Default similarity above which two notes are reported as near-duplicates.
+     */
+    public static final double DEFAULT_THRESHOLD = 0.8;
+
+    /**
+     * Seeds of the hash functions. Fixed, so signatures are comparable across runs.
+     */
+    private static final long[] SEEDS = new Random(0x5EED_D0C5L).longs(NUM_HASHES).toArray();
+
+    /**
+     * Signature of each note, by note ID. Notes too short to shingle have none.
+     */
+    private final Map<String, int[]> signatures = new HashMap<>();
+    /**
+     * Band keys of each note, to remove it from its buckets when it changes.
+     */
+    private final Map<String, long[]> noteBands = new HashMap<>();
+    /**
+     * Notes sharing each band key.
+     */
+    private final Map<Long, Set<String>> buckets = new HashMap<>();
+    /**
+     * Latest content of notes waiting for a signature update, by note ID. A null content means deletion.
+     * Several edits to the same note before the worker runs are collapsed into one update.
+     */
+    private final Map<String, PendingContent> pending = new ConcurrentHashMap<>();
+    /**
+     * Set by {@link #rebuild} so the next drain discards every signature before applying {@link #pending}.
+     */
+    private final AtomicBoolean resetRequested = new AtomicBoolean(false);
+    /**
+     * Set while a drain of {@link #pending} is queued on the worker.
+     */
+    private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+    /**
+     * The single thread computing signatures and running scans.
+     */
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "duplicate-detector");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    /**
+     * Wrapper for pending content, since a concurrent map cannot hold null for deletions.
+     */
+    private record PendingContent(String content) {}
+
+    /**
+     * Replaces all signatures with those of the given notes, in the background.
+     * The notes are queued like ordinary updates, after a reset marker, so the reset and the snapshot
+     * are applied by the same drain. An update queued after this call overwrites the snapshot entry of
+     * its note and therefore always wins, even if a drain was already queued before the rebuild.
+     * An update queued on another thread while this call runs may be overtaken by the snapshot, so
+     * such updates must be queued again afterwards, as {@link SearchService} does after its rebuild.
+     * @param notes All notes of the vault.
+     */
+    public void rebuild(Collection<Note> notes) {
+        resetRequested.set(true);
+        for (Note note : notes) {
+            pending.put(note.getId(), new PendingContent(note.getContent()));
+        }
+        scheduleDrain();
+    }
+
+    /**
+     * Queues a signature update for a changed note. The content is captured now.
+     * @param note The changed (or new) note.
+     */
+    public void update(Note note) {
+        pending.put(note.getId(), new PendingContent(note.getContent()));
+        scheduleDrain();
+    }
+
+    /**
+     * Queues the removal of a deleted note.
+     * @param noteId The ID of the deleted note.
+     */
+    public void remove(String noteId) {
+        pending.put(noteId, new PendingContent(null));
+        scheduleDrain();
+    }
+
+    /**
+     * Finds the clusters of near-duplicate notes. Runs on the background thread after all queued
+     * updates, and blocks the caller until the scan is done, so it must not be called on the FX thread.
+     * @param threshold The lowest estimated similarity, between 0 and 1, for two notes to be duplicates.
+     * @return The clusters, largest first.
+     * @throws InterruptedException If the caller is interrupted while waiting.
+     */
+    public List<DuplicateCluster> findClusters(double threshold) throws InterruptedException {
+        Future<List<DuplicateCluster>> scan = worker.submit(() -> {
+            drain();
+            synchronized (this) {
+                return scan(threshold);
+            }
+        });
+        try {
+            return scan.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Duplicate scan failed", e.getCause());
+        }
+    }
+
+    /**
+     * Stops the background thread.
+     */
+    public void close() {
+        worker.shutdownNow();
+    }
+
+    private void scheduleDrain() {
+        if (drainScheduled.compareAndSet(false, true)) {
+            worker.execute(this::drain);
+        }
+    }
+
+    /**
+     * Applies every pending update, after discarding all signatures if a rebuild was requested.
+     * Runs on the worker thread.
+     */
+    private void drain() {
+        drainScheduled.set(false);
+        if (resetRequested.getAndSet(false)) {
+            synchronized (this) {
+                signatures.clear();
+                noteBands.clear();
+                buckets.clear();
+            }
+        }
+        for (String noteId : new ArrayList<>(pending.keySet())) {
+            PendingContent content = pending.remove(noteId);
+            if (content != null) {
+                synchronized (this) {
+                    apply(noteId, content.content());
+                }
+            }
+        }
+    }
+
+    /**
+     * Replaces the signature and bucket entries of one note.
+     * @param noteId  The ID of the note.
+     * @param content The note's content, or null if it was deleted.
+     */
+    private void apply(String noteId, String content) {
+        long[] oldBands = noteBands.remove(noteId);
+        if (oldBands != null) {
+            for (long band : oldBands) {
+                Set<String> bucket = buckets.get(band);
+                if (bucket != null && bucket.remove(noteId) && bucket.isEmpty()) {
+                    buckets.remove(band);
+                }
+            }
+        }
+        signatures.remove(noteId);
+
+        int[] signature = content == null ? null : signature(content);
+        if (signature == null) {
+            return;
+        }
+        long[] bands = bandKeys(signature);
+        signatures.put(noteId, signature);
+        noteBands.put(noteId, bands);
+        for (long band : bands) {
+            buckets.computeIfAbsent(band, b -> new LinkedHashSet<>()).add(noteId);
+        }
+    }
+
+    /**
+     * Verifies the candidate pairs of every bucket and joins matching notes into clusters.
+     */
+    private List<DuplicateCluster> scan(double threshold) {
+        Map<String, String> parent = new HashMap<>();
+        Map<String, Double> verifiedPairs = new HashMap<>();
+        Set<String> comparedPairs = new HashSet<>();
+
+        for (Set<String> bucket : buckets.values()) {
+            if (bucket.size() < 2) {
+                continue;
+            }
+            String[] members = bucket.toArray(new String[0]);
+            boolean pairwise = members.length <= MAX_PAIRWISE_BUCKET;
+            for (int i = 0; i < members.length; i++) {
+                for (int j = i + 1; j < members.length; j++) {
+                    if (!pairwise && i > 0) {
+                        break;
+                    }
+                    if (!comparedPairs.add(pairKey(members[i], members[j]))) {
+                        continue;
+                    }
+                    double similarity = similarity(signatures.get(members[i]), signatures.get(members[j]));
+                    if (similarity >= threshold) {
+                        union(parent, members[i], members[j]);
+                        verifiedPairs.merge(members[i], similarity, Math::min);
+                    }
+                }
+            }
+        }
+
+        Map<String, List<String>> clusters = new HashMap<>();
+        for (String noteId : new ArrayList<>(parent.keySet())) {
+            clusters.computeIfAbsent(find(parent, noteId), r -> new ArrayList<>()).add(noteId);
+        }
+        Map<String, Double> clusterSimilarity = new HashMap<>();
+        for (Map.Entry<String, Double> pair : verifiedPairs.entrySet()) {
+            clusterSimilarity.merge(find(parent, pair.getKey()), pair.getValue(), Math::min);
+        }
+        List<DuplicateCluster> result = new ArrayList<>();
+        for (Map.Entry<String, List<String>> cluster : clusters.entrySet()) {
+            double similarity = clusterSimilarity.getOrDefault(cluster.getKey(), threshold);
+            result.add(new DuplicateCluster(List.copyOf(cluster.getValue()), similarity));
+        }
+        result.sort(Comparator.comparingInt((DuplicateCluster c) -> c.noteIds().size()).reversed()
+                .thenComparing(Comparator.comparingDouble(DuplicateCluster::similarity).reversed()));
+        return result;
+    }
+
+    /**
+     * Computes the MinHash signature of a text.
+     * @return The signature, or null if the text has fewer words than one shingle.
+     */
+    static int[] signature(String content) {
+        long[] shingles = shingles(content);
+        if (shingles.length == 0) {
+            return null;
+        }
+        int[] signature = new int[NUM_HASHES];
+        for (int i = 0; i < NUM_HASHES; i++) {
+            long seed = SEEDS[i];
+            long min = Long.MAX_VALUE;
+            for (long shingle : shingles) {
+                long hash = mix(shingle ^ seed);
+                if (hash < min) {
+                    min = hash;
+                }
+            }
+            signature[i] = (int) (min ^ (min >>> 32));
+        }
+        return signature;
+    }
+
+    /**
+     * Hashes every run of {@link #SHINGLE_SIZE} consecutive lowercased words of a text.
+     * @return The distinct shingle hashes, sorted.
+     */
+    private static long[] shingles(String content) {
+        if (content == null || content.isEmpty()) {
+            return new long[0];
+        }
+        List<Long> wordHashes = new ArrayList<>();
+        int length = content.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && !Character.isLetterOrDigit(content.charAt(i))) {
+                i++;
+            }
+            long hash = 1125899906842597L;
+            int start = i;
+            while (i < length && Character.isLetterOrDigit(content.charAt(i))) {
+                hash = 31 * hash + Character.toLowerCase(content.charAt(i));
+                i++;
+            }
+            if (i > start) {
+                wordHashes.add(hash);
+            }
+        }
+        int count = wordHashes.size() - SHINGLE_SIZE + 1;
+        if (count <= 0) {
+            return new long[0];
+        }
+        long[] shingles = new long[count];
+        for (int s = 0; s < count; s++) {
+            long hash = 0;
+            for (int w = 0; w < SHINGLE_SIZE; w++) {
+                hash = mix(hash ^ wordHashes.get(s + w));
+            }
+            shingles[s] = hash;
+        }
+        Arrays.sort(shingles);
+        int distinct = 0;
+        for (int s = 0; s < shingles.length; s++) {
+            if (s == 0 || shingles[s] != shingles[s - 1]) {
+                shingles[distinct++] = shingles[s];
+            }
+        }
+        return Arrays.copyOf(shingles, distinct);
+    }
+
+    /**
+     * Hashes each band of a signature into a bucket key that also encodes the band number.
+     */
+    private static long[] bandKeys(int[] signature) {
+        long[] keys = new long[BANDS];
+        for (int b = 0; b < BANDS; b++) {
+            long hash = b;
+            for (int r = 0; r < ROWS; r++) {
+                hash = mix(hash * 31 + signature[b * ROWS + r]);
+            }
+            keys[b] = hash;
+        }
+        return keys;
+    }
+
+    /**
+     * Estimates the Jaccard similarity of two notes as the fraction of equal signature entries.
+     */
+    private static double similarity(int[] a, int[] b) {
+        int equal = 0;
+        for (int i = 0; i < NUM_HASHES; i++) {
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / NUM_HASHES;
+    }
+
+    /**
+     * An order-independent key for a pair of note IDs.
+     */
+    private static String pairKey(String a, String b) {
+        return a.compareTo(b) < 0 ? a + '|' + b : b + '|' + a;
+    }
+
+    /**
+     * Joins the clusters of two notes in the union-find forest.
+     */
+    private static void union(Map<String, String> parent, String a, String b) {
+        String rootA = find(parent, a);
+        String rootB = find(parent, b);
+        if (!rootA.equals(rootB)) {
+            parent.put(rootB, rootA);
+        }
+    }
+
+    /**
+     * Finds the root of a note's cluster, compressing the path on the way.
+     */
+    private static String find(Map<String, String> parent, String noteId) {
+        String root = parent.computeIfAbsent(noteId, id -> id);
+        while (!root.equals(parent.get(root))) {
+            root = parent.get(root);
+        }
+        String current = noteId;
+        while (!current.equals(root)) {
+            String next = parent.get(current);
+            parent.put(current, root);
+            current = next;
+        }
+        return root;
+    }
+
+    /**
+     * SplitMix64 finalizer, used as the family of hash functions.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58_476D_1CE4_E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D0_49BB_1331_11EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -1,57 +1,221 @@
 package com.eureka;
 
 import com.eureka.model.AppState;
+import com.eureka.model.Note;
 import com.eureka.ui.EditorContainer;
 import com.eureka.ui.Sidebar;
 import com.eureka.ui.ThemeManager;
 import com.eureka.ui.TopBar;
 import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
 import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.SplitPane;
 import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * The main entry point for the Eureka Note-Taking Application.
  * Extends JavaFX Application and sets up the primary stage, layout,
  * loads initial data, initializes services, and handles application lifecycle events.
+ * Startup runs in phases so the window appears at once: a loading view is shown first, the
+ * application state is loaded and the search index opened on a background thread, then the main UI
+ * replaces the loading view while the search index is built in the background, and finally search
+ * comes online. Time to first frame, to interactive and to search ready are logged and registered as
+ * {@link Metrics} gauges.
  */
 public class EurekaApp extends Application {
 
+    /**
+     * When the application class was loaded; startup durations are measured from here.
+     */
+    private static final long LAUNCH_NANOS = System.nanoTime();
+
     /**
      * Static reference to the SearchService instance used throughout the application.
+     * Null until the startup loader has opened the index.
+     */
+    private static volatile SearchService searchService;
+
+    /**
+     * The FX thread watchdog, or null if it is not enabled on this machine.
      */
-    private static SearchService searchService;
+    private static FxWatchdog watchdog;
+
+    /**
+     * Set once the application state has been loaded, so an early exit never saves an empty state
+     * over the user's data.
+     */
+    private static volatile boolean stateLoaded = false;
+
+    /**
+     * Milliseconds from launch until the first frame was laid out, or -1 if not yet.
+     */
+    private static volatile long timeToFirstFrameMs = -1;
+    /**
+     * Milliseconds from launch until the notes could be browsed and edited, or -1 if not yet.
+     */
+    private static volatile long timeToInteractiveMs = -1;
+    /**
+     * Milliseconds from launch until the search index was ready, or -1 if not yet.
+     */
+    private static volatile long timeToSearchReadyMs = -1;
 
     /**
      * The main entry point for all JavaFX applications.
      * This method is called after the JFX toolkit is initialized.
-     * It sets up the primary stage (window), loads application state,
-     * initializes the UI components (Sidebar, EditorContainer, TopBar),
-     * sets up the scene, applies the theme, and shows the window.
-     * It also initializes the SearchService.
+     * It shows the primary stage (window) with a loading view right away and starts loading the
+     * application state and the search index on a background thread.
      * @param primaryStage The primary stage for this application, onto which
      * the application scene can be set.
      */
     @Override
     public void start(Stage primaryStage) {
+        BorderPane rootLayout = new BorderPane();
+        rootLayout.setCenter(createLoadingView());
+
+        Scene scene = new Scene(rootLayout, 1200, 800);
+
+        ThemeManager.initialize(scene);
+
+        registerMetrics(scene);
+
+        if (FxWatchdog.isEnabled()) {
+            watchdog = new FxWatchdog();
+            watchdog.start(scene);
+        }
+
+        primaryStage.setTitle("Eureka");
+        primaryStage.setScene(scene);
+        recordFirstFrame(scene);
+        primaryStage.show();
+
+        Thread loader = new Thread(() -> loadInBackground(rootLayout), "startup-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Registers the startup durations, the note count and the heap usage as gauges, and times
+     * the CSS and layout pass of every pulse of the scene.
+     * @param scene The scene of the primary stage.
+     */
+    private void registerMetrics(Scene scene) {
+        Metrics.gauge("startup.firstFrameMs", EurekaApp::getTimeToFirstFrameMs);
+        Metrics.gauge("startup.interactiveMs", EurekaApp::getTimeToInteractiveMs);
+        Metrics.gauge("startup.searchReadyMs", EurekaApp::getTimeToSearchReadyMs);
+        Metrics.gauge("notes.count", () -> stateLoaded ? AppState.getInstance().getAllNotes().size() : 0);
+        Metrics.gauge("jvm.heapUsedBytes", () -> Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory());
+
+        Metrics.Histogram pulseTimer = Metrics.timer("fx.pulse.layout");
+        long[] pulseStart = new long[1];
+        scene.addPreLayoutPulseListener(() -> pulseStart[0] = System.nanoTime());
+        scene.addPostLayoutPulseListener(() -> pulseTimer.recordSince(pulseStart[0]));
+    }
+
+    /**
+     * Creates the lightweight view shown while the application state is loading.
+     * @return The loading view.
+     */
+    private Node createLoadingView() {
+        ProgressIndicator indicator = new ProgressIndicator();
+        Label label = new Label();
+        label.textProperty().bind(I18n.bind("startup.loading"));
+        VBox loadingView = new VBox(12, indicator, label);
+        loadingView.setAlignment(Pos.CENTER);
+        loadingView.getStyleClass().add("loading-view");
+        return loadingView;
+    }
+
+    /**
+     * Records the time to the first frame once the scene has been laid out for the first time.
+     * @param scene The scene of the primary stage.
+     */
+    private void recordFirstFrame(Scene scene) {
+        Runnable[] firstPulse = new Runnable[1];
+        firstPulse[0] = () -> {
+            scene.removePostLayoutPulseListener(firstPulse[0]);
+            timeToFirstFrameMs = elapsedSinceLaunchMs();
+            System.out.println("Startup: First frame after " + timeToFirstFrameMs + " ms");
+        };
+        scene.addPostLayoutPulseListener(firstPulse[0]);
+    }
+
+    /**
+     * Loads the application state and opens the search index, then hands over to the
+     * JavaFX Application Thread to show the main UI, and finally builds the index.
+     * Runs on the startup loader thread.
+     * @param rootLayout The root of the scene, whose center holds the loading view until the UI is ready.
+     */
+    private void loadInBackground(BorderPane rootLayout) {
         AppState.loadInstance(DataStorageService.loadData());
+        stateLoaded = true;
 
+        SearchService service;
         try {
             Path searchIndexPath = Paths.get(System.getProperty("user.home"), ".eureka");
-            searchService = new SearchService(searchIndexPath);
+            service = new SearchService(searchIndexPath);
         } catch (IOException e) {
             System.err.println("Failed to initialize SearchService:");
             e.printStackTrace();
-            Platform.exit();
+            Platform.runLater(Platform::exit);
             return;
         }
+        searchService = service;
 
-        BorderPane rootLayout = new BorderPane();
+        TopBar[] topBar = new TopBar[1];
+        // Notes to index, taken on the FX thread since the UI may change the AppState from now on.
+        AtomicReference<List<Note>> snapshot = new AtomicReference<>();
+        CountDownLatch uiShown = new CountDownLatch(1);
+        Platform.runLater(() -> {
+            try {
+                topBar[0] = showMainUi(rootLayout);
+                snapshot.set(service.snapshotForRebuild());
+            } finally {
+                uiShown.countDown();
+            }
+        });
+        try {
+            uiShown.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (topBar[0] == null || snapshot.get() == null) {
+            return;
+        }
+
+        try {
+            service.initialize(snapshot.get(), topBar[0]::showIndexProgress);
+        } catch (IOException e) {
+            System.err.println("Error building the search index:");
+            e.printStackTrace();
+        }
+        Platform.runLater(() -> {
+            topBar[0].setSearchReady(true);
+            timeToSearchReadyMs = elapsedSinceLaunchMs();
+            System.out.println("Startup: Search ready after " + timeToSearchReadyMs + " ms");
+        });
+    }
+
+    /**
+     * Builds the main UI (Sidebar, EditorContainer, TopBar) and replaces the loading view with it.
+     * Search stays disabled until the index is ready.
+     * @param rootLayout The root of the scene.
+     * @return The TopBar, which shows the index build progress.
+     */
+    private TopBar showMainUi(BorderPane rootLayout) {
         SplitPane splitPane = new SplitPane();
         EditorContainer editorContainer = new EditorContainer();
         Sidebar sidebar = new Sidebar(editorContainer, splitPane);
@@ -61,34 +225,70 @@ public class EurekaApp extends Application {
         splitPane.setDividerPositions(0.30);
 
         TopBar topBar = new TopBar(editorContainer);
+        topBar.setSearchReady(false);
+        sidebar.setOnTagSelected(topBar::filterByTag);
+        editorContainer.restoreOpenTabs();
 
         rootLayout.setTop(topBar);
         rootLayout.setCenter(splitPane);
 
-        Scene scene = new Scene(rootLayout, 1200, 800);
-
-        ThemeManager.initialize(scene);
-
-        primaryStage.setTitle("Eureka");
-        primaryStage.setScene(scene);
-        primaryStage.show();
-
         if (AppState.getInstance().isSidebarCollapsed()) {
             sidebar.collapse(false);
         }
+
+        timeToInteractiveMs = elapsedSinceLaunchMs();
+        System.out.println("Startup: Interactive after " + timeToInteractiveMs + " ms");
+        return topBar;
     }
 
     /**
      * This method is called when the application should stop, and provides a
      * convenient place to handle application cleanup or saving state.
-     * Saves the current application state before exiting.
+     * Saves the current application state and closes the search index before exiting.
+     * If the window was closed before the state finished loading, nothing is saved.
      */
     @Override
     public void stop() {
-        DataStorageService.saveData(AppState.getInstance());
+        if (stateLoaded) {
+            DataStorageService.saveData(AppState.getInstance());
+        }
+        if (searchService != null) {
+            searchService.close();
+        }
+        if (watchdog != null) {
+            watchdog.stop();
+        }
         System.out.println("Application stopped and data saved.");
     }
 
+    /**
+     * Gets the milliseconds from launch until the first frame was laid out.
+     * @return The duration, or -1 if the first frame has not been laid out yet.
+     */
+    public static long getTimeToFirstFrameMs() {
+        return timeToFirstFrameMs;
+    }
+
+    /**
+     * Gets the milliseconds from launch until the notes could be browsed and edited.
+     * @return The duration, or -1 if startup has not got there yet.
+     */
+    public static long getTimeToInteractiveMs() {
+        return timeToInteractiveMs;
+    }
+
+    /**
+     * Gets the milliseconds from launch until the search index was ready.
+     * @return The duration, or -1 if the index is not ready yet.
+     */
+    public static long getTimeToSearchReadyMs() {
+        return timeToSearchReadyMs;
+    }
+
+    private static long elapsedSinceLaunchMs() {
+        return (System.nanoTime() - LAUNCH_NANOS) / 1_000_000;
+    }
+
     /**
      * Provides static access to the single SearchService instance.
      * @return The application's SearchService instance.
@@ -97,6 +297,14 @@ public class EurekaApp extends Application {
         return searchService;
     }
 
+    /**
+     * Provides static access to the FX thread watchdog.
+     * @return The running watchdog, or null if it is not enabled.
+     */
+    public static FxWatchdog getWatchdog() {
+        return watchdog;
+    }
+
     /**
      * The main() method is ignored in correctly deployed JavaFX application.
      * main() serves only as fallback in case the application can not be
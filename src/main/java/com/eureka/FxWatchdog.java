@@ -0,0 +1,311 @@
+package com.eureka;
+
+import javafx.application.Platform;
+import javafx.scene.Scene;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.prefs.Preferences;
+
+/**
+ * Opt-in watchdog that measures how responsive the JavaFX Application Thread is and attributes stalls.
+ * Pulse listeners on the scene time the CSS and layout pass of every pulse. A heartbeat thread posts
+ * a no-op to the FX thread every {@value #TICK_MS} ms; while a heartbeat stays unprocessed for longer
+ * than {@value #STALL_THRESHOLD_MS} ms the FX thread counts as blocked, and its stack is sampled on
+ * every tick. Samples are aggregated by call site: the innermost application frame and its caller,
+ * e.g. {@code SearchService.addOrUpdateNote ← EditorContainer.lambda$hydrate$1}.
+ * Enabled per machine through a preference, or with the system property {@value #SYSTEM_PROPERTY}.
+ */
+public class FxWatchdog {
+
+    /**
+     * Aggregated stack samples taken while the FX thread was blocked in one call site.
+     * @param site      The call site, as "Class.method ← CallerClass.method".
+     * @param samples   The number of samples taken in the call site.
+     * @param blockedMs The estimated time the FX thread was blocked in the call site.
+     * @param stack     The stack of the first sample, for the report.
+     */
+    public record CallSite(String site, int samples, long blockedMs, String stack) {}
+
+    /**
+     * A snapshot of the measurements since the watchdog started or was reset.
+     * @param pulses         The number of pulses laid out.
+     * @param slowPulses     Pulses whose CSS and layout took longer than {@value #SLOW_PULSE_MS} ms.
+     * @param maxPulseMs     The longest CSS and layout pass of a pulse.
+     * @param stalls         The number of times the FX thread was blocked beyond the threshold.
+     * @param longestStallMs The longest time the FX thread was blocked.
+     * @param callSites      Where the FX thread was blocked, most blocked time first.
+     */
+    public record Report(long pulses, long slowPulses, double maxPulseMs, int stalls, long longestStallMs,
+                         List<CallSite> callSites) {
+
+        /**
+         * Formats the report as plain text, e.g. for attaching to a bug report.
+         * @return The report text, with the sample stack of each call site.
+         */
+        public String toText() {
+            StringBuilder text = new StringBuilder();
+            text.append("Eureka FX watchdog report, ").append(Instant.now()).append('\n');
+            text.append("Pulses: ").append(pulses).append(", slower than ").append(SLOW_PULSE_MS).append(" ms: ")
+                    .append(slowPulses).append(", longest: ").append(String.format("%.1f", maxPulseMs)).append(" ms\n");
+            text.append("Stalls over ").append(STALL_THRESHOLD_MS).append(" ms: ").append(stalls)
+                    .append(", longest: ").append(longestStallMs).append(" ms\n\n");
+            text.append("Blocked time by call site:\n");
+            for (CallSite callSite : callSites) {
+                text.append(String.format("%8d ms  %4d samples  %s%n", callSite.blockedMs(), callSite.samples(),
+                        callSite.site()));
+                text.append(callSite.stack()).append('\n');
+            }
+            return text.toString();
+        }
+    }
+
+    /**
+     * Interval of the heartbeat and of stack samples, in milliseconds.
+     */
+    private static final long TICK_MS = 50;
+    /**
+     * The FX thread counts as blocked once a heartbeat waited this long, in milliseconds.
+     */
+    private static final long STALL_THRESHOLD_MS = 200;
+    /**
+     * Pulses whose CSS and layout pass takes longer than this are counted as slow, in milliseconds.
+     */
+    private static final long SLOW_PULSE_MS = 50;
+    /**
+     * Number of frames kept in the sample stack of a call site.
+     */
+    private static final int REPORTED_FRAMES = 20;
+    private static final String APP_PACKAGE = "com.eureka.";
+    private static final String PREFERENCE_KEY = "fx_watchdog_enabled";
+    private static final String SYSTEM_PROPERTY = "eureka.watchdog";
+
+    private final ScheduledExecutorService scheduler;
+    /**
+     * The JavaFX Application Thread, captured in {@link #start(Scene)}.
+     */
+    private Thread fxThread;
+
+    /**
+     * When the current heartbeat was posted, or 0 if it was processed. Written by both threads.
+     */
+    private volatile long heartbeatPostedAt = 0;
+    /**
+     * When the current stall started, or 0 outside a stall. Only used by the heartbeat thread.
+     */
+    private long stallStartedAt = 0;
+    /**
+     * Start of the layout pass of the current pulse. Only used on the FX thread.
+     */
+    private long pulseStartedAt = 0;
+
+    // Measurements, guarded by this.
+    private long pulses = 0;
+    private long slowPulses = 0;
+    private long maxPulseNanos = 0;
+    private int stalls = 0;
+    private long longestStallNanos = 0;
+    private final Map<String, CallSite> callSites = new HashMap<>();
+
+    /**
+     * Constructs the watchdog. Call {@link #start(Scene)} to start measuring.
+     */
+    public FxWatchdog() {
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "fx-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Checks whether the watchdog is enabled on this machine.
+     * The system property takes precedence over the saved preference. Disabled by default.
+     * @return true if the watchdog should run.
+     */
+    public static boolean isEnabled() {
+        String configured = System.getProperty(SYSTEM_PROPERTY);
+        if (configured != null) {
+            return Boolean.parseBoolean(configured.trim());
+        }
+        return Preferences.userNodeForPackage(FxWatchdog.class).getBoolean(PREFERENCE_KEY, false);
+    }
+
+    /**
+     * Saves whether the watchdog is enabled on this machine. Takes effect on the next start.
+     * @param enabled true to run the watchdog.
+     */
+    public static void setEnabled(boolean enabled) {
+        Preferences.userNodeForPackage(FxWatchdog.class).putBoolean(PREFERENCE_KEY, enabled);
+    }
+
+    /**
+     * Starts timing the pulses of the scene and watching the FX thread.
+     * Must be called on the JavaFX Application Thread.
+     * @param scene The scene whose pulses are timed.
+     */
+    public void start(Scene scene) {
+        fxThread = Thread.currentThread();
+        scene.addPreLayoutPulseListener(() -> pulseStartedAt = System.nanoTime());
+        scene.addPostLayoutPulseListener(this::recordPulse);
+        scheduler.scheduleAtFixedRate(this::tick, TICK_MS, TICK_MS, TimeUnit.MILLISECONDS);
+        System.out.println("FxWatchdog: Watching the FX thread, stalls over " + STALL_THRESHOLD_MS + " ms are sampled");
+    }
+
+    /**
+     * Stops watching the FX thread.
+     */
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Returns a snapshot of the measurements.
+     * @return The report, with call sites sorted by blocked time.
+     */
+    public synchronized Report getReport() {
+        List<CallSite> sites = new ArrayList<>(callSites.values());
+        sites.sort((a, b) -> Long.compare(b.blockedMs(), a.blockedMs()));
+        return new Report(pulses, slowPulses, maxPulseNanos / 1_000_000.0, stalls, longestStallNanos / 1_000_000,
+                sites);
+    }
+
+    /**
+     * Discards all measurements, e.g. before reproducing a stall.
+     */
+    public synchronized void reset() {
+        pulses = 0;
+        slowPulses = 0;
+        maxPulseNanos = 0;
+        stalls = 0;
+        longestStallNanos = 0;
+        callSites.clear();
+    }
+
+    /**
+     * Writes the current report to a text file.
+     * @param file The file to write; replaced if it exists.
+     * @throws IOException If the file cannot be written.
+     */
+    public void dump(Path file) throws IOException {
+        Files.writeString(file, getReport().toText(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Records the duration of the CSS and layout pass that just finished. Runs on the FX thread.
+     */
+    private void recordPulse() {
+        long duration = System.nanoTime() - pulseStartedAt;
+        synchronized (this) {
+            pulses++;
+            if (duration > SLOW_PULSE_MS * 1_000_000) {
+                slowPulses++;
+            }
+            maxPulseNanos = Math.max(maxPulseNanos, duration);
+        }
+    }
+
+    /**
+     * Posts a heartbeat to the FX thread, or samples its stack while the previous heartbeat is overdue.
+     * Runs on the watchdog thread.
+     */
+    private void tick() {
+        try {
+            long now = System.nanoTime();
+            long postedAt = heartbeatPostedAt;
+            if (postedAt == 0) {
+                if (stallStartedAt != 0) {
+                    endStall(now);
+                }
+                heartbeatPostedAt = now;
+                Platform.runLater(() -> heartbeatPostedAt = 0);
+            } else if (now - postedAt > STALL_THRESHOLD_MS * 1_000_000) {
+                if (stallStartedAt == 0) {
+                    stallStartedAt = postedAt;
+                    synchronized (this) {
+                        stalls++;
+                    }
+                }
+                sample(fxThread.getStackTrace());
+            }
+        } catch (Exception e) {
+            System.err.println("Error in the FX watchdog:");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Records the length of the stall that just ended.
+     * @param now The time the end was noticed; at most one tick after the FX thread recovered.
+     */
+    private synchronized void endStall(long now) {
+        longestStallNanos = Math.max(longestStallNanos, now - stallStartedAt);
+        stallStartedAt = 0;
+    }
+
+    /**
+     * Adds a stack sample of the blocked FX thread to its call site.
+     * @param stack The stack of the FX thread.
+     */
+    private void sample(StackTraceElement[] stack) {
+        if (stack.length == 0) {
+            return;
+        }
+        String site = callSite(stack);
+        synchronized (this) {
+            CallSite previous = callSites.get(site);
+            callSites.put(site, previous == null
+                    ? new CallSite(site, 1, TICK_MS, formatStack(stack))
+                    : new CallSite(site, previous.samples() + 1, previous.blockedMs() + TICK_MS, previous.stack()));
+        }
+    }
+
+    /**
+     * Names the call site of a stack: the innermost application frame and the application frame
+     * that called it. Falls back to the innermost frame if no application code is on the stack,
+     * e.g. while JavaFX itself lays out or renders.
+     * @param stack The stack, innermost frame first.
+     * @return The call site.
+     */
+    private static String callSite(StackTraceElement[] stack) {
+        StackTraceElement inner = null;
+        for (StackTraceElement frame : stack) {
+            if (!frame.getClassName().startsWith(APP_PACKAGE)) {
+                continue;
+            }
+            if (inner == null) {
+                inner = frame;
+            } else if (!frame.getClassName().equals(inner.getClassName())
+                    || !frame.getMethodName().equals(inner.getMethodName())) {
+                return frameName(inner) + " ← " + frameName(frame);
+            }
+        }
+        return inner != null ? frameName(inner) : frameName(stack[0]) + " (no application frame)";
+    }
+
+    private static String frameName(StackTraceElement frame) {
+        String className = frame.getClassName();
+        return className.substring(className.lastIndexOf('.') + 1) + "." + frame.getMethodName();
+    }
+
+    private static String formatStack(StackTraceElement[] stack) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < Math.min(stack.length, REPORTED_FRAMES); i++) {
+            text.append("        at ").append(stack[i]).append('\n');
+        }
+        if (stack.length > REPORTED_FRAMES) {
+            text.append("        ... ").append(stack.length - REPORTED_FRAMES).append(" more\n");
+        }
+        return text.toString();
+    }
+}
@@ -1,8 +1,15 @@
 package com.eureka;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Formattable;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.MissingResourceException;
 import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
 import javafx.beans.binding.Bindings;
 import javafx.beans.binding.StringBinding;
 import javafx.beans.property.ObjectProperty;
@@ -11,9 +18,24 @@ import javafx.beans.property.SimpleObjectProperty;
 /**
  * Handles internationalization (i18n) for the application.
  * Loads localized strings from resource bundles based on the current locale.
+ * Each locale's bundle is loaded once and all of its messages are compiled up front,
+ * so a lookup is a map hit and formatting a message does not parse its pattern again.
  */
 public final class I18n {
 
+    /**
+     * Base name of the message bundles.
+     */
+    private static final String BUNDLE_NAME = "i18n.messages";
+    /**
+     * The single Control used for all bundle loads, so the ResourceBundle cache can be reused.
+     */
+    private static final UTF8Control CONTROL = new UTF8Control();
+    /**
+     * Compiled messages by key, per locale. A locale whose bundle is missing maps to an empty map.
+     */
+    private static final Map<Locale, Map<String, Message>> MESSAGES = new ConcurrentHashMap<>();
+
     private static final ObjectProperty<Locale> locale;
 
     static {
@@ -58,18 +80,19 @@ public final class I18n {
 
     /**
      * Gets the localized string for the given key.
-     * Uses UTF8Control to ensure correct character encoding.
+     * The message is looked up in the cached, precompiled bundle of the current locale.
      * @param key The key for the desired string in the resource bundle.
      * @param args Optional arguments for message formatting.
      * @return The localized string.
      */
     public static String get(final String key, final Object... args) {
-        try {
-            ResourceBundle bundle = ResourceBundle.getBundle("i18n.messages", getLocale(), new UTF8Control());
-            return String.format(bundle.getString(key), args);
-        } catch (MissingResourceException e) {
+        Message message = messagesFor(getLocale()).get(key);
+        if (message == null) {
             System.err.println("Warning: Missing resource key: " + key + " for locale " + getLocale());
             return "!" + key + "!";
+        }
+        try {
+            return message.format(args);
         } catch (Exception e) {
             System.err.println("Error getting resource for key: " + key);
             e.printStackTrace();
@@ -77,6 +100,47 @@ public final class I18n {
         }
     }
 
+    /**
+     * Loads and compiles the bundles of the given locales on a background thread,
+     * so switching to one of them later does not stall the UI.
+     * @param locales The locales to preload, e.g. those offered in the language menu.
+     */
+    public static void preload(Collection<Locale> locales) {
+        List<Locale> toLoad = new ArrayList<>(locales);
+        Thread preloader = new Thread(() -> toLoad.forEach(I18n::messagesFor), "i18n-preload");
+        preloader.setDaemon(true);
+        preloader.setPriority(Thread.MIN_PRIORITY);
+        preloader.start();
+    }
+
+    /**
+     * Gets the compiled messages of a locale, loading and compiling its bundle on first use.
+     * @param locale The locale.
+     * @return The messages by key; empty if no bundle could be loaded for the locale.
+     */
+    private static Map<String, Message> messagesFor(Locale locale) {
+        return MESSAGES.computeIfAbsent(locale, I18n::loadMessages);
+    }
+
+    /**
+     * Loads the bundle of a locale, including its parent bundles, and compiles all of its messages.
+     * @param locale The locale.
+     * @return The messages by key; empty if no bundle could be loaded for the locale.
+     */
+    private static Map<String, Message> loadMessages(Locale locale) {
+        try {
+            ResourceBundle bundle = ResourceBundle.getBundle(BUNDLE_NAME, locale, CONTROL);
+            Map<String, Message> messages = new HashMap<>();
+            for (String key : bundle.keySet()) {
+                messages.put(key, Message.compile(bundle.getString(key)));
+            }
+            return messages;
+        } catch (MissingResourceException e) {
+            System.err.println("Warning: Missing resource bundle " + BUNDLE_NAME + " for locale " + locale);
+            return Map.of();
+        }
+    }
+
     /**
      * Creates a StringBinding that automatically updates when the locale changes.
      * @param key The key for the desired string.
@@ -87,5 +151,97 @@ public final class I18n {
         return Bindings.createStringBinding(() -> get(key, args), locale);
     }
 
+    /**
+     * A message pattern split into literal text and argument slots once, when its bundle is loaded.
+     * Patterns that only use {@code %s}, {@code %%} and {@code %n} are formatted by concatenation;
+     * any other pattern keeps using {@link String#format(String, Object...)}. That includes {@code %d},
+     * whose digits String.format renders in the default format locale.
+     * Package-private so tests can compare it with String.format.
+     */
+    static final class Message {
+
+        /**
+         * The original pattern, used for the String.format fallback.
+         */
+        private final String pattern;
+        /**
+         * Literal text before each {@code %s} slot, plus the text after the last slot; null if the
+         * pattern is not simple.
+         */
+        private final String[] literals;
+
+        private Message(String pattern, String[] literals) {
+            this.pattern = pattern;
+            this.literals = literals;
+        }
+
+        /**
+         * Compiles a pattern from a resource bundle.
+         * @param pattern The pattern, in {@link java.util.Formatter} syntax.
+         * @return The compiled message.
+         */
+        static Message compile(String pattern) {
+            List<String> literals = new ArrayList<>();
+            StringBuilder literal = new StringBuilder();
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                if (c != '%') {
+                    literal.append(c);
+                    continue;
+                }
+                char conversion = i + 1 < pattern.length() ? pattern.charAt(++i) : 0;
+                switch (conversion) {
+                    case '%' -> literal.append('%');
+                    case 'n' -> literal.append(System.lineSeparator());
+                    case 's' -> {
+                        literals.add(literal.toString());
+                        literal.setLength(0);
+                    }
+                    default -> {
+                        // Numbers, flags, widths, indexes or other conversions: leave them to String.format.
+                        return new Message(pattern, null);
+                    }
+                }
+            }
+            literals.add(literal.toString());
+            return new Message(pattern, literals.toArray(new String[0]));
+        }
+
+        /**
+         * Formats the message with the given arguments.
+         * Behaves like String.format with the pattern, which is also used for arguments
+         * that concatenation cannot render the same way.
+         * @param args The arguments.
+         * @return The formatted message.
+         */
+        String format(Object... args) {
+            if (literals == null || !canConcatenate(args)) {
+                return String.format(pattern, args);
+            }
+            int slots = literals.length - 1;
+            if (slots == 0) {
+                return literals[0];
+            }
+            StringBuilder result = new StringBuilder(pattern.length() + 16 * slots);
+            for (int i = 0; i < slots; i++) {
+                result.append(literals[i]).append(args[i]);
+            }
+            return result.append(literals[slots]).toString();
+        }
+
+        private boolean canConcatenate(Object[] args) {
+            int slots = literals.length - 1;
+            if (args == null || args.length < slots) {
+                return slots == 0;
+            }
+            for (int i = 0; i < slots; i++) {
+                if (args[i] instanceof Formattable) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
     private I18n() {}
 }
\ No newline at end of file
@@ -0,0 +1,95 @@
+package com.eureka;
+
+import org.apache.lucene.index.IndexFileNames;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.store.NRTCachingDirectory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Set;
+import java.util.prefs.Preferences;
+
+/**
+ * Strategies for storing the Lucene search index.
+ * The mode is a per-machine preference, since the best choice depends on available memory and disk speed.
+ * It can be overridden for a single run with the {@code eureka.index.directory} system property.
+ */
+public enum IndexDirectoryMode {
+    /** Lets Lucene pick the best file system implementation for the platform. */
+    FILESYSTEM,
+    /** Memory-mapped files, with the small, frequently read index structures preloaded into the page cache. */
+    MMAP,
+    /** Keeps the whole index on the heap. Nothing is written to disk; the index is rebuilt on every start. */
+    MEMORY,
+    /** File system storage with small, freshly flushed segments kept in RAM until they are merged. */
+    NRT_CACHING;
+
+    private static final String PREFERENCE_KEY = "index_directory_mode";
+    private static final String SYSTEM_PROPERTY = "eureka.index.directory";
+
+    /**
+     * Extensions of index files that are read on almost every query: terms index, points index,
+     * norms, doc values and vector graph. These are small compared to postings and stored fields.
+     */
+    private static final Set<String> HOT_FILE_EXTENSIONS = Set.of("tip", "tmd", "kdi", "kdm", "nvd", "nvm", "dvd", "dvm", "vex");
+
+    /**
+     * Largest segment (in MB) that NRT_CACHING keeps in RAM after a flush or merge.
+     */
+    private static final double NRT_MAX_MERGE_SIZE_MB = 5.0;
+    /**
+     * Total RAM (in MB) that NRT_CACHING may use for cached segments.
+     */
+    private static final double NRT_MAX_CACHED_MB = 60.0;
+
+    /**
+     * Opens a directory of this mode.
+     * @param indexPath The on-disk location of the index. Ignored by {@link #MEMORY}.
+     * @return The opened {@link Directory}.
+     * @throws IOException If the directory cannot be opened or created.
+     */
+    public Directory open(Path indexPath) throws IOException {
+        return switch (this) {
+            case MMAP -> {
+                MMapDirectory directory = new MMapDirectory(indexPath);
+                directory.setPreload((fileName, context) ->
+                        HOT_FILE_EXTENSIONS.contains(IndexFileNames.getExtension(fileName)));
+                yield directory;
+            }
+            case MEMORY -> new ByteBuffersDirectory();
+            case NRT_CACHING -> new NRTCachingDirectory(FSDirectory.open(indexPath), NRT_MAX_MERGE_SIZE_MB, NRT_MAX_CACHED_MB);
+            case FILESYSTEM -> FSDirectory.open(indexPath);
+        };
+    }
+
+    /**
+     * Loads the configured mode. The system property takes precedence over the saved preference.
+     * Defaults to {@link #FILESYSTEM} if nothing is configured or the value is invalid.
+     * @return The configured mode.
+     */
+    public static IndexDirectoryMode load() {
+        String configured = System.getProperty(SYSTEM_PROPERTY);
+        if (configured == null) {
+            Preferences prefs = Preferences.userNodeForPackage(IndexDirectoryMode.class);
+            configured = prefs.get(PREFERENCE_KEY, FILESYSTEM.name());
+        }
+        try {
+            return valueOf(configured.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Warning: Unknown index directory mode '" + configured + "', using " + FILESYSTEM);
+            return FILESYSTEM;
+        }
+    }
+
+    /**
+     * Saves this mode as the preference for this machine. Takes effect on the next start.
+     */
+    public void save() {
+        Preferences prefs = Preferences.userNodeForPackage(IndexDirectoryMode.class);
+        prefs.put(PREFERENCE_KEY, name());
+    }
+}
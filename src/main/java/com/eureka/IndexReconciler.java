@@ -0,0 +1,286 @@
+package com.eureka;
+
+import com.eureka.model.AppState;
+import com.eureka.model.Note;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.SortedDocValues;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.util.Bits;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Background job that finds and repairs differences between the search index and {@link AppState}.
+ * Reads the ID, update time and content length of every live index document from doc values,
+ * compares them with the notes in AppState, then deletes orphaned documents and reindexes notes
+ * that are stale, missing or indexed more than once.
+ * Runs shortly after startup, periodically, and on request (e.g. when a search hits an orphan).
+ * Work is done in small batches on a low-priority thread, pausing between batches and while
+ * the user is editing, so interactive use is not disturbed.
+ */
+public class IndexReconciler {
+
+    /**
+     * The outcome of one reconciliation run.
+     * @param indexedDocs The number of live documents in the index.
+     * @param notes       The number of indexable notes in AppState.
+     * @param orphans     Documents whose note no longer exists; deleted.
+     * @param stale       Documents older than their note; reindexed.
+     * @param missing     Notes without a document; indexed.
+     * @param duplicates  Notes with more than one document; reindexed into one.
+     * @param durationMs  How long the run took, including pauses.
+     */
+    public record Report(int indexedDocs, int notes, int orphans, int stale, int missing, int duplicates,
+                         long durationMs) {
+
+        /**
+         * Returns the total number of problems found (and fixed).
+         * @return The sum of orphans, stale, missing and duplicate entries.
+         */
+        public int drift() {
+            return orphans + stale + missing + duplicates;
+        }
+
+        @Override
+        public String toString() {
+            return "checked " + indexedDocs + " documents against " + notes + " notes in " + durationMs + " ms; "
+                    + "drift " + drift() + " (orphans " + orphans + ", stale " + stale + ", missing " + missing
+                    + ", duplicates " + duplicates + ")";
+        }
+    }
+
+    /**
+     * Delay before the first run after startup, in seconds.
+     */
+    private static final long INITIAL_DELAY_S = 30;
+    /**
+     * Interval between periodic runs, in seconds.
+     */
+    private static final long INTERVAL_S = 10 * 60;
+    /**
+     * Number of documents read or notes repaired between two pauses.
+     */
+    private static final int BATCH_SIZE = 200;
+    /**
+     * Pause between two batches, in milliseconds.
+     */
+    private static final long BATCH_PAUSE_MS = 25;
+    /**
+     * The job only works once no note has changed for this long, in milliseconds.
+     */
+    private static final long IDLE_BEFORE_WORK_MS = 1_500;
+
+    /**
+     * Version information of one index document.
+     */
+    private record IndexedNote(long updatedAt, long length) {}
+
+    private final SearchService searchService;
+    private final ScheduledExecutorService scheduler;
+    /**
+     * Guards against queueing more than one requested run at a time.
+     */
+    private final AtomicBoolean runRequested = new AtomicBoolean(false);
+    /**
+     * The report of the latest completed run, or null before the first run.
+     */
+    private volatile Report lastReport;
+
+    /**
+     * Constructs the reconciler. Call {@link #start()} to schedule it.
+     * @param searchService The search service whose index is checked and repaired.
+     */
+    public IndexReconciler(SearchService searchService) {
+        this.searchService = searchService;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "index-reconciler");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    /**
+     * Schedules the first run shortly after startup and periodic runs after it.
+     */
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::runLogged, INITIAL_DELAY_S, INTERVAL_S, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops all scheduled and running work.
+     */
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Queues a run as soon as possible, unless one is already queued.
+     */
+    public void requestRun() {
+        if (runRequested.compareAndSet(false, true)) {
+            scheduler.execute(() -> {
+                runRequested.set(false);
+                runLogged();
+            });
+        }
+    }
+
+    /**
+     * Returns the report of the latest completed run.
+     * @return The report, or null if no run completed yet.
+     */
+    public Report getLastReport() {
+        return lastReport;
+    }
+
+    /**
+     * Runs a reconciliation on the calling thread, still pausing between batches.
+     * Runs are serialized, so a manual check never overlaps a scheduled one.
+     * @return The report of the run.
+     * @throws IOException If the index cannot be read or written.
+     * @throws InterruptedException If the thread is interrupted while pausing.
+     */
+    public synchronized Report runNow() throws IOException, InterruptedException {
+        long start = System.currentTimeMillis();
+        Set<String> duplicates = new HashSet<>();
+        Map<String, IndexedNote> indexed = readIndex(duplicates);
+
+        AppState appState = AppState.getInstance();
+        List<Note> notes = appState.getAllNotes();
+        notes.removeIf(note -> appState.getSetById(note.getSetId()).isEmpty());
+
+        List<Note> toReindex = new ArrayList<>();
+        Set<String> noteIds = new HashSet<>();
+        int stale = 0;
+        int missing = 0;
+        for (Note note : notes) {
+            noteIds.add(note.getId());
+            IndexedNote entry = indexed.get(note.getId());
+            String content = note.getContent();
+            if (entry == null) {
+                missing++;
+                toReindex.add(note);
+            } else if (duplicates.contains(note.getId())) {
+                toReindex.add(note);
+            } else if (entry.updatedAt() != note.getUpdatedAt() || entry.length() != (content == null ? 0 : content.length())) {
+                stale++;
+                toReindex.add(note);
+            }
+        }
+        List<String> orphans = new ArrayList<>();
+        for (String indexedId : indexed.keySet()) {
+            if (!noteIds.contains(indexedId)) {
+                orphans.add(indexedId);
+            }
+        }
+
+        for (int i = 0; i < orphans.size(); i++) {
+            throttle(i);
+            // The note may have been created since the snapshot; only delete what is still unknown.
+            if (appState.getNoteById(orphans.get(i)).isEmpty()) {
+                searchService.unindexNote(orphans.get(i));
+            }
+        }
+        for (int i = 0; i < toReindex.size(); i++) {
+            throttle(i);
+            Note note = toReindex.get(i);
+            if (appState.getNoteById(note.getId()).isPresent()) {
+                searchService.indexNote(note);
+            }
+        }
+
+        Report report = new Report(indexed.size(), notes.size(), orphans.size(), stale, missing,
+                duplicates.size(), System.currentTimeMillis() - start);
+        lastReport = report;
+        return report;
+    }
+
+    /**
+     * Runs a reconciliation and logs the outcome. Used by the scheduler.
+     */
+    private void runLogged() {
+        try {
+            Report report = runNow();
+            if (report.drift() > 0) {
+                System.out.println("IndexReconciler: Repaired index drift, " + report);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.err.println("Error reconciling the search index:");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Reads the ID, update time and length of every live document from doc values.
+     * @param duplicates Receives the IDs found on more than one live document.
+     * @return The version information by note ID.
+     */
+    private Map<String, IndexedNote> readIndex(Set<String> duplicates) throws IOException, InterruptedException {
+        SearcherManager searcherManager = searchService.getSearcherManager();
+        searcherManager.maybeRefreshBlocking();
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            Map<String, IndexedNote> indexed = new HashMap<>();
+            int read = 0;
+            for (LeafReaderContext context : searcher.getIndexReader().leaves()) {
+                LeafReader reader = context.reader();
+                SortedDocValues ids = reader.getSortedDocValues("id");
+                if (ids == null) {
+                    continue;
+                }
+                NumericDocValues updatedAt = reader.getNumericDocValues("updatedAt");
+                NumericDocValues lengths = reader.getNumericDocValues("length");
+                Bits liveDocs = reader.getLiveDocs();
+                for (int doc = ids.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = ids.nextDoc()) {
+                    if (liveDocs != null && !liveDocs.get(doc)) {
+                        continue;
+                    }
+                    throttle(read++);
+                    String id = ids.lookupOrd(ids.ordValue()).utf8ToString();
+                    long updated = updatedAt != null && updatedAt.advanceExact(doc) ? updatedAt.longValue() : -1;
+                    long length = lengths != null && lengths.advanceExact(doc) ? lengths.longValue() : -1;
+                    if (indexed.put(id, new IndexedNote(updated, length)) != null) {
+                        duplicates.add(id);
+                    }
+                }
+            }
+            return indexed;
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    /**
+     * Pauses between batches, and before each batch waits until notes have not been edited for a moment.
+     * @param done The number of items processed so far in the current phase.
+     */
+    private void throttle(int done) throws InterruptedException {
+        if (done % BATCH_SIZE != 0) {
+            return;
+        }
+        if (done > 0) {
+            Thread.sleep(BATCH_PAUSE_MS);
+        }
+        long sinceChange;
+        while ((sinceChange = System.currentTimeMillis() - searchService.getLastChangeAt()) < IDLE_BEFORE_WORK_MS) {
+            Thread.sleep(IDLE_BEFORE_WORK_MS - sinceChange);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.eureka;
+
+import com.eureka.model.AppState;
+import com.eureka.model.Note;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Graph of {@code [[Note Title]]} links between notes, with outgoing links and backlinks.
+ * Links point at titles rather than note IDs, so a link may be written before its target exists.
+ * Titles are compared case-insensitively with whitespace collapsed.
+ * The graph is updated incrementally: when a note changes, only the difference between its old and
+ * new link sets is applied, and looking up the referrers of a title costs time proportional to their number.
+ */
+public class LinkIndex {
+
+    /**
+     * Matches {@code [[Title]]} and {@code [[Title|label]]}. Group 1 is the title.
+     */
+    private static final Pattern LINK_PATTERN = Pattern.compile("\\[\\[([^\\[\\]|\\n]+)(\\|[^\\[\\]\\n]*)?]]");
+
+    /**
+     * Normalized link targets of each note, by note ID.
+     */
+    private final Map<String, Set<String>> outgoing = new HashMap<>();
+    /**
+     * IDs of the notes linking to each normalized title.
+     */
+    private final Map<String, Set<String>> backlinks = new HashMap<>();
+
+    /**
+     * Replaces the whole graph with the links of the given notes.
+     * @param notes All notes of the vault.
+     */
+    public synchronized void rebuild(Collection<Note> notes) {
+        outgoing.clear();
+        backlinks.clear();
+        for (Note note : notes) {
+            update(note);
+        }
+    }
+
+    /**
+     * Re-parses the links of a changed note and applies the difference to the graph.
+     * @param note The note whose content changed (or a newly created note).
+     */
+    public synchronized void update(Note note) {
+        Set<String> newTargets = extractLinks(note.getContent());
+        Set<String> oldTargets = outgoing.getOrDefault(note.getId(), Collections.emptySet());
+        if (newTargets.equals(oldTargets)) {
+            return;
+        }
+        for (String target : oldTargets) {
+            if (!newTargets.contains(target)) {
+                removeBacklink(target, note.getId());
+            }
+        }
+        for (String target : newTargets) {
+            if (!oldTargets.contains(target)) {
+                backlinks.computeIfAbsent(target, t -> new HashSet<>()).add(note.getId());
+            }
+        }
+        if (newTargets.isEmpty()) {
+            outgoing.remove(note.getId());
+        } else {
+            outgoing.put(note.getId(), newTargets);
+        }
+    }
+
+    /**
+     * Removes a deleted note's outgoing links. Links pointing at its title stay, since another
+     * note may be given that title later.
+     * @param noteId The ID of the deleted note.
+     */
+    public synchronized void remove(String noteId) {
+        Set<String> targets = outgoing.remove(noteId);
+        if (targets != null) {
+            for (String target : targets) {
+                removeBacklink(target, noteId);
+            }
+        }
+    }
+
+    /**
+     * Returns the IDs of the notes that link to the given title.
+     * @param title The title of the linked note.
+     * @return A snapshot of the referring note IDs.
+     */
+    public synchronized Set<String> getReferrers(String title) {
+        Set<String> referrers = backlinks.get(normalize(title));
+        return referrers == null ? Collections.emptySet() : Set.copyOf(referrers);
+    }
+
+    /**
+     * Returns the notes linking to the given note, excluding the note itself.
+     * @param note The linked note.
+     * @return The referring notes that still exist.
+     */
+    public List<Note> getBacklinks(Note note) {
+        AppState appState = AppState.getInstance();
+        List<Note> notes = new ArrayList<>();
+        for (String referrerId : getReferrers(note.getTitle())) {
+            if (!referrerId.equals(note.getId())) {
+                appState.getNoteById(referrerId).ifPresent(notes::add);
+            }
+        }
+        return notes;
+    }
+
+    /**
+     * Returns the normalized titles a note links to.
+     * @param noteId The ID of the note.
+     * @return A snapshot of the note's link targets.
+     */
+    public synchronized Set<String> getOutgoing(String noteId) {
+        Set<String> targets = outgoing.get(noteId);
+        return targets == null ? Collections.emptySet() : Set.copyOf(targets);
+    }
+
+    /**
+     * Points every link to a renamed note at its new title.
+     * Links resolve by title, so they only belong to the renamed note if no other note still has
+     * the old title; otherwise they keep pointing at that note and nothing is rewritten.
+     * Only the referrers found through the backlinks are rewritten; other notes are not read.
+     * The rewritten notes are updated in the graph, but the caller must still reindex and save them.
+     * @param renamed  The renamed note, already carrying its new title.
+     * @param oldTitle The title before the rename.
+     * @return The notes whose content was changed.
+     */
+    public synchronized List<Note> retargetLinks(Note renamed, String oldTitle) {
+        String oldKey = normalize(oldTitle);
+        List<Note> changed = new ArrayList<>();
+        AppState appState = AppState.getInstance();
+        for (Note other : appState.getAllNotes()) {
+            if (!other.getId().equals(renamed.getId()) && normalize(other.getTitle()).equals(oldKey)) {
+                return changed;
+            }
+        }
+        String newTitle = renamed.getTitle();
+        for (String referrerId : getReferrers(oldTitle)) {
+            appState.getNoteById(referrerId).ifPresent(referrer -> {
+                String rewritten = rewriteLinks(referrer.getContent(), oldKey, newTitle);
+                if (!rewritten.equals(referrer.getContent())) {
+                    referrer.setContent(rewritten);
+                    referrer.setUpdatedAt(System.currentTimeMillis());
+                    update(referrer);
+                    changed.add(referrer);
+                }
+            });
+        }
+        return changed;
+    }
+
+    /**
+     * Parses the normalized link targets of a text.
+     * @param content The note content. May be null.
+     * @return The distinct normalized titles linked from the text.
+     */
+    public static Set<String> extractLinks(String content) {
+        if (content == null || content.indexOf("[[") < 0) {
+            return Collections.emptySet();
+        }
+        Set<String> targets = new HashSet<>();
+        Matcher matcher = LINK_PATTERN.matcher(content);
+        while (matcher.find()) {
+            String target = normalize(matcher.group(1));
+            if (!target.isEmpty()) {
+                targets.add(target);
+            }
+        }
+        return targets;
+    }
+
+    /**
+     * Normalizes a title for link matching: trimmed, lowercased, inner whitespace collapsed.
+     * @param title The title. May be null.
+     * @return The normalized title.
+     */
+    public static String normalize(String title) {
+        if (title == null) {
+            return "";
+        }
+        return title.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Replaces the title of every link to {@code oldKey} in a text, keeping link labels.
+     */
+    private static String rewriteLinks(String content, String oldKey, String newTitle) {
+        Matcher matcher = LINK_PATTERN.matcher(content);
+        StringBuilder result = new StringBuilder(content.length());
+        while (matcher.find()) {
+            String replacement = matcher.group();
+            if (normalize(matcher.group(1)).equals(oldKey)) {
+                String label = matcher.group(2) == null ? "" : matcher.group(2);
+                replacement = "[[" + newTitle + label + "]]";
+            }
+            matcher.appendReplacement(result, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(result);
+        return result.toString();
+    }
+
+    private void removeBacklink(String target, String noteId) {
+        Set<String> referrers = backlinks.get(target);
+        if (referrers != null) {
+            referrers.remove(noteId);
+            if (referrers.isEmpty()) {
+                backlinks.remove(target);
+            }
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.eureka;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Lightweight in-process registry of named counters, gauges and histograms.
+ * Metrics are created on first use and live for the rest of the process; recording is lock-free,
+ * so it can be done on the FX thread and in hot indexing paths.
+ * Histograms use HDR-style log-linear buckets: exact below {@value Histogram#SUB_BUCKETS}, and
+ * within about 3% above, at a fixed memory cost independent of the number of recorded values.
+ * Durations are recorded in microseconds.
+ */
+public final class Metrics {
+
+    /**
+     * A monotonically increasing count, e.g. of queries run.
+     */
+    public static final class Counter {
+
+        private final LongAdder value = new LongAdder();
+
+        /**
+         * Adds one to the counter.
+         */
+        public void increment() {
+            value.increment();
+        }
+
+        /**
+         * Gets the current count.
+         * @return The count.
+         */
+        public long get() {
+            return value.sum();
+        }
+    }
+
+    /**
+     * Distribution of recorded values, e.g. latencies or sizes.
+     */
+    public static final class Histogram {
+
+        /**
+         * Number of linear sub-buckets per power of two; sets the precision of the buckets.
+         */
+        static final int SUB_BUCKETS = 32;
+        private static final int SUB_BUCKET_BITS = Integer.numberOfTrailingZeros(SUB_BUCKETS);
+        private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+        private final String unit;
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final AtomicLong max = new AtomicLong(0);
+
+        private Histogram(String unit) {
+            this.unit = unit;
+        }
+
+        /**
+         * Records a value. Negative values are recorded as 0.
+         * @param value The value, in the unit of the histogram.
+         */
+        public void record(long value) {
+            long clamped = Math.max(0, value);
+            buckets.incrementAndGet(bucketIndex(clamped));
+            count.increment();
+            sum.add(clamped);
+            max.accumulateAndGet(clamped, Math::max);
+        }
+
+        /**
+         * Records the time elapsed since a start time, in microseconds.
+         * @param startNanos The start time, from {@link System#nanoTime()}.
+         */
+        public void recordSince(long startNanos) {
+            record((System.nanoTime() - startNanos) / 1_000);
+        }
+
+        /**
+         * Gets the unit of the recorded values.
+         * @return The unit, e.g. "µs" or "bytes".
+         */
+        public String getUnit() {
+            return unit;
+        }
+
+        /**
+         * Gets the number of recorded values.
+         * @return The count.
+         */
+        public long getCount() {
+            return count.sum();
+        }
+
+        /**
+         * Gets the largest recorded value.
+         * @return The maximum, or 0 if nothing was recorded.
+         */
+        public long getMax() {
+            return max.get();
+        }
+
+        /**
+         * Gets the mean of the recorded values.
+         * @return The mean, or 0 if nothing was recorded.
+         */
+        public double getMean() {
+            long n = count.sum();
+            return n == 0 ? 0 : (double) sum.sum() / n;
+        }
+
+        /**
+         * Estimates a percentile from the buckets.
+         * @param percentile The percentile, between 0 and 100.
+         * @return The upper bound of the bucket holding the percentile, capped at the maximum;
+         * 0 if nothing was recorded.
+         */
+        public long getPercentile(double percentile) {
+            long n = count.sum();
+            if (n == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(n * percentile / 100));
+            long seen = 0;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                seen += buckets.get(i);
+                if (seen >= rank) {
+                    return Math.min(bucketLowerBound(i + 1) - 1, max.get());
+                }
+            }
+            return max.get();
+        }
+
+        /**
+         * Summarizes the distribution in one line.
+         * @return The count, mean, percentiles and maximum with their unit.
+         */
+        String summary() {
+            return String.format("count=%d mean=%.1f p50=%d p90=%d p99=%d max=%d %s", getCount(), getMean(),
+                    getPercentile(50), getPercentile(90), getPercentile(99), getMax(), unit);
+        }
+
+        private static int bucketIndex(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+            int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+            return (shift + 1) * SUB_BUCKETS + subBucket;
+        }
+
+        private static long bucketLowerBound(int index) {
+            if (index < SUB_BUCKETS) {
+                return index;
+            }
+            int shift = index / SUB_BUCKETS - 1;
+            long subBucket = index % SUB_BUCKETS + SUB_BUCKETS;
+            return shift >= 63 - SUB_BUCKET_BITS ? Long.MAX_VALUE : subBucket << shift;
+        }
+    }
+
+    /**
+     * The current value of a metric, for display and export.
+     * @param name    The name of the metric.
+     * @param type    "counter", "gauge" or "histogram".
+     * @param summary The value, or the distribution summary of a histogram.
+     */
+    public record MetricValue(String name, String type, String summary) {}
+
+    private static final Map<String, Counter> counters = new ConcurrentSkipListMap<>();
+    private static final Map<String, LongSupplier> gauges = new ConcurrentSkipListMap<>();
+    private static final Map<String, Histogram> histograms = new ConcurrentSkipListMap<>();
+
+    private Metrics() {}
+
+    /**
+     * Gets the counter with the given name, creating it on first use.
+     * @param name The name, e.g. "search.queries".
+     * @return The counter.
+     */
+    public static Counter counter(String name) {
+        return counters.computeIfAbsent(name, key -> new Counter());
+    }
+
+    /**
+     * Registers a gauge, whose value is read whenever the metrics are shown or exported.
+     * Replaces an earlier gauge of the same name.
+     * @param name  The name, e.g. "notes.count".
+     * @param value Supplies the current value; must be cheap and thread-safe.
+     */
+    public static void gauge(String name, LongSupplier value) {
+        gauges.put(name, value);
+    }
+
+    /**
+     * Gets the histogram of durations with the given name, creating it on first use.
+     * @param name The name, e.g. "search.query".
+     * @return The histogram, recording microseconds.
+     */
+    public static Histogram timer(String name) {
+        return histogram(name, "µs");
+    }
+
+    /**
+     * Gets the histogram with the given name, creating it on first use.
+     * @param name The name, e.g. "search.results".
+     * @param unit The unit of the values; only used when the histogram is created.
+     * @return The histogram.
+     */
+    public static Histogram histogram(String name, String unit) {
+        return histograms.computeIfAbsent(name, key -> new Histogram(unit));
+    }
+
+    /**
+     * Reads the current value of every metric.
+     * @return The values, counters first, then gauges and histograms, each sorted by name.
+     */
+    public static List<MetricValue> snapshot() {
+        List<MetricValue> values = new ArrayList<>();
+        counters.forEach((name, counter) -> values.add(new MetricValue(name, "counter", String.valueOf(counter.get()))));
+        gauges.forEach((name, gauge) -> {
+            String value;
+            try {
+                value = String.valueOf(gauge.getAsLong());
+            } catch (RuntimeException e) {
+                value = "error: " + e.getMessage();
+            }
+            values.add(new MetricValue(name, "gauge", value));
+        });
+        histograms.forEach((name, histogram) -> values.add(new MetricValue(name, "histogram", histogram.summary())));
+        return values;
+    }
+
+    /**
+     * Writes the current value of every metric to a text file, one metric per line.
+     * @param file The file to write; replaced if it exists.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void export(Path file) throws IOException {
+        StringBuilder text = new StringBuilder();
+        text.append("# Eureka metrics, ").append(Instant.now()).append('\n');
+        for (MetricValue value : snapshot()) {
+            text.append(value.name()).append('\t').append(value.type()).append('\t').append(value.summary()).append('\n');
+        }
+        Files.writeString(file, text.toString(), StandardCharsets.UTF_8);
+    }
+}
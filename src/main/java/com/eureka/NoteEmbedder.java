@@ -0,0 +1,154 @@
+package com.eureka;
+
+import com.eureka.model.Note;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.Term;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Computes a fixed-size embedding vector for a note, entirely in-process.
+ * Uses the hashing trick: every word is hashed to one of {@link #DIMENSIONS} buckets with a
+ * pseudo-random sign, weighted by sublinear term frequency, and the vector is normalized to unit length.
+ * Notes that share many distinctive words therefore end up with a high dot product.
+ * Stop words are removed so they do not dominate every vector.
+ * Embeddings used as queries can additionally weight every word by its inverse document frequency
+ * in the index, so words shared by many notes count less than rare ones. Stored embeddings keep plain
+ * term-frequency weights, so they do not go stale as the rest of the vault changes.
+ */
+public class NoteEmbedder {
+
+    /**
+     * Number of dimensions of every embedding.
+     */
+    public static final int DIMENSIONS = 256;
+
+    /**
+     * Extra weight given to words from the title, which usually describe the note best.
+     */
+    private static final float TITLE_WEIGHT = 2f;
+
+    /**
+     * Indexed field whose document frequencies are used for inverse document frequency weights.
+     * It is analyzed the same way as this embedder's words, apart from stop word removal.
+     */
+    private static final String FREQUENCY_FIELD = "content";
+
+    /**
+     * Tokenizer and lowercaser with English stop words removed.
+     */
+    private final Analyzer analyzer = new StandardAnalyzer(EnglishAnalyzer.ENGLISH_STOP_WORDS_SET);
+
+    /**
+     * Computes the embedding of a note from its title and content.
+     * @param note The {@link Note} to embed.
+     * @return A unit-length vector, or null if the note contains no indexable words.
+     */
+    public float[] embed(Note note) {
+        return embed(note, null);
+    }
+
+    /**
+     * Computes the embedding of a note, weighting every word by its inverse document frequency.
+     * @param note   The {@link Note} to embed.
+     * @param reader The index to take document frequencies from, or null for plain term-frequency weights.
+     * @return A unit-length vector, or null if the note contains no indexable words.
+     */
+    public float[] embed(Note note, IndexReader reader) {
+        Map<String, Float> weights = new HashMap<>();
+        try {
+            addTermFrequencies(weights, note.getTitle(), TITLE_WEIGHT);
+            addTermFrequencies(weights, note.getContent(), 1f);
+        } catch (IOException e) {
+            System.err.println("Error computing embedding for note ID: " + note.getId());
+            e.printStackTrace();
+            return null;
+        }
+        if (weights.isEmpty()) {
+            return null;
+        }
+
+        float[] vector = new float[DIMENSIONS];
+        for (Map.Entry<String, Float> entry : weights.entrySet()) {
+            int hash = mix(entry.getKey().hashCode());
+            int bucket = Math.floorMod(hash, DIMENSIONS);
+            float sign = (hash & 0x8000_0000) == 0 ? 1f : -1f;
+            float weight = 1f + (float) Math.log(entry.getValue());
+            if (reader != null) {
+                try {
+                    weight *= idf(reader, entry.getKey());
+                } catch (IOException e) {
+                    System.err.println("Error reading document frequency for embedding of note ID: " + note.getId());
+                    e.printStackTrace();
+                    return null;
+                }
+            }
+            vector[bucket] += sign * weight;
+        }
+        return normalize(vector);
+    }
+
+    /**
+     * Adds the weighted frequency of each word of a text to the given map.
+     */
+    private void addTermFrequencies(Map<String, Float> weights, String text, float weight) throws IOException {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        try (TokenStream stream = analyzer.tokenStream("content", text)) {
+            CharTermAttribute termAttribute = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                weights.merge(termAttribute.toString(), weight, Float::sum);
+            }
+            stream.end();
+        }
+    }
+
+    /**
+     * Inverse document frequency of a word, as in BM25; always positive, so every word keeps some weight.
+     */
+    private static float idf(IndexReader reader, String word) throws IOException {
+        int documents = reader.numDocs();
+        int frequency = reader.docFreq(new Term(FREQUENCY_FIELD, word));
+        return (float) Math.log(1 + (documents - frequency + 0.5) / (frequency + 0.5));
+    }
+
+    /**
+     * Scrambles a string hash so similar words land in unrelated buckets (murmur3 finalizer).
+     */
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85eb_ca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2_ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+    /**
+     * Scales a vector to unit length in place.
+     * @return The vector, or null if it is all zeros (words cancelled out).
+     */
+    private static float[] normalize(float[] vector) {
+        double sumOfSquares = 0;
+        for (float value : vector) {
+            sumOfSquares += value * value;
+        }
+        if (sumOfSquares == 0) {
+            return null;
+        }
+        float norm = (float) Math.sqrt(sumOfSquares);
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] /= norm;
+        }
+        return vector;
+    }
+}
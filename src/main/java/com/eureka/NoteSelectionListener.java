@@ -43,15 +43,24 @@ public interface NoteSelectionListener {
      */
     void onNoteRenamed(Note renamedNote);
 
+    /**
+     * Called after the content of a note was changed by something other than its editor,
+     * e.g. when its links were rewritten because the linked note was renamed.
+     * Implementing components showing the note should reload its content.
+     *
+     * @param changedNote The {@link Note} object whose content changed.
+     */
+    void onNoteContentChanged(Note changedNote);
+
     /**
      * Called when a note is selected specifically from the search results.
      * Allows the implementing component to not only select the note but also potentially
      * highlight the searched text within the editor.
      *
-     * @param note      The {@link Note} object selected from the search results.
-     * @param position  The starting character index of the found search query within the note's content.
-     * @param wordIndex The approximate word index where the search term was found (useful for context).
-     * @param query     The actual search query string that led to this selection.
+     * @param note     The {@link Note} object selected from the search results.
+     * @param position The starting character index of the first match within the note's content,
+     *                 or -1 if the match is only in the title.
+     * @param length   The length of the match in characters.
      */
-    void onNoteSelectedFromSearch(Note note, int position, int wordIndex, String query);
+    void onNoteSelectedFromSearch(Note note, int position, int length);
 }
\ No newline at end of file
@@ -0,0 +1,163 @@
+package com.eureka;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.index.memory.MemoryIndex;
+import org.apache.lucene.search.Query;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Keeps the matching notes of every saved search up to date, percolator-style.
+ * Instead of re-running each saved query over the whole vault, a changed note is put into a
+ * single-document {@link MemoryIndex} and every registered query is run against that one document.
+ * Membership of the other notes cannot change, so only the changed note is added to or removed from
+ * each result set.
+ */
+public class SavedSearchIndex {
+
+    /**
+     * Listener notified when the matching notes of a saved search change.
+     * Called on the thread that processed the change, not necessarily the JavaFX thread.
+     */
+    public interface MembershipListener {
+        /**
+         * @param savedSearchId The ID of the saved search whose members changed.
+         */
+        void onMembershipChanged(String savedSearchId);
+    }
+
+    /**
+     * Analyzer used to index the single document, the same one used by the main index.
+     */
+    private final Analyzer analyzer;
+    /**
+     * Parsed query of each registered saved search, by saved search ID.
+     */
+    private final Map<String, Query> queries = new ConcurrentHashMap<>();
+    /**
+     * IDs of the notes matching each registered saved search, by saved search ID.
+     */
+    private final Map<String, Set<String>> members = new ConcurrentHashMap<>();
+    /**
+     * Listeners notified about membership changes.
+     */
+    private final List<MembershipListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Constructs the index.
+     * @param analyzer The analyzer of the main search index, so that saved queries match the same terms.
+     */
+    public SavedSearchIndex(Analyzer analyzer) {
+        this.analyzer = analyzer;
+    }
+
+    /**
+     * Registers a saved search, or replaces its query and members if it is already registered.
+     * @param savedSearchId  The ID of the saved search.
+     * @param query          The parsed query.
+     * @param initialMembers The IDs of the notes matching the query right now, from a full index search.
+     */
+    public void register(String savedSearchId, Query query, Set<String> initialMembers) {
+        Set<String> memberSet = ConcurrentHashMap.newKeySet();
+        memberSet.addAll(initialMembers);
+        queries.put(savedSearchId, query);
+        members.put(savedSearchId, memberSet);
+        notifyListeners(savedSearchId);
+    }
+
+    /**
+     * Stops maintaining a saved search.
+     * @param savedSearchId The ID of the saved search.
+     */
+    public void unregister(String savedSearchId) {
+        queries.remove(savedSearchId);
+        members.remove(savedSearchId);
+    }
+
+    /**
+     * Returns the registered saved searches and their queries.
+     * @return An unmodifiable view of the queries by saved search ID.
+     */
+    public Map<String, Query> getQueries() {
+        return Collections.unmodifiableMap(queries);
+    }
+
+    /**
+     * Returns the notes currently matching a saved search.
+     * @param savedSearchId The ID of the saved search.
+     * @return A snapshot of the matching note IDs. Empty if the search is not registered (yet).
+     */
+    public Set<String> getMembers(String savedSearchId) {
+        Set<String> memberSet = members.get(savedSearchId);
+        return memberSet == null ? Collections.emptySet() : Set.copyOf(memberSet);
+    }
+
+    /**
+     * Tests one changed note against every registered query and updates the memberships.
+     * @param noteId  The ID of the changed note.
+     * @param title   The note's title at the time of the change.
+     * @param content The note's content at the time of the change.
+     */
+    public void percolate(String noteId, String title, String content) {
+        if (queries.isEmpty()) {
+            return;
+        }
+        MemoryIndex document = new MemoryIndex();
+        document.addField("title", title == null ? "" : title, analyzer);
+        document.addField("content", content == null ? "" : content, analyzer);
+        for (String tag : TagIndex.extractTags(content)) {
+            document.addField(SearchService.TAG_FIELD, tag, analyzer);
+        }
+
+        for (Map.Entry<String, Query> entry : queries.entrySet()) {
+            Set<String> memberSet = members.get(entry.getKey());
+            if (memberSet == null) {
+                continue;
+            }
+            boolean matches = document.search(entry.getValue()) > 0f;
+            boolean changed = matches ? memberSet.add(noteId) : memberSet.remove(noteId);
+            if (changed) {
+                notifyListeners(entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * Removes a deleted note from every saved search.
+     * @param noteId The ID of the deleted note.
+     */
+    public void remove(String noteId) {
+        for (Map.Entry<String, Set<String>> entry : members.entrySet()) {
+            if (entry.getValue().remove(noteId)) {
+                notifyListeners(entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * Adds a listener for membership changes.
+     * @param listener The listener to add.
+     */
+    public void addListener(MembershipListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a previously added listener.
+     * @param listener The listener to remove.
+     */
+    public void removeListener(MembershipListener listener) {
+        listeners.remove(listener);
+    }
+
+    private void notifyListeners(String savedSearchId) {
+        for (MembershipListener listener : listeners) {
+            listener.onMembershipChanged(savedSearchId);
+        }
+    }
+}
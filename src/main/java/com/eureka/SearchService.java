@@ -3,89 +3,676 @@ package com.eureka;
 import com.eureka.model.AppState;
 import com.eureka.model.Note;
 import com.eureka.model.NoteSet;
+import com.eureka.model.SavedSearch;
 import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.core.KeywordTokenizer;
+import org.apache.lucene.analysis.miscellaneous.PerFieldAnalyzerWrapper;
+import org.apache.lucene.analysis.ngram.EdgeNGramTokenFilter;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.KnnFloatVectorField;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.SortedDocValuesField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
-import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.facet.FacetResult;
+import org.apache.lucene.facet.FacetsCollector;
+import org.apache.lucene.facet.FacetsCollectorManager;
+import org.apache.lucene.facet.LabelAndValue;
+import org.apache.lucene.facet.StringDocValuesReaderState;
+import org.apache.lucene.facet.StringValueFacetCounts;
+import org.apache.lucene.index.IndexOptions;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.QueryTimeoutImpl;
+import org.apache.lucene.index.ReaderUtil;
 import org.apache.lucene.index.StoredFields;
 import org.apache.lucene.index.Term;
+import org.apache.lucene.index.VectorSimilarityFunction;
+import org.apache.lucene.index.memory.MemoryIndex;
+import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
 import org.apache.lucene.queryparser.classic.ParseException;
 import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.ConstantScoreQuery;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.IndexOrDocValuesQuery;
 import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.KnnFloatVectorQuery;
+import org.apache.lucene.search.Matches;
+import org.apache.lucene.search.MatchesIterator;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.QueryVisitor;
 import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.Weight;
+import org.apache.lucene.search.uhighlight.DefaultPassageFormatter;
+import org.apache.lucene.search.uhighlight.LengthGoalBreakIterator;
+import org.apache.lucene.search.uhighlight.UnifiedHighlighter;
 import org.apache.lucene.store.Directory;
-import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.automaton.TooComplexToDeterminizeException;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.text.BreakIterator;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
-import java.util.function.Consumer;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Provides functionality for indexing and searching notes using Apache Lucene.
  * Manages a Lucene index directory to store searchable note data.
+ * A single {@link IndexWriter} is kept open for the lifetime of the service, and searches
+ * use near-real-time readers from a {@link SearcherManager}, so each keystroke only pays
+ * for the query itself rather than for opening the index.
  */
 public class SearchService {
 
+    /**
+     * Field holding edge n-grams of the note title, used to match partially typed titles.
+     */
+    private static final String TITLE_PREFIX_FIELD = "titlePrefix";
+    /**
+     * Longest title prefix that is indexed as an edge n-gram.
+     */
+    private static final int MAX_PREFIX_LENGTH = 20;
+    /**
+     * Maximum number of content terms a partially typed word is expanded into.
+     */
+    private static final int MAX_PREFIX_COMPLETIONS = 16;
+    /**
+     * Minimum time between two rebuilds of the completion FST, in milliseconds.
+     */
+    private static final long SUGGESTER_REFRESH_INTERVAL_MS = 30_000;
+    /**
+     * Maximum number of similar terms a single misspelled word is expanded into.
+     */
+    private static final int MAX_FUZZY_EXPANSIONS = 32;
+    /**
+     * Number of leading characters that must match exactly in fuzzy mode.
+     * Keeps the Levenshtein automaton from visiting every term in the dictionary.
+     */
+    private static final int FUZZY_PREFIX_LENGTH = 1;
+    /**
+     * Time budget for collecting fuzzy matches, in milliseconds.
+     * Results found within the budget are returned even if collection was cut short, and the
+     * response is marked as partial. Only hit collection is bounded.
+     */
+    private static final long FUZZY_TIME_BUDGET_MS = 50;
+    /**
+     * Time budget for collecting structured query matches, in milliseconds.
+     * Bounds broad regular expressions and wildcards that match many terms.
+     */
+    private static final long STRUCTURED_TIME_BUDGET_MS = 100;
+    /**
+     * Maximum work allowed when turning a regular expression into a deterministic automaton.
+     * Patterns that would exceed it are rejected while parsing, before any term is visited.
+     */
+    private static final int MAX_REGEX_DETERMINIZE_WORK = 2_000;
+    /**
+     * Keyword field holding each inline #tag of the note, lowercased and without the '#'.
+     */
+    public static final String TAG_FIELD = "tag";
+    /**
+     * Fields that structured queries may address with a {@code field:} prefix.
+     */
+    private static final Set<String> STRUCTURED_QUERY_FIELDS = Set.of("title", "content", TAG_FIELD);
+    /**
+     * Fields searched by structured query words without a {@code field:} prefix.
+     */
+    private static final String[] STRUCTURED_DEFAULT_FIELDS = {"title", "content"};
+    /**
+     * Boost applied to exact and prefix matches so they always rank above fuzzy ones.
+     */
+    private static final float EXACT_MATCH_BOOST = 10f;
+    /**
+     * Indexing buffer size. Large enough that a parallel rebuild flushes big segments
+     * instead of many small ones.
+     */
+    private static final double RAM_BUFFER_SIZE_MB = 64;
+    /**
+     * Field holding the note's embedding vector for "related notes" lookups.
+     */
+    private static final String EMBEDDING_FIELD = "embedding";
+    /**
+     * Maximum number of notes returned by a search.
+     */
+    private static final int MAX_RESULTS = 100;
+    /**
+     * Number of results highlighted and handed to a {@link ResultBatchListener} at a time.
+     */
+    private static final int RESULT_BATCH_SIZE = 20;
+    /**
+     * Occurrences are counted per note up to one past this cap; the UI shows "99+" beyond it.
+     */
+    public static final int MAX_COUNTED_OCCURRENCES = 99;
+    /**
+     * Boost of title matches over content matches in BM25 ranking.
+     */
+    private static final float TITLE_BOOST = 3f;
+    /**
+     * Marks the start of a highlighted match inside a {@link SearchResult#snippet()}.
+     */
+    public static final char HIGHLIGHT_START = '\u0002';
+    /**
+     * Marks the end of a highlighted match inside a {@link SearchResult#snippet()}.
+     */
+    public static final char HIGHLIGHT_END = '\u0003';
+    /**
+     * Longest snippet passage, in characters.
+     */
+    private static final int MAX_SNIPPET_LENGTH = 160;
+    /**
+     * Latency of index updates, deletes, commits and rebuilds, and of queries.
+     */
+    private static final Metrics.Histogram UPDATE_TIMER = Metrics.timer("index.update");
+    private static final Metrics.Histogram DELETE_TIMER = Metrics.timer("index.delete");
+    private static final Metrics.Histogram COMMIT_TIMER = Metrics.timer("index.commit");
+    private static final Metrics.Histogram REBUILD_TIMER = Metrics.timer("index.rebuild");
+    private static final Metrics.Histogram QUERY_TIMER = Metrics.timer("search.query");
+    /**
+     * Number of results per completed query.
+     */
+    private static final Metrics.Histogram RESULT_COUNTS = Metrics.histogram("search.results", "results");
+    private static final Metrics.Counter QUERY_COUNTER = Metrics.counter("search.queries");
+    /**
+     * Field type of the note body: stored for snippets, with offsets in the postings
+     * so the highlighter never has to re-analyze the text.
+     */
+    private static final FieldType CONTENT_FIELD_TYPE = new FieldType(TextField.TYPE_STORED);
+
+    static {
+        CONTENT_FIELD_TYPE.setIndexOptions(IndexOptions.DOCS_AND_FREQS_AND_POSITIONS_AND_OFFSETS);
+        CONTENT_FIELD_TYPE.freeze();
+    }
+
     /**
      * The Lucene Directory where the search index is stored.
      */
     private final Directory indexDirectory;
     /**
      * The Lucene Analyzer used for indexing and querying (tokenizing text).
+     * Uses the standard analyzer for all fields except the title prefix field.
+     */
+    private final Analyzer analyzer;
+    /**
+     * The long-lived writer shared by all index updates.
+     */
+    private final IndexWriter indexWriter;
+    /**
+     * Hands out near-real-time searchers that see the writer's latest changes.
+     */
+    private final SearcherManager searcherManager;
+    /**
+     * FST-based completion of partially typed words into frequent content terms.
+     */
+    private final TermSuggester contentSuggester;
+    /**
+     * Computes the embedding vector stored with every document.
+     */
+    private final NoteEmbedder embedder = new NoteEmbedder();
+    /**
+     * Background thread used to rebuild the completion FST without blocking searches.
+     */
+    private final ExecutorService suggesterExecutor;
+    /**
+     * Maintains the matching notes of every saved search.
+     */
+    private final SavedSearchIndex savedSearchIndex;
+    /**
+     * Graph of [[wiki links]] between notes, kept in step with the search index.
+     */
+    private final LinkIndex linkIndex = new LinkIndex();
+    /**
+     * Inverted index from inline #tags to notes, kept in step with the search index.
+     */
+    private final TagIndex tagIndex = new TagIndex();
+    /**
+     * MinHash signatures of note contents for near-duplicate detection, updated in the background.
+     */
+    private final DuplicateDetector duplicateDetector = new DuplicateDetector();
+    /**
+     * Background job repairing differences between the index and AppState.
+     */
+    private final IndexReconciler reconciler;
+    /**
+     * Time of the last note change, so background jobs can wait until the user pauses.
+     */
+    private volatile long lastChangeAt;
+    /**
+     * Guards {@link #changedDuringRebuild} and serializes note changes with its replay.
+     */
+    private final Object rebuildLock = new Object();
+    /**
+     * Notes changed since the running rebuild took its snapshot, by note ID; a null value marks a
+     * deleted note. Null while no rebuild runs. Replayed once the rebuild is done, since the rebuild
+     * resets the indexes these changes were already applied to.
+     */
+    private Map<String, Note> changedDuringRebuild;
+    /**
+     * Background thread that tests changed notes against the saved searches, in the order they changed.
      */
-    private final StandardAnalyzer analyzer;
+    private final ExecutorService percolatorExecutor;
+    /**
+     * Set when the index changed since the completion FST was last built.
+     */
+    private final AtomicBoolean suggesterStale = new AtomicBoolean(false);
+    /**
+     * Guards against scheduling more than one FST rebuild at a time.
+     */
+    private final AtomicBoolean suggesterRebuilding = new AtomicBoolean(false);
+    /**
+     * Time of the last completed FST rebuild.
+     */
+    private volatile long suggesterBuiltAt;
+    /**
+     * Per-reader ordinal state for set facet counting, cached until the reader changes.
+     */
+    private StringDocValuesReaderState setFacetState;
+    /**
+     * The reader the cached facet state was built for.
+     */
+    private IndexReader setFacetReader;
 
     /**
-     * Represents a single search result found within a note.
-     * Includes details about the note, the match position, and the query.
-     * @param noteId    The unique ID of the {@link Note} containing the match.
-     * @param title     The title of the {@link Note}.
-     * @param setName   The name of the {@link NoteSet} the note belongs to.
-     * @param position  The starting character index of the query match within the note's content.
-     * @param wordIndex The approximate word count preceding the query match.
-     * @param query     The original search query string that produced this result.
+     * Represents a single note matching a search, with a highlighted snippet of the best passage.
+     * Match positions are not part of the result; they are computed by {@link #locateMatch}
+     * only when the result is opened.
+     * @param noteId      The unique ID of the {@link Note} containing the match.
+     * @param title       The title of the {@link Note}.
+     * @param setId       The ID of the {@link NoteSet} the note belongs to. The set's display name is
+     *                    resolved from {@link AppState} when rendering, so renaming a set never touches the index.
+     * @param score       The BM25 relevance score; results are sorted by it.
+     * @param occurrences The number of matches in the note, capped at {@link #MAX_COUNTED_OCCURRENCES} + 1,
+     *                    which stands for more than the cap.
+     * @param snippet     A passage of the note body with matches wrapped in {@link #HIGHLIGHT_START}
+     *                    and {@link #HIGHLIGHT_END}, or null if the body has no text.
+     * @param query       The original search query string that produced this result.
+     * @param mode        The mode the query was run in; decides how the match is located when opened.
      */
-    public record SearchResult(String noteId, String title, String setName, int position, int wordIndex, String query) {}
+    public record SearchResult(String noteId, String title, String setId, float score, int occurrences,
+                               String snippet, String query, SearchMode mode) {}
 
     /**
-     * Constructs the SearchService.
-     * Opens or creates the Lucene index directory at the specified path.
-     * Initializes the analyzer and performs an initial index rebuild.
+     * The location of a query match within a note's content.
+     * @param position  The starting character index of the match.
+     * @param length    The length of the match in characters.
+     * @param wordIndex The number of words preceding the match.
+     */
+    public record MatchLocation(int position, int length, int wordIndex) {}
+
+    /**
+     * Restricts a search to a set, a creation-time window, an update-time window, a content
+     * length range and a tag.
+     * Every restriction is applied as a Lucene filter clause, so it never affects scoring
+     * and no hits are post-filtered in Java.
+     * @param setId         The ID of the {@link NoteSet} to search in, or null for all sets.
+     * @param createdAfter  The earliest accepted creation timestamp (inclusive).
+     * @param createdBefore The latest accepted creation timestamp (inclusive).
+     * @param updatedAfter  The earliest accepted update timestamp (inclusive).
+     * @param updatedBefore The latest accepted update timestamp (inclusive).
+     * @param minLength     The smallest accepted content length in characters (inclusive).
+     * @param maxLength     The largest accepted content length in characters (inclusive).
+     * @param tag           The normalized tag the note must contain, or null for any.
+     */
+    public record SearchFilter(String setId, long createdAfter, long createdBefore, long updatedAfter,
+                               long updatedBefore, int minLength, int maxLength, String tag) {
+
+        /** A filter that accepts every note. */
+        public static final SearchFilter NONE = new SearchFilter(null, Long.MIN_VALUE, Long.MAX_VALUE,
+                Long.MIN_VALUE, Long.MAX_VALUE, 0, Integer.MAX_VALUE, null);
+
+        /**
+         * Returns a copy of this filter restricted to the given set.
+         * @param setId The set ID, or null for all sets.
+         * @return The new filter.
+         */
+        public SearchFilter withSet(String setId) {
+            return new SearchFilter(setId, createdAfter, createdBefore, updatedAfter, updatedBefore,
+                    minLength, maxLength, tag);
+        }
+
+        /**
+         * Returns a copy of this filter restricted to notes created within the given window.
+         * @param after  The earliest accepted creation timestamp (inclusive).
+         * @param before The latest accepted creation timestamp (inclusive).
+         * @return The new filter.
+         */
+        public SearchFilter withCreatedBetween(long after, long before) {
+            return new SearchFilter(setId, after, before, updatedAfter, updatedBefore, minLength, maxLength, tag);
+        }
+
+        /**
+         * Returns a copy of this filter restricted to notes updated within the given window.
+         * @param after  The earliest accepted update timestamp (inclusive).
+         * @param before The latest accepted update timestamp (inclusive).
+         * @return The new filter.
+         */
+        public SearchFilter withUpdatedBetween(long after, long before) {
+            return new SearchFilter(setId, createdAfter, createdBefore, after, before, minLength, maxLength, tag);
+        }
+
+        /**
+         * Returns a copy of this filter restricted to the given content length range.
+         * @param min The smallest accepted length (inclusive).
+         * @param max The largest accepted length (inclusive).
+         * @return The new filter.
+         */
+        public SearchFilter withLengthBetween(int min, int max) {
+            return new SearchFilter(setId, createdAfter, createdBefore, updatedAfter, updatedBefore, min, max, tag);
+        }
+
+        /**
+         * Returns a copy of this filter restricted to notes containing the given tag.
+         * @param tag The tag, with or without the leading '#', or null for any.
+         * @return The new filter.
+         */
+        public SearchFilter withTag(String tag) {
+            return new SearchFilter(setId, createdAfter, createdBefore, updatedAfter, updatedBefore,
+                    minLength, maxLength, tag == null ? null : TagIndex.normalize(tag));
+        }
+    }
+
+    /**
+     * The outcome of a filtered search.
+     * @param results   The matching occurrences, as returned by {@link #search(String, SearchMode)}.
+     * @param setCounts The number of matching notes per set ID, largest first. Counted with every
+     *                  filter except the set restriction, so other sets stay visible as alternatives.
+     * @param partial   True if collecting hits ran out of its time budget, so more notes may match
+     *                  than were returned.
+     */
+    public record SearchResponse(List<SearchResult> results, Map<String, Integer> setCounts, boolean partial) {
+
+        /** An empty response. */
+        public static final SearchResponse EMPTY = new SearchResponse(List.of(), Map.of(), false);
+    }
+
+    /**
+     * A note that is similar to another note.
+     * @param noteId The unique ID of the similar {@link Note}.
+     * @param title  The title of the similar note.
+     * @param setId  The ID of the {@link NoteSet} the similar note belongs to.
+     * @param score  The similarity score; higher is more similar.
+     */
+    public record RelatedNote(String noteId, String title, String setId, float score) {}
+
+    /**
+     * Receives progress updates while the index is being rebuilt.
+     * Called from indexing worker threads; UI implementations must hand off to the FX thread.
+     */
+    public interface RebuildProgressListener {
+        /**
+         * @param indexed The number of notes indexed so far.
+         * @param total   The total number of notes to index.
+         */
+        void onProgress(int indexed, int total);
+    }
+
+    /**
+     * Receives the results of a search in ranked batches while they are produced, so the first
+     * results can be shown before the rest are highlighted.
+     * Called on the searching thread; UI implementations must hand off to the FX thread.
+     */
+    public interface ResultBatchListener {
+        /**
+         * @param batch The next results, in rank order; never empty.
+         * @return true to continue, false to stop the search, e.g. because a newer query superseded it.
+         */
+        boolean onBatch(List<SearchResult> batch);
+    }
+
+    /**
+     * Determines how the words of a query are matched against the index.
+     */
+    public enum SearchMode {
+        /** Whole words, with the last word treated as a prefix that may still be being typed. */
+        PREFIX,
+        /** Like PREFIX, but every word also matches terms within a small edit distance. */
+        FUZZY,
+        /**
+         * Query syntax: quoted phrases, AND/OR/NOT, {@code title:} and {@code content:} scopes,
+         * wildcards and {@code /regex/} terms. Words are required unless combined with OR.
+         */
+        STRUCTURED
+    }
+
+    /**
+     * Thrown when a {@link SearchMode#STRUCTURED} query cannot be parsed or is too expensive to run.
+     * The message is meant to be shown to the user.
+     */
+    public static class QuerySyntaxException extends IllegalArgumentException {
+        /**
+         * Serialization version of this exception.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Constructs the exception.
+         * @param message A description of the problem, suitable for display.
+         * @param cause   The parser or automaton error, if any.
+         */
+        public QuerySyntaxException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    /**
+     * Constructs the SearchService using the directory mode configured for this machine.
      * @param storagePath The base {@link Path} where the 'search_index' subdirectory will be created/opened.
      * @throws IOException If an error occurs opening or creating the index directory.
+     * @see IndexDirectoryMode#load()
      */
     public SearchService(Path storagePath) throws IOException {
+        this(storagePath, IndexDirectoryMode.load());
+    }
+
+    /**
+     * Constructs the SearchService.
+     * Opens or creates the Lucene index directory at the specified path using the given storage mode
+     * and initializes the analyzer. This is quick; call {@link #initialize(RebuildProgressListener)}
+     * afterwards, typically in the background, to build the index from the AppState.
+     * @param storagePath   The base {@link Path} where the 'search_index' subdirectory will be created/opened.
+     * @param directoryMode How the index is stored (file system, memory-mapped, in memory, or NRT-cached).
+     * @throws IOException If an error occurs opening or creating the index directory.
+     */
+    public SearchService(Path storagePath, IndexDirectoryMode directoryMode) throws IOException {
         Path indexPath = storagePath.resolve("search_index");
-        this.indexDirectory = FSDirectory.open(indexPath);
-        this.analyzer = new StandardAnalyzer();
-        System.out.println("SearchService: Initializing and rebuilding index at " + indexPath.toAbsolutePath() + "...");
-        rebuildIndex();
+        this.indexDirectory = directoryMode.open(indexPath);
+        this.analyzer = new PerFieldAnalyzerWrapper(new StandardAnalyzer(),
+                Map.of(TITLE_PREFIX_FIELD, new EdgeNGramAnalyzer(MAX_PREFIX_LENGTH), TAG_FIELD, new TagAnalyzer()));
+        IndexWriterConfig config = new IndexWriterConfig(analyzer);
+        config.setRAMBufferSizeMB(RAM_BUFFER_SIZE_MB);
+        this.indexWriter = new IndexWriter(indexDirectory, config);
+        this.searcherManager = new SearcherManager(indexWriter, null);
+        this.contentSuggester = new TermSuggester("content");
+        this.suggesterExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "search-suggester");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.savedSearchIndex = new SavedSearchIndex(analyzer);
+        this.percolatorExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "saved-search-percolator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.reconciler = new IndexReconciler(this);
+        Metrics.gauge("index.docs", () -> indexWriter.getDocStats().numDocs);
+        System.out.println("SearchService: Opened " + directoryMode + " index at " + indexPath.toAbsolutePath());
+    }
+
+    /**
+     * Brings the search online: rebuilds the index from the given snapshot, registers the saved
+     * searches and starts the background reconciliation. Until it returns, searches only see what the
+     * index held from the last run. Notes changed or deleted after the snapshot was taken are applied
+     * again once the rebuild is done, so the rebuild cannot undo them.
+     * @param notes    The snapshot from {@link #snapshotForRebuild()}.
+     * @param listener Receives progress updates of the rebuild, or null.
+     * @throws IOException If an error occurs while writing to the index.
+     */
+    public void initialize(List<Note> notes, RebuildProgressListener listener) throws IOException {
+        System.out.println("SearchService: Rebuilding index...");
+        rebuildIndex(notes, Runtime.getRuntime().availableProcessors(), listener);
         System.out.println("SearchService: Index rebuild complete.");
+        for (SavedSearch savedSearch : AppState.getInstance().getSavedSearches()) {
+            try {
+                registerSavedSearch(savedSearch);
+            } catch (QuerySyntaxException e) {
+                System.err.println("Warning: Saved search '" + savedSearch.getName() + "' has an invalid query: " + e.getMessage());
+            }
+        }
+        reconciler.start();
     }
 
     /**
-     * Clears the existing search index and rebuilds it entirely from the current AppState.
-     * Iterates through all note sets and notes, creating a Lucene document for each note.
+     * Clears the existing search index and rebuilds it from the current AppState,
+     * using one indexing thread per available processor.
+     * Must be called on the thread that changes the AppState.
      * @throws IOException If an error occurs while writing to the index.
+     * @see #rebuildIndex(List, int, RebuildProgressListener)
      */
     public void rebuildIndex() throws IOException {
-        IndexWriterConfig config = new IndexWriterConfig(analyzer);
-        try (IndexWriter writer = new IndexWriter(indexDirectory, config)) {
-            writer.deleteAll();
-            for (NoteSet set : AppState.getInstance().getSets()) {
-                for (Note note : AppState.getInstance().getNotesForSet(set.getId())) {
-                    writer.addDocument(createDocument(note, set.getName()));
+        rebuildIndex(snapshotForRebuild(), Runtime.getRuntime().availableProcessors(), null);
+    }
+
+    /**
+     * Takes the snapshot of all notes that a rebuild indexes, and starts recording the notes changed
+     * or deleted after it, which the rebuild applies again once it is done.
+     * Must be called on the thread that changes the AppState, i.e. the JavaFX Application Thread in the
+     * app, since the AppState's note list is not safe to read from other threads. The rebuild itself
+     * can then run on any thread.
+     * @return All notes that belong to an existing set.
+     */
+    public List<Note> snapshotForRebuild() {
+        AppState appState = AppState.getInstance();
+        List<Note> notes = appState.getAllNotes();
+        notes.removeIf(note -> appState.getSetById(note.getSetId()).isEmpty());
+        synchronized (rebuildLock) {
+            changedDuringRebuild = new LinkedHashMap<>();
+        }
+        return notes;
+    }
+
+    /**
+     * Clears the existing search index and rebuilds it entirely from a snapshot of the notes.
+     * Splits the snapshot into contiguous partitions, one per thread.
+     * Each worker analyzes its notes concurrently into the shared {@link IndexWriter}, which is
+     * thread-safe and gives every thread its own in-memory segment.
+     * Then applies the notes changed or deleted since the snapshot again, commits the result and
+     * rebuilds the completion FST before returning.
+     * @param notes    The snapshot from {@link #snapshotForRebuild()}.
+     * @param threads  The number of indexing threads to use (at least 1).
+     * @param listener Receives progress updates from the workers, or null.
+     * @throws IOException If an error occurs while writing to the index.
+     */
+    public void rebuildIndex(List<Note> notes, int threads, RebuildProgressListener listener) throws IOException {
+        int total = notes.size();
+        int workerCount = Math.max(1, Math.min(threads, total));
+        int progressStep = Math.max(1, total / 100);
+        AtomicInteger indexed = new AtomicInteger();
+
+        long start = System.nanoTime();
+        linkIndex.rebuild(notes);
+        tagIndex.rebuild(notes);
+        duplicateDetector.rebuild(notes);
+        indexWriter.deleteAll();
+        ExecutorService workers = Executors.newFixedThreadPool(workerCount, r -> {
+            Thread thread = new Thread(r, "search-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> partitions = new ArrayList<>();
+            for (int w = 0; w < workerCount; w++) {
+                List<Note> partition = notes.subList(total * w / workerCount, total * (w + 1) / workerCount);
+                partitions.add(workers.submit(() -> {
+                    for (Note note : partition) {
+                        // updateDocument rather than addDocument: an edit made while the rebuild
+                        // runs may already have indexed this note, and must not leave a duplicate.
+                        indexWriter.updateDocument(new Term("id", note.getId()), createDocument(note));
+                        int done = indexed.incrementAndGet();
+                        if (listener != null && (done % progressStep == 0 || done == total)) {
+                            listener.onProgress(done, total);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> partition : partitions) {
+                partition.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Index rebuild interrupted", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException io ? io : new IOException("Index rebuild failed", e.getCause());
+        } finally {
+            workers.shutdownNow();
+            replayChangesDuringRebuild();
+        }
+
+        long commitStart = System.nanoTime();
+        indexWriter.commit();
+        COMMIT_TIMER.recordSince(commitStart);
+        searcherManager.maybeRefreshBlocking();
+        rebuildSuggester();
+        for (Map.Entry<String, Query> entry : savedSearchIndex.getQueries().entrySet()) {
+            scheduleSavedSearchScan(entry.getKey(), entry.getValue());
+        }
+        if (listener != null && total == 0) {
+            listener.onProgress(0, 0);
+        }
+        REBUILD_TIMER.recordSince(start);
+        System.out.println("SearchService: Indexed " + total + " notes with " + workerCount + " thread(s) in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms.");
+    }
+
+    /**
+     * Applies the notes changed or deleted while a rebuild ran, and stops recording. Holds the lock
+     * throughout, so a change made meanwhile waits and cannot be overtaken by an older replayed one.
+     */
+    private void replayChangesDuringRebuild() {
+        synchronized (rebuildLock) {
+            Map<String, Note> changes = changedDuringRebuild;
+            changedDuringRebuild = null;
+            if (changes == null) {
+                return;
+            }
+            for (Map.Entry<String, Note> change : changes.entrySet()) {
+                if (change.getValue() != null) {
+                    applyNote(change.getValue());
+                } else {
+                    applyRemoval(change.getKey());
                 }
             }
         }
@@ -94,26 +681,50 @@ public class SearchService {
     /**
      * Adds a new note to the index or updates an existing one.
      * If a document with the same note ID already exists, it is replaced.
-     * Retrieves the set name from AppState to include in the document.
+     * Also applies the note's link and tag changes to the {@link LinkIndex} and {@link TagIndex},
+     * and queues it for the saved searches and the {@link DuplicateDetector}.
      * @param note The {@link Note} object to add or update in the index.
      */
     public void addOrUpdateNote(Note note) {
-        IndexWriterConfig config = new IndexWriterConfig(analyzer);
-        try (IndexWriter writer = new IndexWriter(indexDirectory, config)) {
-            Optional<NoteSet> setOpt = AppState.getInstance().getSetById(note.getSetId());
-            Consumer<NoteSet> updateAction = noteSet -> {
-                try {
-                    Document doc = createDocument(note, noteSet.getName());
-                    writer.updateDocument(new Term("id", note.getId()), doc);
-                } catch (IOException e) {
-                    System.err.println("Error creating/updating document for note ID: " + note.getId());
-                    e.printStackTrace();
-                }
-            };
-            setOpt.ifPresent(updateAction);
+        lastChangeAt = System.currentTimeMillis();
+        indexNote(note);
+    }
 
+    /**
+     * Indexes a note without counting it as user activity. Used by background repairs, which
+     * must not make themselves wait for the user to pause.
+     * @param note The {@link Note} object to add or update in the index.
+     */
+    void indexNote(Note note) {
+        synchronized (rebuildLock) {
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.put(note.getId(), note);
+            }
+            applyNote(note);
+        }
+    }
+
+    /**
+     * Applies a note to every index. The caller holds {@link #rebuildLock}.
+     * @param note The {@link Note} object to add or update in the index.
+     */
+    private void applyNote(Note note) {
+        linkIndex.update(note);
+        tagIndex.update(note);
+        duplicateDetector.update(note);
+        try {
+            long start = System.nanoTime();
+            Document doc = createDocument(note);
+            indexWriter.updateDocument(new Term("id", note.getId()), doc);
+            searcherManager.maybeRefresh();
+            UPDATE_TIMER.recordSince(start);
+            suggesterStale.set(true);
+            String noteId = note.getId();
+            String title = note.getTitle();
+            String content = note.getContent();
+            percolatorExecutor.execute(() -> savedSearchIndex.percolate(noteId, title, content));
         } catch (IOException e) {
-            System.err.println("Error opening IndexWriter for add/update operation:");
+            System.err.println("Error creating/updating document for note ID: " + note.getId());
             e.printStackTrace();
         }
     }
@@ -123,97 +734,881 @@ public class SearchService {
      * @param note The {@link Note} object to delete from the index. The ID field is used.
      */
     public void deleteNote(Note note) {
-        IndexWriterConfig config = new IndexWriterConfig(analyzer);
-        try (IndexWriter writer = new IndexWriter(indexDirectory, config)) {
-            writer.deleteDocuments(new Term("id", note.getId()));
+        deleteNoteById(note.getId());
+    }
+
+    /**
+     * Deletes a note from the search index and the derived indexes by its ID.
+     * @param noteId The ID of the note to delete.
+     */
+    public void deleteNoteById(String noteId) {
+        lastChangeAt = System.currentTimeMillis();
+        unindexNote(noteId);
+    }
+
+    /**
+     * Removes a note from the indexes without counting it as user activity.
+     * @param noteId The ID of the note to remove.
+     */
+    void unindexNote(String noteId) {
+        synchronized (rebuildLock) {
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.put(noteId, null);
+            }
+            applyRemoval(noteId);
+        }
+    }
+
+    /**
+     * Removes a note from every index. The caller holds {@link #rebuildLock}.
+     * @param noteId The ID of the note to remove.
+     */
+    private void applyRemoval(String noteId) {
+        linkIndex.remove(noteId);
+        tagIndex.remove(noteId);
+        duplicateDetector.remove(noteId);
+        try {
+            long start = System.nanoTime();
+            indexWriter.deleteDocuments(new Term("id", noteId));
+            searcherManager.maybeRefresh();
+            DELETE_TIMER.recordSince(start);
+            suggesterStale.set(true);
+            percolatorExecutor.execute(() -> savedSearchIndex.remove(noteId));
         } catch (IOException e) {
-            System.err.println("Error deleting document for note ID: " + note.getId());
+            System.err.println("Error deleting document for note ID: " + noteId);
             e.printStackTrace();
         }
     }
 
+    /**
+     * Searches the index in {@link SearchMode#PREFIX} mode.
+     * @param queryString The text to search for. Case-insensitive matching is performed.
+     * @return A List of {@link SearchResult} objects, one per matching note.
+     * @throws IOException If an error occurs while reading from the index.
+     * @see #search(String, SearchMode, SearchFilter)
+     */
+    public List<SearchResult> search(String queryString) throws IOException {
+        return search(queryString, SearchMode.PREFIX);
+    }
+
+    /**
+     * Searches the whole index with the given mode.
+     * @param queryString The text to search for. Case-insensitive matching is performed.
+     * @param mode        How query words are matched.
+     * @return A List of {@link SearchResult} objects, one per matching note.
+     * @throws IOException If an error occurs while reading from the index.
+     * @see #search(String, SearchMode, SearchFilter)
+     */
+    public List<SearchResult> search(String queryString, SearchMode mode) throws IOException {
+        return search(queryString, mode, SearchFilter.NONE).results();
+    }
+
     /**
      * Searches the index for notes containing the given query string in their title or content.
-     * Returns a list of SearchResult objects, where each object represents one occurrence
-     * of the query string within a note.
+     * The last word of the query is treated as a prefix that may still be being typed: it matches
+     * title prefixes through the edge n-gram field and is expanded into the most frequent content
+     * terms through the completion FST. Earlier words must match whole terms.
+     * In {@link SearchMode#FUZZY} mode each word additionally matches misspellings within an edit
+     * distance scaled by its length; such matches are bounded in expansions and collection time,
+     * and always rank below exact matches. If fuzzy or structured collection runs out of time, the hits found
+     * so far are returned and the response is marked as partial.
+     * In {@link SearchMode#STRUCTURED} mode the text is parsed with the classic query syntax instead;
+     * phrases run on the positional postings and regular expressions on the term dictionary.
+     * The filter is applied inside Lucene, and matching notes are also counted per set.
+     * The response holds one SearchResult per matching note, ranked by BM25 with title matches
+     * boosted. Each result carries a capped occurrence count and a snippet produced by the
+     * offset-based {@link UnifiedHighlighter}.
      * @param queryString The text to search for. Case-insensitive matching is performed.
-     * @return A List of {@link SearchResult} objects representing all occurrences found.
-     * Returns an empty list if the query is blank or no matches are found.
-     * @throws ParseException If the query string has syntax errors according to Lucene's query parser.
-     * @throws IOException    If an error occurs while reading from the index.
-     * @throws Exception      General exception catch-all (consider refining).
+     * @param mode        How query words are matched.
+     * @param filter      Restrictions on set, update time and content length.
+     * @return A {@link SearchResponse} with the matching notes and the per-set counts.
+     * A blank query with a tag filter lists the notes of the tag.
+     * Returns an empty response if the query is blank without a tag, or no matches are found.
+     * @throws IOException If an error occurs while reading from the index.
+     * @throws QuerySyntaxException If a structured query is invalid or its regular expression is too complex.
      */
-    public List<SearchResult> search(String queryString) throws ParseException, IOException {
-        System.out.println("DEBUG: SearchService.search called with query: '" + queryString + "'");
+    public SearchResponse search(String queryString, SearchMode mode, SearchFilter filter) throws IOException {
+        return search(queryString, mode, filter, null);
+    }
 
+    /**
+     * Searches like {@link #search(String, SearchMode, SearchFilter)}, handing the results to a
+     * listener in batches of {@value #RESULT_BATCH_SIZE} as soon as each batch is highlighted.
+     * If the listener asks to stop, the search ends and the response holds the results so far,
+     * without set counts. The latency and result count of completed queries are recorded in {@link Metrics}.
+     * @param queryString The text to search for. Case-insensitive matching is performed.
+     * @param mode        How query words are matched.
+     * @param filter      Restrictions on set, update time and content length.
+     * @param listener    Receives the results in batches; can be null.
+     * @return A {@link SearchResponse} with the matching notes and the per-set counts.
+     * @throws IOException If an error occurs while reading from the index.
+     * @throws QuerySyntaxException If a structured query is invalid or its regular expression is too complex.
+     */
+    public SearchResponse search(String queryString, SearchMode mode, SearchFilter filter,
+                                 ResultBatchListener listener) throws IOException {
+        long start = System.nanoTime();
+        QUERY_COUNTER.increment();
+
+        Query textQuery;
         if (queryString == null || queryString.isBlank()) {
-            return new ArrayList<>();
+            if (filter.tag() == null) {
+                return SearchResponse.EMPTY;
+            }
+            // Listing a tag: the tag's postings are the result, so the cost is proportional to its notes.
+            textQuery = new ConstantScoreQuery(new TermQuery(new Term(TAG_FIELD, filter.tag())));
+            queryString = "";
+        } else {
+            textQuery = buildQuery(queryString, mode);
+        }
+        if (textQuery == null) {
+            return SearchResponse.EMPTY;
         }
+        Query query = applyFilter(textQuery, filter, true);
+        maybeScheduleSuggesterRebuild();
 
         List<SearchResult> results = new ArrayList<>();
-        try (DirectoryReader reader = DirectoryReader.open(indexDirectory)) {
-            IndexSearcher searcher = new IndexSearcher(reader);
-            QueryParser parser = new QueryParser("content", analyzer);
-            Query query = parser.parse(QueryParser.escape(queryString.toLowerCase()));
-
-            TopDocs topDocs = searcher.search(query, 100);
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            TopDocs topDocs;
+            boolean partial = false;
+            if (mode == SearchMode.PREFIX) {
+                topDocs = searcher.search(query, MAX_RESULTS);
+            } else {
+                // Managed searchers are shared between threads, so the time budget goes on a private one.
+                // It only bounds collecting the hits; everything after that uses the managed searcher.
+                IndexSearcher budgetedSearcher = new IndexSearcher(searcher.getIndexReader());
+                budgetedSearcher.setTimeout(new QueryTimeoutImpl(
+                        mode == SearchMode.FUZZY ? FUZZY_TIME_BUDGET_MS : STRUCTURED_TIME_BUDGET_MS));
+                topDocs = budgetedSearcher.search(query, MAX_RESULTS);
+                partial = budgetedSearcher.timedOut();
+            }
             ScoreDoc[] hits = topDocs.scoreDocs;
-            System.out.println("DEBUG: Lucene found " + hits.length + " matching documents.");
 
+            UnifiedHighlighter highlighter = UnifiedHighlighter.builder(searcher, analyzer)
+                    .withFormatter(new DefaultPassageFormatter(
+                            String.valueOf(HIGHLIGHT_START), String.valueOf(HIGHLIGHT_END), " … ", false))
+                    .withMaxNoHighlightPassages(1)
+                    .withBreakIterator(() -> LengthGoalBreakIterator.createClosestToLength(
+                            BreakIterator.getSentenceInstance(Locale.ROOT), MAX_SNIPPET_LENGTH, 0.5f))
+                    .build();
+            Weight matchWeight = searcher.createWeight(searcher.rewrite(query), ScoreMode.COMPLETE_NO_SCORES, 1f);
             StoredFields storedFields = searcher.storedFields();
 
-            for (ScoreDoc hit : hits) {
-                Document doc = storedFields.document(hit.doc);
-                String noteId = doc.get("id");
-
-                Optional<Note> noteOpt = AppState.getInstance().getNoteById(noteId);
-                if (noteOpt.isPresent()) {
-                    Note note = noteOpt.get();
-                    String content = note.getContent();
-                    if (content == null) continue;
-
-                    String contentLower = content.toLowerCase();
-                    String queryLower = queryString.toLowerCase();
+            // Highlighting dominates the cost, so it is done per batch and each batch is handed out when ready.
+            for (int batchStart = 0; batchStart < hits.length; batchStart += RESULT_BATCH_SIZE) {
+                int batchEnd = Math.min(batchStart + RESULT_BATCH_SIZE, hits.length);
+                int[] docIds = new int[batchEnd - batchStart];
+                for (int i = 0; i < docIds.length; i++) {
+                    docIds[i] = hits[batchStart + i].doc;
+                }
+                // One passage limit per field, not per document.
+                String[] snippets = highlighter.highlightFields(new String[]{"content"}, query, docIds, new int[]{1})
+                        .get("content");
 
-                    int index = contentLower.indexOf(queryLower);
-                    while (index >= 0) {
-                        String textBeforeMatch = content.substring(0, index);
-                        int wordCount = textBeforeMatch.trim().isEmpty() ? 1 : textBeforeMatch.trim().split("\\s+").length;
+                List<SearchResult> batch = new ArrayList<>(docIds.length);
+                for (int i = 0; i < docIds.length; i++) {
+                    ScoreDoc hit = hits[batchStart + i];
+                    String noteId = storedFields.document(hit.doc, Set.of("id")).get("id");
 
-                        results.add(new SearchResult(
+                    Optional<Note> noteOpt = AppState.getInstance().getNoteById(noteId);
+                    if (noteOpt.isPresent()) {
+                        Note note = noteOpt.get();
+                        batch.add(new SearchResult(
                                 note.getId(),
                                 note.getTitle(),
-                                doc.get("setName"),
-                                index,
-                                wordCount,
-                                queryString
+                                note.getSetId(),
+                                hit.score,
+                                countOccurrences(searcher, matchWeight, hit.doc),
+                                snippets[i],
+                                queryString,
+                                mode
                         ));
-                        index = contentLower.indexOf(queryLower, index + 1);
+                    } else {
+                        System.err.println("Warning: Note ID " + noteId + " found in index but not in AppState.");
+                        reconciler.requestRun();
                     }
-                } else {
-                    System.err.println("Warning: Note ID " + noteId + " found in index but not in AppState.");
                 }
+                results.addAll(batch);
+                if (listener != null && !batch.isEmpty() && !listener.onBatch(batch)) {
+                    return new SearchResponse(results, Map.of(), partial);
+                }
+            }
+
+            Map<String, Integer> setCounts = countBySet(searcher, applyFilter(textQuery, filter, false));
+            QUERY_TIMER.recordSince(start);
+            RESULT_COUNTS.record(results.size());
+            return new SearchResponse(results, setCounts, partial);
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    /**
+     * Finds the first place in a note's content that matches the query, for jumping to it when a
+     * search result is opened. Analyzes the content with the index analyzer, so the match rules are
+     * the same as in the search: whole words, with the last query word also matching as a prefix.
+     * Structured queries are instead parsed and run against the note through the Matches API, so
+     * field prefixes, operators and regular expressions are never mistaken for words.
+     * Only runs for the one result that is opened, never for every hit.
+     * @param note        The {@link Note} that was opened from the search results.
+     * @param queryString The query that produced the result.
+     * @param mode        The mode the query was run in.
+     * @return The location of the first match, or null if only the title (or a fuzzy variant) matched.
+     */
+    public MatchLocation locateMatch(Note note, String queryString, SearchMode mode) {
+        String content = note.getContent();
+        if (content == null || content.isEmpty() || queryString == null) {
+            return null;
+        }
+        if (mode == SearchMode.STRUCTURED) {
+            try {
+                return locateStructuredMatch(note, content, queryString);
+            } catch (IOException | QuerySyntaxException e) {
+                System.err.println("Error locating match in note ID: " + note.getId());
+                e.printStackTrace();
+                return null;
+            }
+        }
+        try {
+            List<String> queryTokens = analyzeQuery(queryString);
+            if (queryTokens.isEmpty()) {
+                return null;
+            }
+            Set<String> wholeWords = Set.copyOf(queryTokens);
+            String prefix = queryTokens.get(queryTokens.size() - 1);
+
+            try (TokenStream stream = analyzer.tokenStream("content", content)) {
+                CharTermAttribute termAttribute = stream.addAttribute(CharTermAttribute.class);
+                OffsetAttribute offsetAttribute = stream.addAttribute(OffsetAttribute.class);
+                stream.reset();
+                int wordIndex = 0;
+                MatchLocation location = null;
+                while (location == null && stream.incrementToken()) {
+                    String term = termAttribute.toString();
+                    if (wholeWords.contains(term) || term.startsWith(prefix)) {
+                        int startOffset = offsetAttribute.startOffset();
+                        location = new MatchLocation(startOffset, offsetAttribute.endOffset() - startOffset, wordIndex);
+                    }
+                    wordIndex++;
+                }
+                stream.end();
+                return location;
+            }
+        } catch (IOException e) {
+            System.err.println("Error locating match in note ID: " + note.getId());
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Runs a structured query against a single note in a {@link MemoryIndex} and returns the
+     * earliest match offset the Matches API reports for the content field.
+     * @param note        The note, whose title and tags are indexed too so clauses on them still match.
+     * @param content     The note's content.
+     * @param queryString The structured query.
+     * @return The location of the first content match, or null if the query has none in the content.
+     */
+    private MatchLocation locateStructuredMatch(Note note, String content, String queryString) throws IOException {
+        Query query = parseStructuredQuery(queryString);
+        MemoryIndex memoryIndex = new MemoryIndex(true);
+        memoryIndex.addField("title", note.getTitle() == null ? "" : note.getTitle(), analyzer);
+        memoryIndex.addField("content", content, analyzer);
+        for (String tag : TagIndex.extractTags(content)) {
+            memoryIndex.addField(new StringField(TAG_FIELD, tag, Field.Store.NO), analyzer);
+        }
+        IndexSearcher searcher = memoryIndex.createSearcher();
+        Weight weight = searcher.createWeight(searcher.rewrite(query), ScoreMode.COMPLETE_NO_SCORES, 1f);
+        Matches matches = weight.matches(searcher.getIndexReader().leaves().get(0), 0);
+        MatchesIterator contentMatches = matches == null ? null : matches.getMatches("content");
+        if (contentMatches == null) {
+            return null;
+        }
+        int start = -1;
+        int end = -1;
+        while (contentMatches.next()) {
+            int matchStart = contentMatches.startOffset();
+            if (matchStart >= 0 && (start < 0 || matchStart < start)) {
+                start = matchStart;
+                end = contentMatches.endOffset();
+            }
+        }
+        if (start < 0) {
+            return null;
+        }
+
+        int wordIndex = 0;
+        try (TokenStream stream = analyzer.tokenStream("content", content)) {
+            OffsetAttribute offsetAttribute = stream.addAttribute(OffsetAttribute.class);
+            stream.reset();
+            while (stream.incrementToken() && offsetAttribute.startOffset() < start) {
+                wordIndex++;
+            }
+            stream.end();
+        }
+        return new MatchLocation(start, end - start, wordIndex);
+    }
+
+    /**
+     * Finds the notes most similar to the given note by nearest-neighbour search over the
+     * embedding vectors (HNSW graph). The note's current text is embedded on the fly,
+     * so unsaved edits are taken into account, and its words are weighted by inverse document
+     * frequency so the neighbours share its distinctive words rather than its common ones.
+     * @param note The {@link Note} to find related notes for.
+     * @param k    The maximum number of related notes to return.
+     * @return The related notes, most similar first. Never contains the note itself.
+     * @throws IOException If an error occurs while reading from the index.
+     */
+    public List<RelatedNote> relatedNotes(Note note, int k) throws IOException {
+        if (k <= 0) {
+            return new ArrayList<>();
+        }
+
+        List<RelatedNote> related = new ArrayList<>(k);
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            float[] vector = embedder.embed(note, searcher.getIndexReader());
+            if (vector == null) {
+                return related;
+            }
+            // Ask for one extra neighbour, since the note itself is normally the closest match.
+            TopDocs topDocs = searcher.search(new KnnFloatVectorQuery(EMBEDDING_FIELD, vector, k + 1), k + 1);
+            StoredFields storedFields = searcher.storedFields();
+            for (ScoreDoc hit : topDocs.scoreDocs) {
+                String noteId = storedFields.document(hit.doc, Set.of("id")).get("id");
+                if (noteId.equals(note.getId()) || related.size() == k) {
+                    continue;
+                }
+                AppState.getInstance().getNoteById(noteId).ifPresent(relatedNote -> related.add(
+                        new RelatedNote(noteId, relatedNote.getTitle(), relatedNote.getSetId(), hit.score)));
+            }
+        } finally {
+            searcherManager.release(searcher);
+        }
+        return related;
+    }
+
+    /**
+     * Starts maintaining the matching notes of a saved search.
+     * The query is parsed immediately, so syntax errors reach the caller. The initial members are
+     * then found with one search over the index, on the same thread that later applies note changes,
+     * so no change is lost between the scan and the first incremental update.
+     * @param savedSearch The saved search to register.
+     * @throws QuerySyntaxException If the saved query is invalid.
+     */
+    public void registerSavedSearch(SavedSearch savedSearch) {
+        scheduleSavedSearchScan(savedSearch.getId(), parseStructuredQuery(savedSearch.getQuery()));
+    }
+
+    /**
+     * Stops maintaining a saved search.
+     * @param savedSearchId The ID of the saved search.
+     */
+    public void unregisterSavedSearch(String savedSearchId) {
+        percolatorExecutor.execute(() -> savedSearchIndex.unregister(savedSearchId));
+    }
+
+    /**
+     * Returns the index holding the matching notes of every saved search, e.g. to listen for changes.
+     * @return The saved search index.
+     */
+    public SavedSearchIndex getSavedSearchIndex() {
+        return savedSearchIndex;
+    }
+
+    /**
+     * Returns the graph of [[wiki links]] between notes.
+     * @return The link index, updated by {@link #addOrUpdateNote} and {@link #deleteNote}.
+     */
+    public LinkIndex getLinkIndex() {
+        return linkIndex;
+    }
+
+    /**
+     * Returns the inverted index of inline #tags.
+     * @return The tag index, updated by {@link #addOrUpdateNote} and {@link #deleteNote}.
+     */
+    public TagIndex getTagIndex() {
+        return tagIndex;
+    }
+
+    /**
+     * Returns the near-duplicate detector.
+     * @return The detector, updated by {@link #addOrUpdateNote} and {@link #deleteNote}.
+     */
+    public DuplicateDetector getDuplicateDetector() {
+        return duplicateDetector;
+    }
+
+    /**
+     * Returns the background job that repairs differences between the index and AppState.
+     * @return The reconciler.
+     */
+    public IndexReconciler getReconciler() {
+        return reconciler;
+    }
+
+    /**
+     * Returns the manager of near-real-time searchers, for background jobs that read the whole index.
+     * @return The searcher manager.
+     */
+    SearcherManager getSearcherManager() {
+        return searcherManager;
+    }
+
+    /**
+     * Returns the time of the last note change or deletion.
+     * @return The timestamp in milliseconds since the epoch, or 0 if nothing changed since startup.
+     */
+    long getLastChangeAt() {
+        return lastChangeAt;
+    }
+
+    /**
+     * Queues a full search for a saved query on the percolator thread and registers the result.
+     * Refreshes the searcher first, so every change queued before the scan is visible to it.
+     * @param savedSearchId The ID of the saved search.
+     * @param query         The parsed query.
+     */
+    private void scheduleSavedSearchScan(String savedSearchId, Query query) {
+        percolatorExecutor.execute(() -> {
+            try {
+                searcherManager.maybeRefreshBlocking();
+                IndexSearcher searcher = searcherManager.acquire();
+                try {
+                    Set<String> noteIds = new HashSet<>();
+                    StoredFields storedFields = searcher.storedFields();
+                    int limit = Math.max(1, searcher.getIndexReader().numDocs());
+                    for (ScoreDoc hit : searcher.search(query, limit).scoreDocs) {
+                        noteIds.add(storedFields.document(hit.doc, Set.of("id")).get("id"));
+                    }
+                    savedSearchIndex.register(savedSearchId, query, noteIds);
+                } finally {
+                    searcherManager.release(searcher);
+                }
+            } catch (IOException e) {
+                System.err.println("Error running saved search ID: " + savedSearchId);
+                e.printStackTrace();
             }
+        });
+    }
+
+    /**
+     * Commits pending changes and releases the writer, readers and directory.
+     * Should be called once when the application shuts down.
+     */
+    public void close() {
+        reconciler.stop();
+        suggesterExecutor.shutdownNow();
+        percolatorExecutor.shutdownNow();
+        duplicateDetector.close();
+        try {
+            searcherManager.close();
+            indexWriter.close();
+            indexDirectory.close();
+        } catch (IOException e) {
+            System.err.println("Error closing search index:");
+            e.printStackTrace();
         }
-        System.out.println("DEBUG: SearchService returning " + results.size() + " total occurrences.");
-        return results;
+    }
+
+    /**
+     * Wraps a text query with filter clauses for the given restrictions.
+     * Range restrictions use {@link IndexOrDocValuesQuery}, letting Lucene choose between the
+     * point index (selective ranges) and doc values (when the text query is already selective).
+     * @param query      The scoring text query.
+     * @param filter     The restrictions to apply.
+     * @param includeSet Whether to apply the set restriction; false when counting set facets.
+     * @return The filtered query, or the text query itself if nothing needs filtering.
+     */
+    private static Query applyFilter(Query query, SearchFilter filter, boolean includeSet) {
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        builder.add(query, BooleanClause.Occur.MUST);
+        boolean filtered = false;
+        if (includeSet && filter.setId() != null) {
+            builder.add(new TermQuery(new Term("setId", filter.setId())), BooleanClause.Occur.FILTER);
+            filtered = true;
+        }
+        if (filter.createdAfter() != Long.MIN_VALUE || filter.createdBefore() != Long.MAX_VALUE) {
+            builder.add(new IndexOrDocValuesQuery(
+                    LongPoint.newRangeQuery("createdAt", filter.createdAfter(), filter.createdBefore()),
+                    NumericDocValuesField.newSlowRangeQuery("createdAt", filter.createdAfter(), filter.createdBefore())
+            ), BooleanClause.Occur.FILTER);
+            filtered = true;
+        }
+        if (filter.updatedAfter() != Long.MIN_VALUE || filter.updatedBefore() != Long.MAX_VALUE) {
+            builder.add(new IndexOrDocValuesQuery(
+                    LongPoint.newRangeQuery("updatedAt", filter.updatedAfter(), filter.updatedBefore()),
+                    NumericDocValuesField.newSlowRangeQuery("updatedAt", filter.updatedAfter(), filter.updatedBefore())
+            ), BooleanClause.Occur.FILTER);
+            filtered = true;
+        }
+        if (filter.tag() != null) {
+            builder.add(new TermQuery(new Term(TAG_FIELD, filter.tag())), BooleanClause.Occur.FILTER);
+            filtered = true;
+        }
+        if (filter.minLength() > 0 || filter.maxLength() != Integer.MAX_VALUE) {
+            builder.add(new IndexOrDocValuesQuery(
+                    IntPoint.newRangeQuery("length", filter.minLength(), filter.maxLength()),
+                    NumericDocValuesField.newSlowRangeQuery("length", filter.minLength(), filter.maxLength())
+            ), BooleanClause.Occur.FILTER);
+            filtered = true;
+        }
+        return filtered ? builder.build() : query;
+    }
+
+    /**
+     * Counts the matches of a query in one document, using the positional Matches API.
+     * Stops counting one past {@link #MAX_COUNTED_OCCURRENCES}, so a common word in a long note stays
+     * cheap while more matches than the cap can still be told apart from exactly the cap.
+     * @param searcher    The searcher the query was run with.
+     * @param matchWeight The rewritten query's weight, created once per search.
+     * @param docId       The top-level document ID of the hit.
+     * @return The number of matches in the title and content, capped.
+     * @throws IOException If an error occurs while reading postings.
+     */
+    private static int countOccurrences(IndexSearcher searcher, Weight matchWeight, int docId) throws IOException {
+        List<LeafReaderContext> leaves = searcher.getIndexReader().leaves();
+        LeafReaderContext leaf = leaves.get(ReaderUtil.subIndex(docId, leaves));
+        Matches matches = matchWeight.matches(leaf, docId - leaf.docBase);
+        if (matches == null) {
+            return 0;
+        }
+        int count = 0;
+        for (String field : new String[] {"title", "content"}) {
+            MatchesIterator iterator = matches.getMatches(field);
+            while (iterator != null && count <= MAX_COUNTED_OCCURRENCES && iterator.next()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Counts the notes matching a query per set, using the set ID doc values.
+     * @param searcher The searcher to run the query with.
+     * @param query    The query whose matches are counted.
+     * @return Counts keyed by set ID, largest first.
+     * @throws IOException If an error occurs while reading from the index.
+     */
+    private Map<String, Integer> countBySet(IndexSearcher searcher, Query query) throws IOException {
+        int setCount = AppState.getInstance().getSets().size();
+        if (setCount == 0) {
+            return Collections.emptyMap();
+        }
+        FacetsCollector hits = searcher.search(query, new FacetsCollectorManager());
+        StringValueFacetCounts counts = new StringValueFacetCounts(setFacetStateFor(searcher.getIndexReader()), hits);
+        FacetResult result = counts.getTopChildren(setCount, "setId");
+
+        Map<String, Integer> setCounts = new LinkedHashMap<>();
+        if (result != null) {
+            for (LabelAndValue labelValue : result.labelValues) {
+                setCounts.put(labelValue.label, labelValue.value.intValue());
+            }
+        }
+        return setCounts;
+    }
+
+    /**
+     * Returns the facet ordinal state for the given reader, building it only when the reader changed.
+     * @param reader The current top-level reader.
+     * @return The facet state for the reader.
+     * @throws IOException If an error occurs while reading doc values.
+     */
+    private synchronized StringDocValuesReaderState setFacetStateFor(IndexReader reader) throws IOException {
+        if (setFacetState == null || setFacetReader != reader) {
+            setFacetState = new StringDocValuesReaderState(reader, "setId");
+            setFacetReader = reader;
+        }
+        return setFacetState;
+    }
+
+    /**
+     * Builds the search-as-you-type query for the given text.
+     * Every word except the last must match a whole content term. The last word matches either
+     * the exact term (boosted), a title prefix, or one of its FST completions, so no wildcard
+     * expansion over the term dictionary is ever needed.
+     * In fuzzy mode each of those clauses is combined with a bounded {@link FuzzyQuery}.
+     * @param queryString The raw text from the search field.
+     * @param mode        How query words are matched.
+     * @return The query, or null if the text contains no searchable tokens.
+     * @throws IOException If the analyzer fails to tokenize the text.
+     */
+    private Query buildQuery(String queryString, SearchMode mode) throws IOException {
+        if (mode == SearchMode.STRUCTURED) {
+            return parseStructuredQuery(queryString);
+        }
+        List<String> tokens = analyzeQuery(queryString);
+        if (tokens.isEmpty()) {
+            return null;
+        }
+
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            boolean isLast = i == tokens.size() - 1;
+            Query clause = isLast ? buildPrefixClause(token) : buildTermClause(token);
+            if (mode == SearchMode.FUZZY) {
+                clause = withFuzzyAlternative(clause, token);
+            }
+            builder.add(clause, BooleanClause.Occur.MUST);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Parses a query in the classic Lucene syntax over the title and content fields.
+     * Unscoped words search both fields with title matches boosted, and are combined with AND.
+     * Regular expressions are compiled with a determinization limit, so a pathological pattern
+     * fails here instead of stalling the search.
+     * @param queryString The raw text from the search field.
+     * @return The parsed query.
+     * @throws QuerySyntaxException If the syntax is invalid, a field is unknown, or a regular
+     *                              expression is too complex.
+     */
+    private Query parseStructuredQuery(String queryString) {
+        MultiFieldQueryParser parser = new MultiFieldQueryParser(
+                STRUCTURED_DEFAULT_FIELDS, analyzer, Map.of("title", TITLE_BOOST));
+        parser.setDefaultOperator(QueryParser.Operator.AND);
+        parser.setDeterminizeWorkLimit(MAX_REGEX_DETERMINIZE_WORK);
+        parser.setAllowLeadingWildcard(false);
+
+        Query query;
+        try {
+            query = parser.parse(queryString);
+        } catch (ParseException e) {
+            throw new QuerySyntaxException(firstLine(e.getMessage()), e);
+        } catch (TooComplexToDeterminizeException e) {
+            throw new QuerySyntaxException("Regular expression is too complex", e);
+        } catch (IllegalArgumentException e) {
+            // Malformed regular expressions are reported by the automaton compiler.
+            throw new QuerySyntaxException(firstLine(e.getMessage()), e);
+        }
+
+        query.visit(new QueryVisitor() {
+            @Override
+            public boolean acceptField(String field) {
+                if (!STRUCTURED_QUERY_FIELDS.contains(field)) {
+                    throw new QuerySyntaxException("Unknown field '" + field + "', use title:, content: or tag:", null);
+                }
+                return true;
+            }
+        });
+        return query;
+    }
+
+    /**
+     * Returns the first line of a parser message, which otherwise lists every expected token.
+     */
+    private static String firstLine(String message) {
+        if (message == null) {
+            return "Invalid query";
+        }
+        int newline = message.indexOf('\n');
+        return newline < 0 ? message : message.substring(0, newline);
+    }
+
+    /**
+     * Builds the clause for a complete word: it must appear in the title or the body,
+     * with title matches boosted.
+     * @param token The analyzed word.
+     * @return A disjunction over the title and content fields.
+     */
+    private static Query buildTermClause(String token) {
+        BooleanQuery.Builder termClause = new BooleanQuery.Builder();
+        termClause.add(new BoostQuery(new TermQuery(new Term("title", token)), TITLE_BOOST), BooleanClause.Occur.SHOULD);
+        termClause.add(new TermQuery(new Term("content", token)), BooleanClause.Occur.SHOULD);
+        return termClause.build();
+    }
+
+    /**
+     * Builds the clause for the word that is still being typed: the exact word (boosted),
+     * a title prefix, or one of the word's FST completions.
+     * @param prefix The lowercased, partially typed word.
+     * @return A disjunction over the bounded set of alternatives.
+     */
+    private Query buildPrefixClause(String prefix) {
+        BooleanQuery.Builder prefixClause = new BooleanQuery.Builder();
+        prefixClause.add(new BoostQuery(buildTermClause(prefix), 2f), BooleanClause.Occur.SHOULD);
+        prefixClause.add(new BoostQuery(new TermQuery(new Term(TITLE_PREFIX_FIELD, prefix)), TITLE_BOOST), BooleanClause.Occur.SHOULD);
+        for (String completion : contentSuggester.complete(prefix, MAX_PREFIX_COMPLETIONS)) {
+            if (!completion.equals(prefix)) {
+                prefixClause.add(new TermQuery(new Term("content", completion)), BooleanClause.Occur.SHOULD);
+            }
+        }
+        return prefixClause.build();
+    }
+
+    /**
+     * Combines an exact clause with a fuzzy match on the same word.
+     * The exact clause is boosted so exact matches always outrank fuzzy ones.
+     * @param exactClause The clause matching the word exactly (or as a prefix).
+     * @param token       The analyzed word.
+     * @return The combined clause, or the exact clause alone if the word is too short for fuzzy matching.
+     */
+    private Query withFuzzyAlternative(Query exactClause, String token) {
+        int maxEdits = maxEditsFor(token);
+        if (maxEdits == 0) {
+            return exactClause;
+        }
+        BooleanQuery.Builder combined = new BooleanQuery.Builder();
+        combined.add(new BoostQuery(exactClause, EXACT_MATCH_BOOST), BooleanClause.Occur.SHOULD);
+        combined.add(new FuzzyQuery(new Term("title", token), maxEdits, FUZZY_PREFIX_LENGTH,
+                MAX_FUZZY_EXPANSIONS, true), BooleanClause.Occur.SHOULD);
+        combined.add(new FuzzyQuery(new Term("content", token), maxEdits, FUZZY_PREFIX_LENGTH,
+                MAX_FUZZY_EXPANSIONS, true), BooleanClause.Occur.SHOULD);
+        return combined.build();
+    }
+
+    /**
+     * Scales the allowed edit distance with word length: short words would match almost
+     * anything with a typo allowance, while long words tolerate two edits.
+     * @param token The analyzed word.
+     * @return 0 for words of up to 2 characters, 1 for up to 5 characters, otherwise 2.
+     */
+    private static int maxEditsFor(String token) {
+        int length = token.codePointCount(0, token.length());
+        if (length <= 2) {
+            return 0;
+        }
+        return length <= 5 ? 1 : 2;
+    }
+
+    /**
+     * Splits the query text into lowercased terms using the same analyzer as the content field.
+     * @param text The raw query text.
+     * @return The list of analyzed terms, in order.
+     * @throws IOException If the analyzer fails to tokenize the text.
+     */
+    private List<String> analyzeQuery(String text) throws IOException {
+        List<String> tokens = new ArrayList<>();
+        try (TokenStream stream = analyzer.tokenStream("content", text)) {
+            CharTermAttribute termAttribute = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                tokens.add(termAttribute.toString());
+            }
+            stream.end();
+        }
+        return tokens;
+    }
+
+    /**
+     * Rebuilds the completion FST from the current index contents.
+     * @throws IOException If an error occurs while reading the index.
+     */
+    private void rebuildSuggester() throws IOException {
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            contentSuggester.rebuild(searcher.getIndexReader());
+            suggesterStale.set(false);
+            suggesterBuiltAt = System.currentTimeMillis();
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    /**
+     * Schedules a background FST rebuild if the index changed and the last rebuild is old enough.
+     * New words are still found once fully typed; they only become completable after the rebuild.
+     */
+    private void maybeScheduleSuggesterRebuild() {
+        if (!suggesterStale.get()
+                || System.currentTimeMillis() - suggesterBuiltAt < SUGGESTER_REFRESH_INTERVAL_MS
+                || !suggesterRebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        suggesterExecutor.execute(() -> {
+            try {
+                rebuildSuggester();
+            } catch (IOException e) {
+                System.err.println("Error rebuilding search suggestions:");
+                e.printStackTrace();
+            } finally {
+                suggesterRebuilding.set(false);
+            }
+        });
     }
 
     /**
      * Creates a Lucene {@link Document} for a given {@link Note}.
-     * The document includes fields for ID, title, content (combined title and body for searching),
-     * and set name.
-     * @param note    The {@link Note} to index.
-     * @param setName The name of the {@link NoteSet} the note belongs to.
+     * The document includes fields for ID (also as doc values, for the {@link IndexReconciler}), title, title prefixes, and content (the note body, stored
+     * with postings offsets for snippet highlighting). Only the immutable set ID is indexed, never the set name, so renaming a set
+     * requires no index work. Each inline #tag is indexed as a keyword. The set ID, timestamps and content length are indexed both as
+     * points and as doc values for filtering and faceting. A unit-length embedding of the note is
+     * added as a vector field, so it is refreshed with every update of the note.
+     * @param note The {@link Note} to index.
      * @return A Lucene {@link Document} ready for indexing.
      * @throws IOException (Potentially thrown by field constructors, though unlikely here).
      */
-    private Document createDocument(Note note, String setName) throws IOException {
+    private Document createDocument(Note note) throws IOException {
         Document doc = new Document();
         doc.add(new StringField("id", note.getId(), Field.Store.YES));
+        doc.add(new SortedDocValuesField("id", new BytesRef(note.getId())));
         doc.add(new TextField("title", note.getTitle(), Field.Store.YES));
-        doc.add(new TextField("content", note.getTitle() + " " + note.getContent(), Field.Store.NO));
-        doc.add(new StringField("setName", setName, Field.Store.YES));
+        doc.add(new TextField(TITLE_PREFIX_FIELD, note.getTitle(), Field.Store.NO));
+        doc.add(new Field("content", note.getContent() == null ? "" : note.getContent(), CONTENT_FIELD_TYPE));
+        doc.add(new StringField("setId", note.getSetId(), Field.Store.YES));
+        doc.add(new SortedDocValuesField("setId", new BytesRef(note.getSetId())));
+        for (String tag : TagIndex.extractTags(note.getContent())) {
+            doc.add(new StringField(TAG_FIELD, tag, Field.Store.NO));
+        }
+        addLongField(doc, "createdAt", note.getCreatedAt());
+        addLongField(doc, "updatedAt", note.getUpdatedAt());
+        int length = note.getContent() == null ? 0 : note.getContent().length();
+        doc.add(new IntPoint("length", length));
+        doc.add(new NumericDocValuesField("length", length));
+
+        float[] embedding = embedder.embed(note);
+        if (embedding != null) {
+            doc.add(new KnnFloatVectorField(EMBEDDING_FIELD, embedding, VectorSimilarityFunction.DOT_PRODUCT));
+        }
         return doc;
     }
-}
\ No newline at end of file
+
+    /**
+     * Adds a long value as a point (for range queries) and as doc values (for sorting and
+     * selective range checks) under the same field name.
+     * @param doc   The document to add the field to.
+     * @param name  The field name.
+     * @param value The value to index.
+     */
+    private static void addLongField(Document doc, String name, long value) {
+        doc.add(new LongPoint(name, value));
+        doc.add(new NumericDocValuesField(name, value));
+    }
+
+    /**
+     * Analyzer that keeps the whole text as one lowercased token, so {@code tag:Work} in a
+     * structured query matches the indexed keyword "work".
+     */
+    private static final class TagAnalyzer extends Analyzer {
+
+        @Override
+        protected TokenStreamComponents createComponents(String fieldName) {
+            Tokenizer source = new KeywordTokenizer();
+            return new TokenStreamComponents(source, new LowerCaseFilter(source));
+        }
+    }
+
+    /**
+     * Analyzer that emits lowercased edge n-grams (prefixes) of every word,
+     * so a partially typed word can be matched with a plain term lookup.
+     */
+    private static final class EdgeNGramAnalyzer extends Analyzer {
+
+        private final int maxGram;
+
+        EdgeNGramAnalyzer(int maxGram) {
+            this.maxGram = maxGram;
+        }
+
+        @Override
+        protected TokenStreamComponents createComponents(String fieldName) {
+            Tokenizer source = new StandardTokenizer();
+            TokenStream stream = new LowerCaseFilter(source);
+            stream = new EdgeNGramTokenFilter(stream, 1, maxGram, true);
+            return new TokenStreamComponents(source, stream);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.eureka;
+
+import com.eureka.model.Note;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Inverted index from inline {@code #tags} to the notes that use them.
+ * Tags are extracted from note content by a single scan, normalized to lowercase, and kept per note
+ * so that an edit only applies the difference between the note's old and new tags.
+ * Listing the notes of a tag costs time proportional to their number, and the count of a tag is the
+ * size of its note set.
+ */
+public class TagIndex {
+
+    /**
+     * Listener notified when the set of tags or their counts change.
+     * Called on the thread that applied the change, not necessarily the JavaFX thread.
+     */
+    public interface TagListener {
+        void onTagsChanged();
+    }
+
+    /**
+     * A tag and the number of notes using it.
+     * @param tag   The normalized tag, without the leading '#'.
+     * @param count The number of notes containing the tag.
+     */
+    public record TagCount(String tag, int count) {}
+
+    /**
+     * Longest tag that is recognized, in characters. Longer runs are not treated as tags.
+     */
+    private static final int MAX_TAG_LENGTH = 64;
+
+    /**
+     * Tags of each note, by note ID.
+     */
+    private final Map<String, Set<String>> noteTags = new HashMap<>();
+    /**
+     * IDs of the notes using each tag.
+     */
+    private final Map<String, Set<String>> tagNotes = new HashMap<>();
+    /**
+     * Listeners notified about tag changes.
+     */
+    private final List<TagListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Replaces the whole index with the tags of the given notes.
+     * @param notes All notes of the vault.
+     */
+    public void rebuild(Collection<Note> notes) {
+        synchronized (this) {
+            noteTags.clear();
+            tagNotes.clear();
+            for (Note note : notes) {
+                applyTags(note.getId(), extractTags(note.getContent()));
+            }
+        }
+        notifyListeners();
+    }
+
+    /**
+     * Re-extracts the tags of a changed note and applies the difference to the index.
+     * @param note The note whose content changed (or a newly created note).
+     */
+    public void update(Note note) {
+        boolean changed;
+        synchronized (this) {
+            changed = applyTags(note.getId(), extractTags(note.getContent()));
+        }
+        if (changed) {
+            notifyListeners();
+        }
+    }
+
+    /**
+     * Removes a deleted note from the index.
+     * @param noteId The ID of the deleted note.
+     */
+    public void remove(String noteId) {
+        boolean changed;
+        synchronized (this) {
+            changed = applyTags(noteId, Collections.emptySet());
+        }
+        if (changed) {
+            notifyListeners();
+        }
+    }
+
+    /**
+     * Returns the IDs of the notes using a tag.
+     * @param tag The tag, with or without the leading '#'.
+     * @return A snapshot of the note IDs.
+     */
+    public synchronized Set<String> getNotes(String tag) {
+        Set<String> noteIds = tagNotes.get(normalize(tag));
+        return noteIds == null ? Collections.emptySet() : Set.copyOf(noteIds);
+    }
+
+    /**
+     * Returns the tags of a note.
+     * @param noteId The ID of the note.
+     * @return A snapshot of the note's normalized tags.
+     */
+    public synchronized Set<String> getTags(String noteId) {
+        Set<String> tags = noteTags.get(noteId);
+        return tags == null ? Collections.emptySet() : Set.copyOf(tags);
+    }
+
+    /**
+     * Returns every tag with its note count, most used first, then alphabetically.
+     * @return The list of tag counts.
+     */
+    public synchronized List<TagCount> getTagCounts() {
+        List<TagCount> counts = new ArrayList<>(tagNotes.size());
+        for (Map.Entry<String, Set<String>> entry : tagNotes.entrySet()) {
+            counts.add(new TagCount(entry.getKey(), entry.getValue().size()));
+        }
+        counts.sort(Comparator.comparingInt(TagCount::count).reversed().thenComparing(TagCount::tag));
+        return counts;
+    }
+
+    /**
+     * Adds a listener for tag changes.
+     * @param listener The listener to add.
+     */
+    public void addListener(TagListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a previously added listener.
+     * @param listener The listener to remove.
+     */
+    public void removeListener(TagListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Extracts the tags of a text in one pass.
+     * A tag starts with '#' at the beginning of the text or after a character that cannot be part of
+     * a word, and continues with letters, digits, '_', '-' and '/'. It must contain at least one
+     * letter, so "#1" or a Markdown heading "# Title" are not tags.
+     * @param content The note content. May be null.
+     * @return The distinct normalized tags, in order of first appearance.
+     */
+    public static Set<String> extractTags(String content) {
+        if (content == null || content.indexOf('#') < 0) {
+            return Collections.emptySet();
+        }
+        Set<String> tags = new LinkedHashSet<>();
+        int length = content.length();
+        int i = content.indexOf('#');
+        while (i >= 0 && i < length) {
+            boolean atBoundary = i == 0 || !isTagChar(content.charAt(i - 1)) && content.charAt(i - 1) != '#'
+                    && content.charAt(i - 1) != '&';
+            int end = i + 1;
+            boolean hasLetter = false;
+            while (end < length && isTagChar(content.charAt(end))) {
+                hasLetter |= Character.isLetter(content.charAt(end));
+                end++;
+            }
+            // Trailing separators belong to the sentence, not the tag ("#done-" or "#a/b/").
+            while (end > i + 1 && !Character.isLetterOrDigit(content.charAt(end - 1))) {
+                end--;
+            }
+            if (atBoundary && hasLetter && end - i - 1 <= MAX_TAG_LENGTH) {
+                tags.add(content.substring(i + 1, end).toLowerCase(Locale.ROOT));
+            }
+            i = content.indexOf('#', Math.max(end, i + 1));
+        }
+        return tags;
+    }
+
+    /**
+     * Normalizes a tag for lookup: trimmed, without a leading '#', lowercased.
+     * @param tag The tag. May be null.
+     * @return The normalized tag.
+     */
+    public static String normalize(String tag) {
+        if (tag == null) {
+            return "";
+        }
+        String trimmed = tag.trim();
+        if (trimmed.startsWith("#")) {
+            trimmed = trimmed.substring(1);
+        }
+        return trimmed.toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isTagChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '-' || c == '/';
+    }
+
+    /**
+     * Replaces the tags of a note, updating only the tags that were added or removed.
+     * @return True if the note's tags changed.
+     */
+    private boolean applyTags(String noteId, Set<String> newTags) {
+        Set<String> oldTags = noteTags.getOrDefault(noteId, Collections.emptySet());
+        if (newTags.equals(oldTags)) {
+            return false;
+        }
+        for (String tag : oldTags) {
+            if (!newTags.contains(tag)) {
+                Set<String> noteIds = tagNotes.get(tag);
+                noteIds.remove(noteId);
+                if (noteIds.isEmpty()) {
+                    tagNotes.remove(tag);
+                }
+            }
+        }
+        for (String tag : newTags) {
+            if (!oldTags.contains(tag)) {
+                tagNotes.computeIfAbsent(tag, t -> new LinkedHashSet<>()).add(noteId);
+            }
+        }
+        if (newTags.isEmpty()) {
+            noteTags.remove(noteId);
+        } else {
+            noteTags.put(noteId, newTags);
+        }
+        return true;
+    }
+
+    private void notifyListeners() {
+        for (TagListener listener : listeners) {
+            listener.onTagsChanged();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.eureka;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.search.spell.HighFrequencyDictionary;
+import org.apache.lucene.search.suggest.Lookup;
+import org.apache.lucene.search.suggest.fst.WFSTCompletionLookup;
+import org.apache.lucene.store.ByteBuffersDirectory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Completes partially typed words into full index terms using an FST-based suggester.
+ * The FST is built from the term dictionary of a single field, weighted by document frequency,
+ * so the most common completions of a prefix are returned first.
+ * Lookups are bounded by the requested number of completions and never walk the whole term dictionary.
+ */
+public class TermSuggester {
+
+    /**
+     * Terms must appear in at least this fraction of documents to be offered as completions.
+     * Keeps typos and one-off tokens out of the FST on large vaults.
+     */
+    private static final float MIN_DOC_FREQ_FRACTION = 0.0001f;
+
+    /**
+     * The index field whose terms are offered as completions.
+     */
+    private final String field;
+
+    /**
+     * The current lookup. Replaced atomically on rebuild; null until the first build.
+     */
+    private volatile Lookup lookup;
+
+    /**
+     * Constructs a suggester for the terms of the given field.
+     * @param field The name of the indexed field to suggest terms from.
+     */
+    public TermSuggester(String field) {
+        this.field = field;
+    }
+
+    /**
+     * Rebuilds the FST from the current contents of the index.
+     * The previous FST keeps serving lookups until the new one is ready.
+     * @param reader The {@link IndexReader} to read the term dictionary from.
+     * @throws IOException If an error occurs while reading terms or building the FST.
+     */
+    public void rebuild(IndexReader reader) throws IOException {
+        WFSTCompletionLookup next = new WFSTCompletionLookup(new ByteBuffersDirectory(), "suggest");
+        next.build(new HighFrequencyDictionary(reader, field, MIN_DOC_FREQ_FRACTION));
+        lookup = next;
+    }
+
+    /**
+     * Returns the most frequent indexed terms starting with the given prefix.
+     * @param prefix The lowercased, partially typed word.
+     * @param max    The maximum number of completions to return.
+     * @return A list of complete terms, most frequent first. Empty if the FST has not been built yet.
+     */
+    public List<String> complete(String prefix, int max) {
+        Lookup current = lookup;
+        if (current == null || prefix.isEmpty()) {
+            return Collections.emptyList();
+        }
+        try {
+            List<String> completions = new ArrayList<>(max);
+            for (Lookup.LookupResult result : current.lookup(prefix, false, max)) {
+                completions.add(result.key.toString());
+            }
+            return completions;
+        } catch (IOException e) {
+            System.err.println("Error looking up completions for prefix: " + prefix);
+            e.printStackTrace();
+            return Collections.emptyList();
+        }
+    }
+}
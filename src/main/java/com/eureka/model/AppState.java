@@ -2,20 +2,77 @@ package com.eureka.model;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 
 /**
  * Singleton class representing the overall state of the application.
  * Holds lists of note sets and notes, and provides methods to manage them.
+ * Structural changes (sets and notes added, removed or renamed) are reported to
+ * {@link ChangeListener}s, so views can update the affected rows instead of rebuilding.
  */
 public class AppState {
+
+    /**
+     * Listener notified about changes to sets and notes.
+     * Called on the thread that made the change, normally the JavaFX Application Thread.
+     * All methods default to doing nothing, so listeners only implement what they need.
+     */
+    public interface ChangeListener {
+        /**
+         * @param set The set that was added at the end of the list of sets.
+         */
+        default void onSetAdded(NoteSet set) {}
+
+        /**
+         * Called once for a deleted set; its notes are removed with it without separate events.
+         * @param set The set that was deleted.
+         */
+        default void onSetRemoved(NoteSet set) {}
+
+        /**
+         * @param set The set that was renamed.
+         */
+        default void onSetChanged(NoteSet set) {}
+
+        /**
+         * @param note The note that was added at the end of its set.
+         */
+        default void onNoteAdded(Note note) {}
+
+        /**
+         * @param note The note that was deleted.
+         */
+        default void onNoteRemoved(Note note) {}
+
+        /**
+         * @param note The note that was renamed.
+         */
+        default void onNoteChanged(Note note) {}
+    }
+
     private static AppState instance;
 
     private List<NoteSet> sets;
     private List<Note> notes;
+    private List<SavedSearch> savedSearches;
+
+    // Lookup index from note ID to Note, rebuilt after loading (not serialized).
+    private transient Map<String, Note> notesById;
+    // Lookup index from set ID to NoteSet, rebuilt after loading (not serialized).
+    private transient Map<String, NoteSet> setsById;
+
+    // Listeners notified about changes to sets and notes (not serialized).
+    private transient List<ChangeListener> listeners;
 
     private boolean sidebarCollapsed = false;
+    // IDs of the notes open in editor tabs, in tab order, restored on the next start.
+    private List<String> openNoteIds;
+    // ID of the note in the selected editor tab, or null if none.
+    private String selectedNoteId;
 
     /**
      * Private constructor to prevent direct instantiation (Singleton pattern).
@@ -24,6 +81,11 @@ public class AppState {
     private AppState() {
         sets = new ArrayList<>();
         notes = new ArrayList<>();
+        savedSearches = new ArrayList<>();
+        openNoteIds = new ArrayList<>();
+        notesById = new ConcurrentHashMap<>();
+        setsById = new ConcurrentHashMap<>();
+        listeners = new CopyOnWriteArrayList<>();
     }
 
     /**
@@ -55,6 +117,32 @@ public class AppState {
         this.sidebarCollapsed = sidebarCollapsed;
     }
 
+    /**
+     * Gets the notes that were open in editor tabs, so the session can be restored.
+     * @return The note IDs in tab order. May contain IDs of notes deleted since.
+     */
+    public List<String> getOpenNoteIds() {
+        return openNoteIds;
+    }
+
+    /**
+     * Gets the note that was in the selected editor tab.
+     * @return The note ID, or null if no tab was selected.
+     */
+    public String getSelectedNoteId() {
+        return selectedNoteId;
+    }
+
+    /**
+     * Remembers the open editor tabs for the next start.
+     * @param openNoteIds    The IDs of the notes open in tabs, in tab order.
+     * @param selectedNoteId The ID of the note in the selected tab, or null if none.
+     */
+    public void setOpenTabs(List<String> openNoteIds, String selectedNoteId) {
+        this.openNoteIds = new ArrayList<>(openNoteIds);
+        this.selectedNoteId = selectedNoteId;
+    }
+
 
     /**
      * Creates a new, empty AppState instance.
@@ -68,18 +156,49 @@ public class AppState {
 
     /**
      * Replaces the current singleton instance with a loaded state.
-     * Ensures that the lists within the loaded state are not null,
+     * Ensures that the lists within the loaded state (including saved searches and open tabs,
+     * which older save files do not have) are not null,
      * initializing them as empty ArrayLists if they are.
+     * Change listeners registered on the previous instance stay registered.
      * @param loadedState The AppState instance loaded from storage (e.g., JSON file).
      */
     public static void loadInstance(AppState loadedState) {
+        AppState previous = instance;
         instance = loadedState;
+        if (instance.listeners == null) {
+            instance.listeners = new CopyOnWriteArrayList<>();
+        }
+        if (previous != null && previous != instance) {
+            instance.listeners.addAll(previous.listeners);
+        }
         if (instance.sets == null) {
             instance.sets = new ArrayList<>();
         }
         if (instance.notes == null) {
             instance.notes = new ArrayList<>();
         }
+        if (instance.savedSearches == null) {
+            instance.savedSearches = new ArrayList<>();
+        }
+        if (instance.openNoteIds == null) {
+            instance.openNoteIds = new ArrayList<>();
+        }
+        instance.rebuildIndexes();
+    }
+
+    /**
+     * Rebuilds the transient lookup maps from the serialized lists.
+     * Gson fills the lists directly, so the maps must be recreated after loading.
+     */
+    private void rebuildIndexes() {
+        notesById = new ConcurrentHashMap<>();
+        for (Note note : notes) {
+            notesById.put(note.getId(), note);
+        }
+        setsById = new ConcurrentHashMap<>();
+        for (NoteSet set : sets) {
+            setsById.put(set.getId(), set);
+        }
     }
 
     /**
@@ -96,6 +215,21 @@ public class AppState {
      */
     public void addSet(NoteSet set) {
         sets.add(set);
+        setsById.put(set.getId(), set);
+        listeners.forEach(listener -> listener.onSetAdded(set));
+    }
+
+    /**
+     * Renames a note set and notifies the listeners.
+     * @param setId The unique ID of the NoteSet to rename.
+     * @param name  The new name.
+     */
+    public void renameSet(String setId, String name) {
+        NoteSet set = setsById.get(setId);
+        if (set != null) {
+            set.setName(name);
+            listeners.forEach(listener -> listener.onSetChanged(set));
+        }
     }
 
     /**
@@ -105,19 +239,31 @@ public class AppState {
      */
     public void deleteSet(String setId) {
         sets.removeIf(set -> set.getId().equals(setId));
-        notes.removeIf(note -> note.getSetId().equals(setId));
+        NoteSet removed = setsById.remove(setId);
+        notes.removeIf(note -> {
+            if (note.getSetId().equals(setId)) {
+                notesById.remove(note.getId());
+                return true;
+            }
+            return false;
+        });
+        if (removed != null) {
+            listeners.forEach(listener -> listener.onSetRemoved(removed));
+        }
     }
 
 
     /**
      * Finds a NoteSet by its unique ID.
+     * Uses the ID index, so display names can be resolved cheaply while rendering.
      * @param setId The ID of the NoteSet to find.
      * @return An Optional containing the NoteSet if found, or an empty Optional otherwise.
      */
     public Optional<NoteSet> getSetById(String setId) {
-        return sets.stream()
-                .filter(set -> set.getId().equals(setId))
-                .findFirst();
+        if (setId == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(setsById.get(setId));
     }
 
     /**
@@ -148,6 +294,21 @@ public class AppState {
      */
     public void addNote(Note note) {
         notes.add(note);
+        notesById.put(note.getId(), note);
+        listeners.forEach(listener -> listener.onNoteAdded(note));
+    }
+
+    /**
+     * Renames a note and notifies the listeners.
+     * @param noteId The ID of the Note to rename.
+     * @param title  The new title.
+     */
+    public void renameNote(String noteId, String title) {
+        Note note = notesById.get(noteId);
+        if (note != null) {
+            note.setTitle(title);
+            listeners.forEach(listener -> listener.onNoteChanged(note));
+        }
     }
 
     /**
@@ -156,16 +317,62 @@ public class AppState {
      */
     public void deleteNote(String noteId) {
         notes.removeIf(note -> note.getId().equals(noteId));
+        Note removed = notesById.remove(noteId);
+        if (removed != null) {
+            listeners.forEach(listener -> listener.onNoteRemoved(removed));
+        }
     }
 
     /**
      * Finds a Note by its unique ID.
+     * Uses the ID index, so the lookup is constant time regardless of vault size.
      * @param noteId The ID of the Note to find.
      * @return An Optional containing the Note if found, or an empty Optional otherwise.
      */
     public Optional<Note> getNoteById(String noteId) {
-        return notes.stream()
-                .filter(note -> note.getId().equals(noteId))
-                .findFirst();
+        if (noteId == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(notesById.get(noteId));
+    }
+
+    /**
+     * Gets the list of all saved searches.
+     * @return A list containing all SavedSearch objects.
+     */
+    public List<SavedSearch> getSavedSearches() {
+        return savedSearches;
+    }
+
+    /**
+     * Adds a new saved search to the application state.
+     * @param savedSearch The SavedSearch object to add.
+     */
+    public void addSavedSearch(SavedSearch savedSearch) {
+        savedSearches.add(savedSearch);
+    }
+
+    /**
+     * Deletes a saved search based on its unique ID.
+     * @param savedSearchId The ID of the SavedSearch to delete.
+     */
+    public void deleteSavedSearch(String savedSearchId) {
+        savedSearches.removeIf(savedSearch -> savedSearch.getId().equals(savedSearchId));
+    }
+
+    /**
+     * Adds a listener for changes to sets and notes.
+     * @param listener The listener to add.
+     */
+    public void addChangeListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a previously added change listener.
+     * @param listener The listener to remove.
+     */
+    public void removeChangeListener(ChangeListener listener) {
+        listeners.remove(listener);
     }
-}
\ No newline at end of file
+}
@@ -14,8 +14,12 @@ public class Note {
     private final String setId;
     // Title of the note (can be changed)
     private String title;
-    // Main content/body of the note (can be changed)
+    // Main content/body of the note (can be changed); out of date while contentStale is set
     private String content;
+    // Editable copy of the content, created by the first incremental edit; null until then
+    private transient StringBuilder editBuffer;
+    // Whether editBuffer holds edits not yet materialized into content
+    private transient boolean contentStale;
     // Timestamp when the note was created (final, cannot be changed)
     private final long createdAt;
     // Timestamp when the note was last updated (can be changed)
@@ -60,9 +64,13 @@ public class Note {
 
     /**
      * Gets the main content (body) of this note.
+     * Materializes pending edits first, so the string is built at most once per burst of edits.
      * @return The content string.
      */
-    public String getContent() { return content; }
+    public synchronized String getContent() {
+        flushEdits();
+        return content;
+    }
 
     /**
      * Gets the timestamp (in milliseconds since the epoch) when this note was created.
@@ -90,7 +98,51 @@ public class Note {
      * Remember to also call setUpdatedAt() after changing the content.
      * @param content The new content string.
      */
-    public void setContent(String content) { this.content = content; }
+    public synchronized void setContent(String content) {
+        this.content = content;
+        this.editBuffer = null;
+        this.contentStale = false;
+    }
+
+    /**
+     * Applies an incremental edit to the content, e.g. one keystroke reported by the editor.
+     * Edits go into a buffer that is kept while the note is being edited, so typing in a large note costs
+     * time proportional to the edit, not to the note; the content string is rebuilt only when it is
+     * next read.
+     * Remember to also call setUpdatedAt() after changing the content.
+     * @param offset        The character offset where the edit starts.
+     * @param removedLength The number of characters removed at the offset.
+     * @param inserted      The text inserted at the offset; may be empty.
+     * @throws IndexOutOfBoundsException If the removed range is outside the content.
+     */
+    public synchronized void applyEdit(int offset, int removedLength, String inserted) {
+        if (editBuffer == null) {
+            editBuffer = new StringBuilder(content == null ? "" : content);
+        }
+        editBuffer.replace(offset, offset + removedLength, inserted);
+        contentStale = true;
+    }
+
+    /**
+     * Materializes edits applied through {@link #applyEdit(int, int, String)} into the content string.
+     * Must be called before the note is serialized, since serialization reads the field directly.
+     */
+    public synchronized void flushEdits() {
+        if (contentStale) {
+            content = editBuffer.toString();
+            contentStale = false;
+        }
+    }
+
+    /**
+     * Materializes pending edits and drops the edit buffer, e.g. when the note's editor is closed,
+     * so a note that is no longer edited does not keep a second copy of its content in memory.
+     * The next {@link #applyEdit(int, int, String)} creates a new buffer.
+     */
+    public synchronized void releaseEditBuffer() {
+        flushEdits();
+        editBuffer = null;
+    }
 
     /**
      * Updates the 'last updated' timestamp for this note.
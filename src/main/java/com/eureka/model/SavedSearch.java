@@ -0,0 +1,81 @@
+package com.eureka.model;
+
+import java.util.UUID;
+
+/**
+ * Represents a standing search that is kept up to date as notes change.
+ * The query uses the structured search syntax (phrases, AND/OR/NOT, title:/content:, /regex/).
+ * Only the definition is saved; the matching notes are recomputed by the search service.
+ */
+public class SavedSearch {
+    // Unique identifier for the saved search (final, cannot be changed)
+    private final String id;
+    // Display name of the saved search (can be changed)
+    private String name;
+    // Query in the structured search syntax (final, cannot be changed)
+    private final String query;
+    // Timestamp when the saved search was created (final, cannot be changed)
+    private final long createdAt;
+
+    /**
+     * Constructs a new SavedSearch.
+     * Generates a unique UUID for the ID and sets the creation timestamp to the current time.
+     * @param name  The display name of the saved search.
+     * @param query The query in the structured search syntax.
+     */
+    public SavedSearch(String name, String query) {
+        this.id = UUID.randomUUID().toString();
+        this.name = name;
+        this.query = query;
+        this.createdAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Gets the unique identifier of this saved search.
+     * @return The UUID string representing the saved search's ID.
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Gets the display name of this saved search.
+     * @return The name of the saved search.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Sets a new display name for this saved search.
+     * @param name The new name to assign.
+     */
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Gets the query of this saved search.
+     * @return The query in the structured search syntax.
+     */
+    public String getQuery() {
+        return query;
+    }
+
+    /**
+     * Gets the timestamp (in milliseconds since the epoch) when this saved search was created.
+     * @return The creation timestamp.
+     */
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Returns the name of the saved search, for display in UI lists.
+     * @return The name of the saved search.
+     */
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,200 @@
+package com.eureka.ui;
+
+import com.eureka.FxWatchdog;
+import com.eureka.I18n;
+import com.eureka.Metrics;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.scene.Node;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.Dialog;
+import javafx.scene.control.Label;
+import javafx.scene.control.Tab;
+import javafx.scene.control.TabPane;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextArea;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Dialog showing the application's diagnostics in two tabs.
+ * The metrics tab lists the counters, gauges and histograms of the {@link Metrics} registry and can
+ * export them to a text file. The watchdog tab shows the measurements of the {@link FxWatchdog}:
+ * pulse timings, stalls of the FX thread, and the call sites the FX thread was blocked in, with a
+ * sample stack of the selected one; its report can be refreshed, reset, and saved for bug reports.
+ */
+public class DiagnosticsDialog extends Dialog<Void> {
+
+    // Current values of all metrics.
+    private final TableView<Metrics.MetricValue> metricsTable = new TableView<>();
+    // The watchdog whose measurements are shown; null if it is disabled.
+    private final FxWatchdog watchdog;
+    // Summary of pulses and stalls.
+    private final Label summaryLabel = new Label();
+    // Call sites the FX thread was blocked in, most blocked time first.
+    private final TableView<FxWatchdog.CallSite> callSiteTable = new TableView<>();
+    // Sample stack of the selected call site.
+    private final TextArea stackArea = new TextArea();
+
+    /**
+     * Constructs the dialog.
+     * @param watchdog The running watchdog, or null if it is disabled.
+     */
+    public DiagnosticsDialog(FxWatchdog watchdog) {
+        this.watchdog = watchdog;
+        titleProperty().bind(I18n.bind("diagnostics.title"));
+        getDialogPane().getButtonTypes().add(ButtonType.CLOSE);
+        setResizable(true);
+
+        Tab metricsTab = new Tab();
+        metricsTab.textProperty().bind(I18n.bind("diagnostics.metrics"));
+        metricsTab.setContent(createMetricsView());
+        Tab watchdogTab = new Tab();
+        watchdogTab.textProperty().bind(I18n.bind("diagnostics.watchdog"));
+        watchdogTab.setContent(createWatchdogView());
+
+        TabPane tabs = new TabPane(metricsTab, watchdogTab);
+        tabs.setTabClosingPolicy(TabPane.TabClosingPolicy.UNAVAILABLE);
+        tabs.setPrefSize(760, 540);
+        getDialogPane().setContent(tabs);
+    }
+
+    /**
+     * Creates the metrics tab: a table of all metrics with refresh and export buttons.
+     * @return The content of the tab.
+     */
+    private Node createMetricsView() {
+        TableColumn<Metrics.MetricValue, String> nameColumn = new TableColumn<>();
+        nameColumn.textProperty().bind(I18n.bind("diagnostics.metricName"));
+        nameColumn.setCellValueFactory(data -> new ReadOnlyObjectWrapper<>(data.getValue().name()));
+        nameColumn.setPrefWidth(200);
+        TableColumn<Metrics.MetricValue, String> typeColumn = new TableColumn<>();
+        typeColumn.textProperty().bind(I18n.bind("diagnostics.metricType"));
+        typeColumn.setCellValueFactory(data -> new ReadOnlyObjectWrapper<>(data.getValue().type()));
+        TableColumn<Metrics.MetricValue, String> valueColumn = new TableColumn<>();
+        valueColumn.textProperty().bind(I18n.bind("diagnostics.metricValue"));
+        valueColumn.setCellValueFactory(data -> new ReadOnlyObjectWrapper<>(data.getValue().summary()));
+        valueColumn.setPrefWidth(440);
+        metricsTable.getColumns().add(nameColumn);
+        metricsTable.getColumns().add(typeColumn);
+        metricsTable.getColumns().add(valueColumn);
+        VBox.setVgrow(metricsTable, Priority.ALWAYS);
+
+        Button refreshButton = new Button();
+        refreshButton.textProperty().bind(I18n.bind("diagnostics.refresh"));
+        refreshButton.setOnAction(e -> refreshMetrics());
+        Button exportButton = new Button();
+        exportButton.textProperty().bind(I18n.bind("diagnostics.export"));
+        exportButton.setOnAction(e -> saveToFile("eureka-metrics.txt", Metrics::export));
+
+        refreshMetrics();
+        return new VBox(8, metricsTable, new HBox(8, refreshButton, exportButton));
+    }
+
+    /**
+     * Creates the watchdog tab: the stall summary, the call sites and the stack of the selected one.
+     * @return The content of the tab, or a note that the watchdog is disabled.
+     */
+    private Node createWatchdogView() {
+        if (watchdog == null) {
+            Label disabledLabel = new Label();
+            disabledLabel.textProperty().bind(I18n.bind("diagnostics.disabled"));
+            return disabledLabel;
+        }
+
+        TableColumn<FxWatchdog.CallSite, String> siteColumn = new TableColumn<>();
+        siteColumn.textProperty().bind(I18n.bind("diagnostics.callSite"));
+        siteColumn.setCellValueFactory(data -> new ReadOnlyObjectWrapper<>(data.getValue().site()));
+        siteColumn.setPrefWidth(420);
+        TableColumn<FxWatchdog.CallSite, Long> blockedColumn = new TableColumn<>();
+        blockedColumn.textProperty().bind(I18n.bind("diagnostics.blockedMs"));
+        blockedColumn.setCellValueFactory(data -> new ReadOnlyObjectWrapper<>(data.getValue().blockedMs()));
+        TableColumn<FxWatchdog.CallSite, Integer> samplesColumn = new TableColumn<>();
+        samplesColumn.textProperty().bind(I18n.bind("diagnostics.samples"));
+        samplesColumn.setCellValueFactory(data -> new ReadOnlyObjectWrapper<>(data.getValue().samples()));
+        callSiteTable.getColumns().add(siteColumn);
+        callSiteTable.getColumns().add(blockedColumn);
+        callSiteTable.getColumns().add(samplesColumn);
+        callSiteTable.getSelectionModel().selectedItemProperty().addListener((obs, oldSite, newSite) ->
+                stackArea.setText(newSite == null ? "" : newSite.stack()));
+        VBox.setVgrow(callSiteTable, Priority.ALWAYS);
+
+        stackArea.setEditable(false);
+        stackArea.setPrefRowCount(8);
+        stackArea.getStyleClass().add("diagnostics-stack");
+
+        Button refreshButton = new Button();
+        refreshButton.textProperty().bind(I18n.bind("diagnostics.refresh"));
+        refreshButton.setOnAction(e -> refreshWatchdog());
+        Button resetButton = new Button();
+        resetButton.textProperty().bind(I18n.bind("diagnostics.reset"));
+        resetButton.setOnAction(e -> {
+            watchdog.reset();
+            refreshWatchdog();
+        });
+        Button saveButton = new Button();
+        saveButton.textProperty().bind(I18n.bind("diagnostics.save"));
+        saveButton.setOnAction(e -> saveToFile("eureka-watchdog.txt", watchdog::dump));
+        HBox buttons = new HBox(8, refreshButton, resetButton, saveButton);
+
+        refreshWatchdog();
+        return new VBox(8, summaryLabel, callSiteTable, stackArea, buttons);
+    }
+
+    /**
+     * Shows the current values of all metrics.
+     */
+    private void refreshMetrics() {
+        metricsTable.getItems().setAll(Metrics.snapshot());
+    }
+
+    /**
+     * Shows the current measurements of the watchdog.
+     */
+    private void refreshWatchdog() {
+        FxWatchdog.Report report = watchdog.getReport();
+        summaryLabel.setText(I18n.get("diagnostics.summary", report.pulses(), report.slowPulses(),
+                Math.round(report.maxPulseMs()), report.stalls(), report.longestStallMs()));
+        callSiteTable.getItems().setAll(report.callSites());
+        stackArea.clear();
+    }
+
+    /**
+     * Asks for a file and writes a report to it.
+     * @param initialName The suggested file name.
+     * @param writer      Writes the report to the chosen file.
+     */
+    private void saveToFile(String initialName, ReportWriter writer) {
+        FileChooser chooser = new FileChooser();
+        chooser.setInitialFileName(initialName);
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Text", "*.txt"));
+        File file = chooser.showSaveDialog(getDialogPane().getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+        try {
+            writer.write(file.toPath());
+        } catch (IOException e) {
+            System.err.println("Error saving the diagnostics report:");
+            e.printStackTrace();
+            Alert alert = new Alert(Alert.AlertType.ERROR);
+            alert.setHeaderText(I18n.get("diagnostics.saveFailed", e.getMessage()));
+            alert.show();
+        }
+    }
+
+    /**
+     * Writes a report to a file.
+     */
+    private interface ReportWriter {
+        void write(Path file) throws IOException;
+    }
+}
@@ -0,0 +1,76 @@
+package com.eureka.ui;
+
+import com.eureka.DuplicateDetector;
+import com.eureka.I18n;
+import com.eureka.NoteSelectionListener;
+import com.eureka.model.AppState;
+import com.eureka.model.Note;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.Dialog;
+import javafx.scene.control.Label;
+import javafx.scene.control.TreeCell;
+import javafx.scene.control.TreeItem;
+import javafx.scene.control.TreeView;
+
+import java.util.List;
+
+/**
+ * Dialog listing clusters of near-duplicate notes found by the {@link DuplicateDetector}.
+ * Each cluster shows its estimated similarity and can be expanded to its notes;
+ * double-clicking a note opens it.
+ */
+public class DuplicatesDialog extends Dialog<Void> {
+
+    /**
+     * Constructs the dialog for the given scan result.
+     * @param clusters The clusters to show, largest first.
+     * @param listener The listener to notify when a note is opened from the dialog.
+     */
+    public DuplicatesDialog(List<DuplicateDetector.DuplicateCluster> clusters, NoteSelectionListener listener) {
+        titleProperty().bind(I18n.bind("duplicates.title"));
+        getDialogPane().getButtonTypes().add(ButtonType.CLOSE);
+        setResizable(true);
+
+        if (clusters.isEmpty()) {
+            Label emptyLabel = new Label();
+            emptyLabel.textProperty().bind(I18n.bind("duplicates.none"));
+            getDialogPane().setContent(emptyLabel);
+            return;
+        }
+
+        AppState appState = AppState.getInstance();
+        TreeItem<Object> root = new TreeItem<>();
+        for (DuplicateDetector.DuplicateCluster cluster : clusters) {
+            TreeItem<Object> clusterItem = new TreeItem<>(I18n.get("duplicates.cluster",
+                    cluster.noteIds().size(), Math.round(cluster.similarity() * 100)));
+            for (String noteId : cluster.noteIds()) {
+                appState.getNoteById(noteId).ifPresent(note -> clusterItem.getChildren().add(new TreeItem<>(note)));
+            }
+            if (clusterItem.getChildren().size() > 1) {
+                root.getChildren().add(clusterItem);
+            }
+        }
+
+        TreeView<Object> tree = new TreeView<>(root);
+        tree.setShowRoot(false);
+        tree.setCellFactory(tv -> new TreeCell<>() {
+            @Override
+            protected void updateItem(Object item, boolean empty) {
+                super.updateItem(item, empty);
+                if (empty || item == null) {
+                    setText(null);
+                } else {
+                    setText(item instanceof Note note ? note.getTitle() : item.toString());
+                }
+            }
+        });
+        tree.setPrefSize(480, 360);
+        tree.setOnMouseClicked(event -> {
+            TreeItem<Object> selected = tree.getSelectionModel().getSelectedItem();
+            if (event.getClickCount() == 2 && selected != null && selected.getValue() instanceof Note note) {
+                listener.onNoteSelected(note);
+            }
+        });
+        getDialogPane().setContent(tree);
+    }
+}
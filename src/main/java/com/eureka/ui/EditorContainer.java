@@ -4,53 +4,193 @@ import com.eureka.EurekaApp;
 import com.eureka.NoteSelectionListener;
 import com.eureka.model.AppState;
 import com.eureka.model.Note;
+import javafx.animation.Animation;
+import javafx.animation.PauseTransition;
 import javafx.application.Platform;
 import javafx.collections.ListChangeListener;
 import javafx.scene.control.Tab;
 import javafx.scene.control.TabPane;
-import javafx.scene.control.TextArea;
 import javafx.scene.layout.BorderPane;
+import javafx.util.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.prefs.Preferences;
 
 /**
  * Manages the main editing area, displaying notes in tabs.
  * Implements NoteSelectionListener to react to note selection, deletion, and renaming events.
+ * Only the most recently selected tabs keep a live editor ("hydrated"); the others release it and
+ * keep just their caret and scroll position, and get a new editor when they are selected again.
+ * The number of hydrated tabs is capped by a per-machine preference. The open tabs are remembered
+ * in the AppState and restored on the next start without creating their editors.
  */
 public class EditorContainer extends BorderPane implements NoteSelectionListener {
 
+    // Typing pause after which an edited note is reindexed.
+    private static final Duration REINDEX_DELAY = Duration.millis(300);
+    // Default number of tabs that keep a live editor.
+    private static final int DEFAULT_MAX_HYDRATED_TABS = 8;
+    // System property overriding the saved cap, e.g. -Deureka.maxHydratedTabs=4
+    private static final String MAX_HYDRATED_TABS_PROPERTY = "eureka.maxHydratedTabs";
+    // Preferences key under which the cap is saved.
+    private static final String MAX_HYDRATED_TABS_KEY = "maxHydratedTabs";
+
+    /**
+     * State of an open tab that outlives its editor.
+     */
+    private static final class TabSession {
+        // The note shown in the tab.
+        final Note note;
+        // Pending reindex of the note, restarted by every edit.
+        final PauseTransition reindexTimer;
+        // The live editor, or null while the tab is dehydrated.
+        NoteEditor editor;
+        // Caret offset saved when the editor was released.
+        int caretPosition;
+        // Scroll offset saved when the editor was released.
+        double scrollY;
+
+        TabSession(Note note) {
+            this.note = note;
+            this.reindexTimer = new PauseTransition(REINDEX_DELAY);
+            reindexTimer.setOnFinished(e -> EurekaApp.getSearchService().addOrUpdateNote(note));
+        }
+    }
+
     private final TabPane tabPane;
     private final Map<String, Tab> openTabsMap;
+    // Session of each open tab, by note ID.
+    private final Map<String, TabSession> sessions = new HashMap<>();
+    // IDs of the notes whose tabs hold a live editor, least recently selected first.
+    private final LinkedHashSet<String> hydratedOrder = new LinkedHashSet<>();
+    private final RelatedNotesPanel relatedNotesPanel;
     private Sidebar sidebar;
+    // Maximum number of tabs holding a live editor at the same time.
+    private int maxHydratedTabs = loadMaxHydratedTabs();
+    // Set while the previous session's tabs are restored, so they are not hydrated on the way.
+    private boolean restoringTabs = false;
 
     /**
      * Constructs the EditorContainer.
      * Initializes the TabPane and the map for tracking open tabs.
      * Sets up listeners to manage the openTabsMap when tabs are closed
-     * and to update sidebar highlighting when the selected tab changes.
+     * and to update sidebar highlighting and related notes when the selected tab changes.
      */
     public EditorContainer() {
         this.openTabsMap = new HashMap<>();
         this.tabPane = new TabPane();
+        this.relatedNotesPanel = new RelatedNotesPanel(this);
         this.setCenter(tabPane);
+        this.setRight(relatedNotesPanel);
 
         tabPane.getTabs().addListener((ListChangeListener<Tab>) c -> {
             while (c.next()) {
                 if (c.wasRemoved()) {
-                    c.getRemoved().forEach(tab -> openTabsMap.remove(tab.getId()));
+                    c.getRemoved().forEach(tab -> {
+                        openTabsMap.remove(tab.getId());
+                        closeSession(tab.getId());
+                    });
                 }
             }
+            rememberOpenTabs();
             updateSidebarHighlighting();
         });
 
         tabPane.getSelectionModel().selectedItemProperty().addListener((obs, oldTab, newTab) -> {
+            if (newTab != null && !restoringTabs) {
+                hydrate(newTab);
+            }
+            rememberOpenTabs();
             updateSidebarHighlighting();
+            refreshRelatedNotes();
         });
     }
 
+    /**
+     * Reopens the tabs of the previous session, skipping notes deleted since.
+     * Only the selected tab gets an editor; the others are hydrated when first selected.
+     */
+    public void restoreOpenTabs() {
+        AppState appState = AppState.getInstance();
+        List<String> noteIds = List.copyOf(appState.getOpenNoteIds());
+        String selectedNoteId = appState.getSelectedNoteId();
+
+        restoringTabs = true;
+        try {
+            for (String noteId : noteIds) {
+                appState.getNoteById(noteId).ifPresent(note -> {
+                    if (!openTabsMap.containsKey(noteId)) {
+                        createNewTab(note);
+                    }
+                });
+            }
+            Tab selectedTab = selectedNoteId != null ? openTabsMap.get(selectedNoteId) : null;
+            if (selectedTab != null) {
+                tabPane.getSelectionModel().select(selectedTab);
+            }
+        } finally {
+            restoringTabs = false;
+        }
+        Tab selectedTab = tabPane.getSelectionModel().getSelectedItem();
+        if (selectedTab != null) {
+            hydrate(selectedTab);
+        }
+    }
+
+    /**
+     * Gets the maximum number of tabs holding a live editor.
+     * @return The cap, at least 1.
+     */
+    public int getMaxHydratedTabs() {
+        return maxHydratedTabs;
+    }
+
+    /**
+     * Changes the maximum number of tabs holding a live editor, saves it as the preference for this
+     * machine, and releases the editors of the least recently selected tabs beyond the new cap.
+     * Called from the Settings menu.
+     * @param maxHydratedTabs The new cap; values below 1 are raised to 1.
+     */
+    public void setMaxHydratedTabs(int maxHydratedTabs) {
+        this.maxHydratedTabs = Math.max(1, maxHydratedTabs);
+        Preferences prefs = Preferences.userNodeForPackage(EditorContainer.class);
+        prefs.putInt(MAX_HYDRATED_TABS_KEY, this.maxHydratedTabs);
+        evictExcessEditors();
+    }
+
+    /**
+     * Loads the configured cap. The system property takes precedence over the saved preference.
+     * @return The configured cap, or the default if nothing valid is configured.
+     */
+    private static int loadMaxHydratedTabs() {
+        String configured = System.getProperty(MAX_HYDRATED_TABS_PROPERTY);
+        if (configured != null) {
+            try {
+                return Math.max(1, Integer.parseInt(configured.trim()));
+            } catch (NumberFormatException e) {
+                System.err.println("Warning: Invalid " + MAX_HYDRATED_TABS_PROPERTY + " '" + configured + "', ignoring it");
+            }
+        }
+        Preferences prefs = Preferences.userNodeForPackage(EditorContainer.class);
+        return Math.max(1, prefs.getInt(MAX_HYDRATED_TABS_KEY, DEFAULT_MAX_HYDRATED_TABS));
+    }
+
+    /**
+     * Shows the related notes and backlinks of the note in the selected tab.
+     */
+    private void refreshRelatedNotes() {
+        Tab selectedTab = tabPane.getSelectionModel().getSelectedItem();
+        relatedNotesPanel.showRelatedTo(selectedTab != null
+                ? AppState.getInstance().getNoteById(selectedTab.getId()).orElse(null)
+                : null);
+    }
+
     /**
      * Sets the reference to the Sidebar.
      * This is needed to communicate back to the sidebar (e.g., for highlighting).
@@ -77,7 +217,7 @@ public class EditorContainer extends BorderPane implements NoteSelectionListener
         if (openTabsMap.containsKey(note.getId())) {
             tabPane.getSelectionModel().select(openTabsMap.get(note.getId()));
         } else {
-            createNewTab(note);
+            tabPane.getSelectionModel().select(createNewTab(note));
         }
     }
 
@@ -86,50 +226,122 @@ public class EditorContainer extends BorderPane implements NoteSelectionListener
      * Opens or selects the note's tab and then attempts to highlight
      * the searched text within the editor area.
      * @param note     The Note selected from search results.
-     * @param position The starting character index of the search query in the note's content.
-     * @param wordIndex (Currently unused in this implementation, but part of the interface).
-     * @param query    The search query string that was found.
+     * @param position The starting character index of the match in the note's content, or -1 for none.
+     * @param length   The length of the match in characters.
      */
     @Override
-    public void onNoteSelectedFromSearch(Note note, int position, int wordIndex, String query) {
+    public void onNoteSelectedFromSearch(Note note, int position, int length) {
         onNoteSelected(note);
         tabPane.requestFocus();
+        if (position < 0) {
+            return;
+        }
 
         Platform.runLater(() -> {
             Tab selectedTab = tabPane.getSelectionModel().getSelectedItem();
-            if (selectedTab != null && selectedTab.getContent() instanceof TextArea editorArea) {
-                editorArea.requestFocus();
-                editorArea.selectRange(position, position + query.length());
+            if (selectedTab != null && selectedTab.getContent() instanceof NoteEditor editor) {
+                editor.requestFocus();
+                editor.selectRange(position, position + length);
             }
         });
     }
 
     /**
-     * Creates a new Tab for the given Note, adds a TextArea for editing,
-     * and sets up a listener to save changes automatically.
-     * Adds the new tab to the TabPane and selects it.
+     * Creates a new, dehydrated Tab for the given Note and adds it to the TabPane.
+     * The editor is created when the tab is selected, see {@link #hydrate(Tab)}.
      * @param note The Note for which to create a new tab.
+     * @return The new tab.
      */
-    private void createNewTab(Note note) {
+    private Tab createNewTab(Note note) {
         Tab tab = new Tab(note.getTitle());
         tab.setId(note.getId());
+        sessions.put(note.getId(), new TabSession(note));
 
-        TextArea editorArea = new TextArea(note.getContent());
-        editorArea.setWrapText(true);
+        openTabsMap.put(note.getId(), tab);
+        tabPane.getTabs().add(tab);
+        return tab;
+    }
+
+    /**
+     * Gives a tab a live NoteEditor if it has none, restoring the caret and scroll position it had,
+     * and marks it as the most recently selected. Each edit is applied to the note as it happens;
+     * the search index is updated once the user pauses typing, not on every keystroke.
+     * Then releases the editors of the least recently selected tabs beyond the cap.
+     * @param tab The tab to hydrate.
+     */
+    private void hydrate(Tab tab) {
+        TabSession session = sessions.get(tab.getId());
+        if (session == null) {
+            return;
+        }
+        hydratedOrder.remove(tab.getId());
+        hydratedOrder.add(tab.getId());
 
-        editorArea.textProperty().addListener((obs, oldText, newText) -> {
-            if (!Objects.equals(note.getContent(), newText)) {
-                note.setContent(newText);
+        if (session.editor == null) {
+            Note note = session.note;
+            NoteEditor editor = new NoteEditor(note.getContent(), (offset, removedLength, inserted) -> {
+                note.applyEdit(offset, removedLength, inserted);
                 note.setUpdatedAt(System.currentTimeMillis());
-                EurekaApp.getSearchService().addOrUpdateNote(note);
+                session.reindexTimer.playFromStart();
+            });
+            session.editor = editor;
+            tab.setContent(editor);
+            int caretPosition = session.caretPosition;
+            double scrollY = session.scrollY;
+            // Scrolling needs a laid out editor, so wait for the next pulse.
+            Platform.runLater(() -> editor.restoreView(caretPosition, scrollY));
+        }
+        evictExcessEditors();
+    }
+
+    /**
+     * Releases the editors of the least recently selected tabs until at most the cap remain,
+     * never the selected tab's.
+     */
+    private void evictExcessEditors() {
+        Tab selectedTab = tabPane.getSelectionModel().getSelectedItem();
+        String selectedId = selectedTab != null ? selectedTab.getId() : null;
+        Iterator<String> iterator = hydratedOrder.iterator();
+        while (hydratedOrder.size() > maxHydratedTabs && iterator.hasNext()) {
+            String noteId = iterator.next();
+            if (!noteId.equals(selectedId)) {
+                iterator.remove();
+                dehydrate(noteId);
             }
-        });
+        }
+    }
 
-        tab.setContent(editorArea);
+    /**
+     * Saves the caret and scroll position of a tab's editor and removes the editor from the tab,
+     * so its nodes and text model can be collected. The note already holds every edit; its edit
+     * buffer is released as well.
+     * @param noteId The ID of the note whose tab to dehydrate.
+     */
+    private void dehydrate(String noteId) {
+        TabSession session = sessions.get(noteId);
+        Tab tab = openTabsMap.get(noteId);
+        if (session == null || session.editor == null) {
+            return;
+        }
+        session.caretPosition = session.editor.getCaretPosition();
+        session.scrollY = session.editor.getScrollY();
+        session.editor = null;
+        if (tab != null) {
+            tab.setContent(null);
+        }
+        AppState.getInstance().getNoteById(noteId).ifPresent(Note::releaseEditBuffer);
+    }
 
-        openTabsMap.put(note.getId(), tab);
-        tabPane.getTabs().add(tab);
-        tabPane.getSelectionModel().select(tab);
+    /**
+     * Remembers the open tabs and the selected one in the AppState, so they are restored next time.
+     */
+    private void rememberOpenTabs() {
+        List<String> noteIds = new ArrayList<>(tabPane.getTabs().size());
+        for (Tab tab : tabPane.getTabs()) {
+            noteIds.add(tab.getId());
+        }
+        Tab selectedTab = tabPane.getSelectionModel().getSelectedItem();
+        AppState.getInstance().setOpenTabs(noteIds, selectedTab != null ? selectedTab.getId() : null);
     }
 
     /**
@@ -172,6 +384,42 @@ public class EditorContainer extends BorderPane implements NoteSelectionListener
             tabToUpdate.setText(renamedNote.getTitle());
         }
         EurekaApp.getSearchService().addOrUpdateNote(renamedNote);
+        refreshRelatedNotes();
+    }
+
+    /**
+     * Handles a content change made outside the editor, e.g. rewritten links after a rename.
+     * Reloads the text of the note's tab if it is open, keeping the caret where it was,
+     * and refreshes the side panel since backlinks may have changed.
+     * @param changedNote The Note whose content changed. Can be null.
+     */
+    @Override
+    public void onNoteContentChanged(Note changedNote) {
+        if (changedNote == null) return;
+
+        TabSession session = sessions.get(changedNote.getId());
+        NoteEditor editor = session != null ? session.editor : null;
+        if (editor != null && !Objects.equals(editor.getText(), changedNote.getContent())) {
+            editor.setText(changedNote.getContent());
+        }
+        refreshRelatedNotes();
+    }
+
+    /**
+     * Drops the session of a closed tab and releases the edit buffer of its note. Stops the pending
+     * reindex of the note and runs it right away if the note still exists, so its last edits are not
+     * left out of the index.
+     * @param noteId The ID of the note whose tab was closed.
+     */
+    private void closeSession(String noteId) {
+        hydratedOrder.remove(noteId);
+        TabSession session = sessions.remove(noteId);
+        if (session != null && session.reindexTimer.getStatus() == Animation.Status.RUNNING) {
+            session.reindexTimer.stop();
+            AppState.getInstance().getNoteById(noteId)
+                    .ifPresent(note -> EurekaApp.getSearchService().addOrUpdateNote(note));
+        }
+        AppState.getInstance().getNoteById(noteId).ifPresent(Note::releaseEditBuffer);
     }
 
     /**
@@ -190,4 +438,4 @@ public class EditorContainer extends BorderPane implements NoteSelectionListener
             }
         }
     }
-}}
\ No newline at end of file
+}
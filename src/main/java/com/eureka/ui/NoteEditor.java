@@ -0,0 +1,121 @@
+package com.eureka.ui;
+
+import org.fxmisc.flowless.VirtualizedScrollPane;
+import org.fxmisc.richtext.StyleClassedTextArea;
+
+/**
+ * Text editor for the content of one note.
+ * Built on RichTextFX's text area, which lays out only the visible paragraphs and keeps the text in
+ * a paragraph model instead of one large string, so it stays responsive on multi-megabyte notes.
+ * Every user edit is reported as an incremental {@link EditListener#onEdit(int, int, String)} event
+ * instead of a snapshot of the whole text.
+ */
+public class NoteEditor extends VirtualizedScrollPane<StyleClassedTextArea> {
+
+    /**
+     * Listener notified about each edit made in the editor.
+     */
+    public interface EditListener {
+        /**
+         * @param offset        The character offset where the edit starts.
+         * @param removedLength The number of characters removed at the offset.
+         * @param inserted      The text inserted at the offset; may be empty.
+         */
+        void onEdit(int offset, int removedLength, String inserted);
+    }
+
+    // The virtualized text area wrapped by this scroll pane.
+    private final StyleClassedTextArea area;
+    // Set while text is replaced programmatically, so the replacement is not reported as an edit.
+    private boolean replacingText = false;
+
+    /**
+     * Constructs an editor showing the given text.
+     * @param text     The initial text. Can be null for an empty editor.
+     * @param listener The listener to notify about edits made by the user.
+     */
+    public NoteEditor(String text, EditListener listener) {
+        super(new StyleClassedTextArea());
+        this.area = getContent();
+        area.getStyleClass().add("note-editor");
+        area.setWrapText(true);
+        setText(text);
+        area.getUndoManager().forgetHistory();
+
+        area.plainTextChanges()
+                .filter(change -> !replacingText)
+                .subscribe(change -> listener.onEdit(change.getPosition(), change.getRemoved().length(), change.getInserted()));
+    }
+
+    /**
+     * Replaces the whole text without reporting it as an edit, e.g. when the note was changed elsewhere.
+     * The caret stays at its offset, or moves to the end if the new text is shorter.
+     * @param text The new text. Can be null for an empty editor.
+     */
+    public void setText(String text) {
+        String newText = text == null ? "" : text;
+        int caret = Math.min(area.getCaretPosition(), newText.length());
+        replacingText = true;
+        try {
+            area.replaceText(newText);
+        } finally {
+            replacingText = false;
+        }
+        area.moveTo(caret);
+    }
+
+    /**
+     * Gets the current text. Builds a new string, so avoid calling it per keystroke.
+     * @return The text of the editor.
+     */
+    public String getText() {
+        return area.getText();
+    }
+
+    /**
+     * Selects a range of text and scrolls it into view.
+     * @param start The start offset, inclusive.
+     * @param end   The end offset, exclusive.
+     */
+    public void selectRange(int start, int end) {
+        int length = area.getLength();
+        area.selectRange(Math.min(start, length), Math.min(end, length));
+        area.requestFollowCaret();
+    }
+
+    /**
+     * Gets the caret offset, e.g. to restore it when the editor is recreated.
+     * @return The caret offset.
+     */
+    public int getCaretPosition() {
+        return area.getCaretPosition();
+    }
+
+    /**
+     * Gets the vertical scroll offset, e.g. to restore it when the editor is recreated.
+     * The value is an estimate, since paragraphs outside the viewport are not laid out.
+     * @return The estimated scroll offset in pixels.
+     */
+    public double getScrollY() {
+        return area.estimatedScrollYProperty().getValue();
+    }
+
+    /**
+     * Restores a caret and scroll position saved from an earlier editor of the same note.
+     * The caret is clamped to the current text, which may have changed meanwhile.
+     * @param caretPosition The caret offset.
+     * @param scrollY       The vertical scroll offset in pixels.
+     */
+    public void restoreView(int caretPosition, double scrollY) {
+        area.moveTo(Math.min(caretPosition, area.getLength()));
+        area.scrollYToPixel(scrollY);
+    }
+
+    /**
+     * Moves the keyboard focus into the text area.
+     */
+    @Override
+    public void requestFocus() {
+        area.requestFocus();
+    }
+}
@@ -2,50 +2,53 @@ package com.eureka.ui;
 
 import com.eureka.EurekaApp;
 import com.eureka.NoteSelectionListener;
+import com.eureka.SearchService;
 import com.eureka.model.AppState;
 import com.eureka.model.Note;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
-import javafx.geometry.Side;
 import javafx.scene.control.*;
-import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
 import javafx.scene.layout.Region;
-import javafx.scene.shape.SVGPath;
 
 import java.util.Optional;
 
 /**
- * Represents a single row displaying a note within the sidebar's SetRow.
+ * Graphic of a sidebar tree cell displaying a note.
  * Shows the note's title, an icon, and action buttons (e.g., for a context menu).
  * Handles click events for note selection and context menu actions like rename and delete.
+ * Icons and the context menu are shared with all other rows, see {@link RowGraphics}.
+ * A row is created once per cell and reused for whichever note the cell currently shows,
+ * see {@link #setNote(Note, ObservableValue, ObservableValue)}.
+ * Changes are made through {@link AppState}, whose change events update the tree.
  */
 public class NoteRow extends BorderPane {
 
-    // The Note data object this row represents.
-    private final Note note;
+    // The Note data object this row currently represents.
+    private Note note;
+    // Label displaying the title of the note.
+    private final Label titleLabel;
+    // Active state of the current note, observed to toggle the highlight.
+    private ObservableValue<Boolean> active;
+    // Applies changes of the active state; a single instance, moved between notes on rebind.
+    private final ChangeListener<Boolean> activeListener = (obs, wasActive, isActive) -> setActive(isActive);
     // Listener to notify when a note is selected, renamed, or deleted.
     private final NoteSelectionListener noteSelectionListener;
     // Reference to the application's global state.
     private final AppState appState;
-    // Callback function to run when changes occur (e.g., rename, delete)
-    // that require the parent (SetRow) to refresh its list.
-    private final Runnable onNoteChangedCallback;
 
     /**
      * Constructs a NoteRow UI component.
-     * @param note                  The Note object to display.
-     * @param listener              The listener to notify about note interactions.
-     * @param onNoteChangedCallback A callback function to execute when the note list needs refreshing
-     * (e.g., after deleting or renaming this note).
+     * Call {@link #setNote(Note, ObservableValue, ObservableValue)} before showing it.
+     * @param listener The listener to notify about note interactions.
      */
-    public NoteRow(Note note, NoteSelectionListener listener, Runnable onNoteChangedCallback) {
-        this.note = note;
+    public NoteRow(NoteSelectionListener listener) {
         this.noteSelectionListener = listener;
         this.appState = AppState.getInstance();
-        this.onNoteChangedCallback = onNoteChangedCallback;
 
         getStyleClass().add("note-row");
         this.setPadding(new Insets(6, 8, 6, 12));
@@ -54,23 +57,12 @@ public class NoteRow extends BorderPane {
         HBox leftContent = new HBox(8);
         leftContent.setAlignment(Pos.CENTER_LEFT);
 
-        // Note icon (using SVGPath)
-        SVGPath noteIcon = new SVGPath();
-        noteIcon.setContent("M9 12H7v2h2v-2zm0-4H7v2h2V8zm4 0h-2v2h2V8zm0 4h-2v2h2v-2zm0-8H3c-1.1 0-2 .9-2 2v14c0 1.1.9 2 2 2h14c1.1 0 2-.9 2-2V4c0-1.1-.9-2-2-2z"); // SVG path data for a note icon
-        noteIcon.getStyleClass().add("svg-path");
-        noteIcon.setStyle("-fx-stroke-width: 1.2; -fx-scale-x: 0.75; -fx-scale-y: 0.75;");
-
-        // Container for the icon to manage size and background
-        Region iconContainer = new Region();
-        iconContainer.setShape(noteIcon);
-        iconContainer.getStyleClass().add("note-icon-container");
-        iconContainer.setMinWidth(16);
-        iconContainer.setMinHeight(16);
-        iconContainer.setStyle("-fx-background-color: rgba(88, 101, 242, 0.3); -fx-background-radius: 4;");
-
-        Label titleLabel = new Label(note.getTitle());
+        // Note icon, with a background that marks it as a note
+        Region iconContainer = RowGraphics.createIcon(RowGraphics.Icon.NOTE, "note-icon-container", 16);
+
+        titleLabel = new Label();
         titleLabel.setWrapText(false);
-        titleLabel.setStyle("-fx-font-size: 13;");
+        titleLabel.getStyleClass().add("note-row-title");
 
         leftContent.getChildren().addAll(iconContainer, titleLabel);
         this.setLeft(leftContent);
@@ -78,98 +70,72 @@ public class NoteRow extends BorderPane {
         // === Right Side: Action Buttons ===
         HBox rightContent = new HBox(4);
         rightContent.setAlignment(Pos.CENTER_RIGHT);
-        rightContent.setStyle("-fx-padding: 0;");
+        rightContent.getStyleClass().add("note-row-actions");
 
-        // Menu button (three dots)
-        Button menuButton = createIconButton(
-                "M6 10a2 2 0 11-4 0 2 2 0 014 0zm6 0a2 2 0 11-4 0 2 2 0 014 0zm6 0a2 2 0 11-4 0 2 2 0 014 0z"
-        );
+        // Menu button (three dots), showing the context menu shared by all note rows
+        Button menuButton = RowGraphics.createIconButton(RowGraphics.Icon.DOTS_HORIZONTAL, null);
+        menuButton.setOnAction(e -> RowGraphics.showNoteMenu(menuButton, this::renameNote, this::deleteNote));
 
         // Add the menu button to the right HBox
         rightContent.getChildren().add(menuButton);
         this.setRight(rightContent);
 
-        // === Context Menu ===
-        ContextMenu contextMenu = new ContextMenu();
-
-        // Menu item for renaming the note
-        MenuItem renameItem = new MenuItem("Rename");
-        renameItem.setOnAction(e -> renameNote());
-
-        // Menu item for deleting the note
-        MenuItem deleteItem = new MenuItem("Delete");
-        deleteItem.getStyleClass().add("destructive-menu-item");
-        deleteItem.setOnAction(e -> deleteNote());
-
-        contextMenu.getItems().addAll(renameItem, new SeparatorMenuItem(), deleteItem);
-        menuButton.setOnAction(e -> contextMenu.show(menuButton, Side.BOTTOM, 0, 5));
-
         // === Click Handler ===
         this.setOnMouseClicked(event -> {
-            if (!(event.getTarget() instanceof Button || event.getTarget() instanceof SVGPath)) {
+            if (note != null && !(event.getTarget() instanceof Button)) {
                 noteSelectionListener.onNoteSelected(note);
             }
         });
     }
 
-    /**
-     * Creates an icon button using an SVG path for the graphic.
-     * @param svgContent The string containing the SVG path data.
-     * @return A configured Button with the SVG icon.
-     */
-    private Button createIconButton(String svgContent) {
-        SVGPath path = new SVGPath();
-        path.setContent(svgContent);
-        path.getStyleClass().add("svg-path");
-
-        Button button = new Button();
-        button.setGraphic(path);
-        button.getStyleClass().add("icon-button");
-        button.setStyle("-fx-padding: 4; -fx-min-width: 28; -fx-min-height: 28;");
-        return button;
-    }
-
     /**
      * Opens a dialog to rename the current note.
-     * If a new valid name is entered, it updates the Note object,
-     * triggers the callback to refresh the parent list, and notifies the listener.
+     * If a new valid name is entered, it renames the note through AppState (whose change event
+     * updates the note's row), rewrites the [[links]] of the notes referring to it (found through
+     * the link index) unless another note keeps the old title, and notifies the listener.
      */
     private void renameNote() {
-        TextInputDialog dialog = new TextInputDialog(note.getTitle());
+        Note targetNote = note;
+        TextInputDialog dialog = new TextInputDialog(targetNote.getTitle());
         dialog.setTitle("Rename Note");
-        dialog.setHeaderText("Enter new name for the note \"" + note.getTitle() + "\":");
+        dialog.setHeaderText("Enter new name for the note \"" + targetNote.getTitle() + "\":");
         dialog.setContentText("Name:");
 
         Optional<String> result = dialog.showAndWait();
         result.ifPresent(newName -> {
             String trimmedName = newName.trim();
-            if (!trimmedName.isEmpty() && !trimmedName.equals(note.getTitle())) {
-                note.setTitle(trimmedName);
-                onNoteChangedCallback.run();
-                noteSelectionListener.onNoteRenamed(note);
+            if (!trimmedName.isEmpty() && !trimmedName.equals(targetNote.getTitle())) {
+                String oldTitle = targetNote.getTitle();
+                appState.renameNote(targetNote.getId(), trimmedName);
+                SearchService searchService = EurekaApp.getSearchService();
+                for (Note referrer : searchService.getLinkIndex().retargetLinks(targetNote, oldTitle)) {
+                    searchService.addOrUpdateNote(referrer);
+                    noteSelectionListener.onNoteContentChanged(referrer);
+                }
+                noteSelectionListener.onNoteRenamed(targetNote);
             }
         });
     }
 
     /**
      * Shows a confirmation dialog and deletes the note if confirmed.
-     * Updates the application state, search service, notifies the listener,
-     * and triggers the callback to refresh the parent list.
+     * Updates the application state (which removes the note's row) and the search service,
+     * and notifies the listener.
      */
     private void deleteNote() {
+        Note targetNote = note;
         Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
         alert.setTitle("Delete Note");
-        alert.setHeaderText("Delete the note \"" + note.getTitle() + "\"?");
+        alert.setHeaderText("Delete the note \"" + targetNote.getTitle() + "\"?");
         alert.setContentText("This action cannot be undone.");
 
         alert.getButtonTypes().setAll(ButtonType.OK, ButtonType.CANCEL);
 
         Optional<ButtonType> result = alert.showAndWait();
         if (result.isPresent() && result.get() == ButtonType.OK) {
-            appState.deleteNote(note.getId());
-            EurekaApp.getSearchService().deleteNote(note);
-            noteSelectionListener.onNoteDeleted(note);
-            onNoteChangedCallback.run();
+            appState.deleteNote(targetNote.getId());
+            EurekaApp.getSearchService().deleteNote(targetNote);
+            noteSelectionListener.onNoteDeleted(targetNote);
         }
     }
 
@@ -188,6 +154,26 @@ public class NoteRow extends BorderPane {
         }
     }
 
+    /**
+     * Shows another note in this row, e.g. when the cell holding the row is reused while scrolling.
+     * @param note  The Note object to display.
+     * @param title  The displayed title of the note, updated when the note is renamed.
+     * @param active Whether the note is open in the selected editor tab; the row highlights itself
+     *               when it changes.
+     */
+    public void setNote(Note note, ObservableValue<String> title, ObservableValue<Boolean> active) {
+        this.note = note;
+        titleLabel.textProperty().bind(title);
+        if (this.active != active) {
+            if (this.active != null) {
+                this.active.removeListener(activeListener);
+            }
+            this.active = active;
+            active.addListener(activeListener);
+        }
+        setActive(active.getValue());
+    }
+
     /**
      * Gets the Note object associated with this row.
      * @return The Note object.
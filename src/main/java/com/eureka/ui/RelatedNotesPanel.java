@@ -0,0 +1,131 @@
+package com.eureka.ui;
+
+import com.eureka.EurekaApp;
+import com.eureka.I18n;
+import com.eureka.NoteSelectionListener;
+import com.eureka.SearchService;
+import com.eureka.model.AppState;
+import com.eureka.model.Note;
+import javafx.application.Platform;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Side panel listing the notes that link to the note open in the active tab, and the notes most similar to it.
+ * Backlinks come from the {@link com.eureka.LinkIndex}; similarity comes from the embedding vectors
+ * in the search index, see {@link SearchService#relatedNotes}.
+ */
+public class RelatedNotesPanel extends VBox {
+
+    // Maximum number of related notes to show.
+    private static final int MAX_RELATED = 8;
+
+    // Height of one row in the backlinks list.
+    private static final double BACKLINK_ROW_HEIGHT = 24;
+    // Maximum number of backlink rows shown before the list scrolls.
+    private static final int MAX_VISIBLE_BACKLINKS = 6;
+
+    // List displaying the notes that link to the current note.
+    private final ListView<Note> backlinksList;
+    // List displaying the related notes of the current note.
+    private final ListView<SearchService.RelatedNote> relatedList;
+    // Listener to notify when a related note is clicked.
+    private final NoteSelectionListener noteSelectionListener;
+    // Incremented on every request, so results of outdated lookups are dropped.
+    private long requestGeneration = 0;
+
+    /**
+     * Constructs the RelatedNotesPanel.
+     * @param listener The listener to notify when a related note is selected.
+     */
+    public RelatedNotesPanel(NoteSelectionListener listener) {
+        super(6);
+        this.noteSelectionListener = listener;
+        getStyleClass().add("related-notes-panel");
+        setPrefWidth(220);
+
+        Label backlinksHeader = new Label();
+        backlinksHeader.textProperty().bind(I18n.bind("related.backlinks"));
+        backlinksHeader.getStyleClass().add("related-notes-header");
+
+        backlinksList = new ListView<>();
+        backlinksList.getStyleClass().add("related-notes-list");
+        backlinksList.setFixedCellSize(BACKLINK_ROW_HEIGHT);
+        backlinksList.setPrefHeight(BACKLINK_ROW_HEIGHT + 2);
+        backlinksList.setCellFactory(lv -> new ListCell<>() {
+            @Override
+            protected void updateItem(Note item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty || item == null ? null : item.getTitle());
+            }
+        });
+        backlinksList.setOnMouseClicked(event -> {
+            Note selected = backlinksList.getSelectionModel().getSelectedItem();
+            if (selected != null) {
+                noteSelectionListener.onNoteSelected(selected);
+            }
+        });
+
+        Label header = new Label();
+        header.textProperty().bind(I18n.bind("related.title"));
+        header.getStyleClass().add("related-notes-header");
+
+        relatedList = new ListView<>();
+        relatedList.getStyleClass().add("related-notes-list");
+        VBox.setVgrow(relatedList, Priority.ALWAYS);
+        relatedList.setCellFactory(lv -> new ListCell<>() {
+            @Override
+            protected void updateItem(SearchService.RelatedNote item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty || item == null ? null : item.title());
+            }
+        });
+        relatedList.setOnMouseClicked(event -> {
+            SearchService.RelatedNote selected = relatedList.getSelectionModel().getSelectedItem();
+            if (selected != null) {
+                AppState.getInstance().getNoteById(selected.noteId()).ifPresent(noteSelectionListener::onNoteSelected);
+            }
+        });
+
+        getChildren().addAll(backlinksHeader, backlinksList, header, relatedList);
+    }
+
+    /**
+     * Shows the backlinks of the given note, and looks up its related notes in the background.
+     * Backlinks are read directly from the link index, in time proportional to their number.
+     * @param note The note open in the active tab, or null to clear the panel.
+     */
+    public void showRelatedTo(Note note) {
+        long generation = ++requestGeneration;
+        if (note == null) {
+            backlinksList.getItems().clear();
+            relatedList.getItems().clear();
+            return;
+        }
+
+        List<Note> backlinks = EurekaApp.getSearchService().getLinkIndex().getBacklinks(note);
+        backlinks.sort(Comparator.comparing(Note::getTitle, String.CASE_INSENSITIVE_ORDER));
+        backlinksList.getItems().setAll(backlinks);
+        backlinksList.setPrefHeight(Math.max(1, Math.min(backlinks.size(), MAX_VISIBLE_BACKLINKS)) * BACKLINK_ROW_HEIGHT + 2);
+
+        new Thread(() -> {
+            try {
+                List<SearchService.RelatedNote> related = EurekaApp.getSearchService().relatedNotes(note, MAX_RELATED);
+                Platform.runLater(() -> {
+                    if (generation == requestGeneration) {
+                        relatedList.getItems().setAll(related);
+                    }
+                });
+            } catch (Exception e) {
+                System.err.println("Error finding notes related to note ID: " + note.getId());
+                e.printStackTrace();
+            }
+        }, "related-notes").start();
+    }
+}
@@ -0,0 +1,156 @@
+package com.eureka.ui;
+
+import javafx.geometry.Side;
+import javafx.scene.Node;
+import javafx.scene.control.Button;
+import javafx.scene.control.ContextMenu;
+import javafx.scene.control.MenuItem;
+import javafx.scene.control.SeparatorMenuItem;
+import javafx.scene.control.Tooltip;
+import javafx.scene.layout.Region;
+import javafx.scene.shape.SVGPath;
+import javafx.scene.shape.Shape;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Shared graphics of the sidebar rows: icon shapes, tooltips and the row context menus.
+ * Each is created lazily on first use and then shared by all rows, instead of every
+ * {@link NoteRow} and {@link SetRow} parsing its own SVG paths and building its own menu.
+ * Icons are regions shaped by a shared {@link SVGPath}; the shape is not part of the scene graph,
+ * so one instance can back any number of regions, and the color comes from the stylesheet of the
+ * current theme. Must only be used on the JavaFX Application Thread.
+ */
+final class RowGraphics {
+
+    /**
+     * An icon used by the sidebar rows.
+     */
+    enum Icon {
+        ARROW("M8 5l6 6-6 6z"),
+        SET("M3 7a2 2 0 012-2h4l2 2h4a2 2 0 012 2v8a2 2 0 01-2 2H5a2 2 0 01-2-2V7z"),
+        NOTE("M9 12H7v2h2v-2zm0-4H7v2h2V8zm4 0h-2v2h2V8zm0 4h-2v2h2v-2zm0-8H3c-1.1 0-2 .9-2 2v14c0 1.1.9 2 2 2h14c1.1 0 2-.9 2-2V4c0-1.1-.9-2-2-2z"),
+        PLUS("M12 5v14m-7-7h14"),
+        DOTS_VERTICAL("M12 8a2 2 0 110-4 2 2 0 010 4zm0 6a2 2 0 110-4 2 2 0 010 4zm0 6a2 2 0 110-4 2 2 0 010 4z"),
+        DOTS_HORIZONTAL("M6 10a2 2 0 11-4 0 2 2 0 014 0zm6 0a2 2 0 11-4 0 2 2 0 014 0zm6 0a2 2 0 11-4 0 2 2 0 014 0z");
+
+        private final String svgContent;
+        // The parsed shape, created on first use and shared by all icons of this kind.
+        private Shape shape;
+
+        Icon(String svgContent) {
+            this.svgContent = svgContent;
+        }
+
+        /**
+         * Gets the shared shape of this icon.
+         * @return The shape, parsed on the first call.
+         */
+        Shape shape() {
+            if (shape == null) {
+                SVGPath path = new SVGPath();
+                path.setContent(svgContent);
+                shape = path;
+            }
+            return shape;
+        }
+    }
+
+    // Shared tooltips by text.
+    private static final Map<String, Tooltip> tooltips = new HashMap<>();
+    // The menus shown by the action buttons of note and set rows; created on first use.
+    private static RowMenu noteMenu;
+    private static RowMenu setMenu;
+
+    /**
+     * Creates a region drawing the given icon, sized by the caller and colored by the stylesheet.
+     * @param icon       The icon.
+     * @param styleClass The style class of the region.
+     * @param size       The minimum width and height of the region.
+     * @return The icon region.
+     */
+    static Region createIcon(Icon icon, String styleClass, double size) {
+        Region region = new Region();
+        region.setShape(icon.shape());
+        region.getStyleClass().add(styleClass);
+        region.setMinSize(size, size);
+        return region;
+    }
+
+    /**
+     * Creates an icon button. The icon does not receive mouse events, so clicks target the button.
+     * @param icon    The icon.
+     * @param tooltip The tooltip text, shared with other buttons of the same text; can be null.
+     * @return The button.
+     */
+    static Button createIconButton(Icon icon, String tooltip) {
+        Region glyph = createIcon(icon, "icon-glyph", 12);
+        glyph.setMouseTransparent(true);
+
+        Button button = new Button();
+        button.setGraphic(glyph);
+        button.getStyleClass().add("icon-button");
+        if (tooltip != null) {
+            button.setTooltip(tooltips.computeIfAbsent(tooltip, Tooltip::new));
+        }
+        return button;
+    }
+
+    /**
+     * Shows the shared note context menu below the given button.
+     * @param anchor   The node to show the menu at.
+     * @param onRename Called if "Rename" is chosen.
+     * @param onDelete Called if "Delete" is chosen.
+     */
+    static void showNoteMenu(Node anchor, Runnable onRename, Runnable onDelete) {
+        if (noteMenu == null) {
+            noteMenu = new RowMenu("Rename", "Delete");
+        }
+        noteMenu.show(anchor, onRename, onDelete);
+    }
+
+    /**
+     * Shows the shared set context menu below the given button.
+     * @param anchor   The node to show the menu at.
+     * @param onRename Called if "Rename Set" is chosen.
+     * @param onDelete Called if "Delete Set" is chosen.
+     */
+    static void showSetMenu(Node anchor, Runnable onRename, Runnable onDelete) {
+        if (setMenu == null) {
+            setMenu = new RowMenu("Rename Set", "Delete Set");
+        }
+        setMenu.show(anchor, onRename, onDelete);
+    }
+
+    /**
+     * A rename/delete context menu that is retargeted to the row it is shown for.
+     */
+    private static final class RowMenu {
+
+        private final ContextMenu contextMenu = new ContextMenu();
+        // The actions of the row the menu was last shown for.
+        private Runnable onRename;
+        private Runnable onDelete;
+
+        RowMenu(String renameText, String deleteText) {
+            MenuItem renameItem = new MenuItem(renameText);
+            renameItem.setOnAction(e -> onRename.run());
+
+            MenuItem deleteItem = new MenuItem(deleteText);
+            deleteItem.getStyleClass().add("destructive-menu-item"); // Style for dangerous actions
+            deleteItem.setOnAction(e -> onDelete.run());
+
+            contextMenu.getItems().addAll(renameItem, new SeparatorMenuItem(), deleteItem);
+        }
+
+        void show(Node anchor, Runnable onRename, Runnable onDelete) {
+            this.onRename = onRename;
+            this.onDelete = onDelete;
+            contextMenu.hide();
+            contextMenu.show(anchor, Side.BOTTOM, 0, 5);
+        }
+    }
+
+    private RowGraphics() {}
+}
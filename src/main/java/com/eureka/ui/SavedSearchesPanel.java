@@ -0,0 +1,205 @@
+package com.eureka.ui;
+
+import com.eureka.EurekaApp;
+import com.eureka.I18n;
+import com.eureka.NoteSelectionListener;
+import com.eureka.SavedSearchIndex;
+import com.eureka.SearchService;
+import com.eureka.model.AppState;
+import com.eureka.model.Note;
+import com.eureka.model.SavedSearch;
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
+import javafx.scene.control.ContextMenu;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.MenuItem;
+import javafx.scene.control.TextInputDialog;
+import javafx.scene.control.TitledPane;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.VBox;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Sidebar section listing the saved searches, each with its matching notes.
+ * The lists follow the incremental membership updates of the {@link SavedSearchIndex},
+ * so they change live while notes are edited, without re-running any query.
+ */
+public class SavedSearchesPanel extends VBox implements SavedSearchIndex.MembershipListener {
+
+    // Height of one note row in a saved search list.
+    private static final double ROW_HEIGHT = 24;
+    // Maximum number of rows shown before a saved search list scrolls.
+    private static final int MAX_VISIBLE_ROWS = 8;
+
+    // Container holding one TitledPane per saved search.
+    private final VBox searchesBox;
+    // Listener to notify when a note in a saved search is clicked.
+    private final NoteSelectionListener noteSelectionListener;
+    // Pane of each saved search, by saved search ID.
+    private final Map<String, TitledPane> panesById = new HashMap<>();
+    // Note list of each saved search, by saved search ID.
+    private final Map<String, ListView<Note>> listsById = new HashMap<>();
+
+    /**
+     * Constructs the SavedSearchesPanel and starts listening for membership changes.
+     * @param listener The listener to notify when a note is selected.
+     */
+    public SavedSearchesPanel(NoteSelectionListener listener) {
+        super(6);
+        this.noteSelectionListener = listener;
+        getStyleClass().add("saved-searches-panel");
+        setPadding(new Insets(8, 12, 12, 12));
+
+        Label header = new Label();
+        header.textProperty().bind(I18n.bind("savedSearch.title"));
+        header.getStyleClass().add("saved-searches-header");
+
+        Button addButton = new Button("+");
+        addButton.getStyleClass().add("icon-button");
+        addButton.setOnAction(e -> createSavedSearch());
+
+        BorderPane headerPane = new BorderPane();
+        headerPane.setLeft(header);
+        headerPane.setRight(addButton);
+
+        searchesBox = new VBox(4);
+        getChildren().addAll(headerPane, searchesBox);
+
+        for (SavedSearch savedSearch : AppState.getInstance().getSavedSearches()) {
+            addSavedSearchPane(savedSearch);
+        }
+        EurekaApp.getSearchService().getSavedSearchIndex().addListener(this);
+    }
+
+    /**
+     * Called by the {@link SavedSearchIndex} when a saved search gained or lost a note.
+     * Refreshes that one list on the JavaFX Application Thread.
+     * @param savedSearchId The ID of the saved search whose members changed.
+     */
+    @Override
+    public void onMembershipChanged(String savedSearchId) {
+        Platform.runLater(() -> refreshSavedSearch(savedSearchId));
+    }
+
+    /**
+     * Prompts for a query and a name and saves a new standing search.
+     * The query is validated before anything is saved.
+     */
+    private void createSavedSearch() {
+        TextInputDialog queryDialog = new TextInputDialog();
+        queryDialog.titleProperty().bind(I18n.bind("savedSearch.new.title"));
+        queryDialog.headerTextProperty().bind(I18n.bind("savedSearch.new.queryHeader"));
+        Optional<String> query = queryDialog.showAndWait().map(String::trim).filter(q -> !q.isEmpty());
+        if (query.isEmpty()) {
+            return;
+        }
+
+        TextInputDialog nameDialog = new TextInputDialog(query.get());
+        nameDialog.titleProperty().bind(I18n.bind("savedSearch.new.title"));
+        nameDialog.headerTextProperty().bind(I18n.bind("savedSearch.new.nameHeader"));
+        Optional<String> name = nameDialog.showAndWait().map(String::trim).filter(n -> !n.isEmpty());
+        if (name.isEmpty()) {
+            return;
+        }
+
+        SavedSearch savedSearch = new SavedSearch(name.get(), query.get());
+        try {
+            EurekaApp.getSearchService().registerSavedSearch(savedSearch);
+        } catch (SearchService.QuerySyntaxException e) {
+            Alert alert = new Alert(Alert.AlertType.ERROR);
+            alert.titleProperty().bind(I18n.bind("savedSearch.new.title"));
+            alert.setHeaderText(I18n.get("search.invalidQuery", e.getMessage()));
+            alert.showAndWait();
+            return;
+        }
+        AppState.getInstance().addSavedSearch(savedSearch);
+        addSavedSearchPane(savedSearch);
+    }
+
+    /**
+     * Deletes a saved search and removes its pane.
+     * @param savedSearch The saved search to delete.
+     */
+    private void deleteSavedSearch(SavedSearch savedSearch) {
+        EurekaApp.getSearchService().unregisterSavedSearch(savedSearch.getId());
+        AppState.getInstance().deleteSavedSearch(savedSearch.getId());
+        searchesBox.getChildren().remove(panesById.remove(savedSearch.getId()));
+        listsById.remove(savedSearch.getId());
+    }
+
+    /**
+     * Creates the collapsible pane of a saved search, with its note list and context menu.
+     * @param savedSearch The saved search to show.
+     */
+    private void addSavedSearchPane(SavedSearch savedSearch) {
+        ListView<Note> noteList = new ListView<>();
+        noteList.getStyleClass().add("saved-search-list");
+        noteList.setFixedCellSize(ROW_HEIGHT);
+        noteList.setCellFactory(lv -> new ListCell<>() {
+            @Override
+            protected void updateItem(Note item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty || item == null ? null : item.getTitle());
+            }
+        });
+        noteList.setOnMouseClicked(event -> {
+            Note selected = noteList.getSelectionModel().getSelectedItem();
+            if (selected != null) {
+                noteSelectionListener.onNoteSelected(selected);
+            }
+        });
+
+        TitledPane pane = new TitledPane(savedSearch.getName(), noteList);
+        pane.getStyleClass().add("saved-search-pane");
+        pane.setExpanded(false);
+
+        MenuItem deleteItem = new MenuItem();
+        deleteItem.textProperty().bind(I18n.bind("savedSearch.delete"));
+        deleteItem.setOnAction(e -> deleteSavedSearch(savedSearch));
+        pane.setContextMenu(new ContextMenu(deleteItem));
+
+        panesById.put(savedSearch.getId(), pane);
+        listsById.put(savedSearch.getId(), noteList);
+        searchesBox.getChildren().add(pane);
+        refreshSavedSearch(savedSearch.getId());
+    }
+
+    /**
+     * Shows the current members of one saved search, sorted by title, and updates the count in its header.
+     * @param savedSearchId The ID of the saved search to refresh.
+     */
+    private void refreshSavedSearch(String savedSearchId) {
+        ListView<Note> noteList = listsById.get(savedSearchId);
+        TitledPane pane = panesById.get(savedSearchId);
+        if (noteList == null || pane == null) {
+            return;
+        }
+        AppState appState = AppState.getInstance();
+        Set<String> memberIds = EurekaApp.getSearchService().getSavedSearchIndex().getMembers(savedSearchId);
+        List<Note> notes = memberIds.stream()
+                .map(appState::getNoteById)
+                .flatMap(Optional::stream)
+                .sorted(Comparator.comparing(Note::getTitle, String.CASE_INSENSITIVE_ORDER))
+                .toList();
+        noteList.getItems().setAll(notes);
+        noteList.setPrefHeight(Math.max(1, Math.min(notes.size(), MAX_VISIBLE_ROWS)) * ROW_HEIGHT + 2);
+
+        String name = appState.getSavedSearches().stream()
+                .filter(savedSearch -> Objects.equals(savedSearch.getId(), savedSearchId))
+                .map(SavedSearch::getName)
+                .findFirst()
+                .orElse("");
+        pane.setText(name + " (" + notes.size() + ")");
+    }
+}
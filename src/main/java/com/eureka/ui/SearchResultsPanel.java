@@ -0,0 +1,305 @@
+package com.eureka.ui;
+
+import com.eureka.SearchService;
+import com.eureka.model.AppState;
+import javafx.collections.ObservableList;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.input.KeyCode;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.StackPane;
+import javafx.scene.text.Text;
+import javafx.scene.text.TextFlow;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Virtualized list of search results, shown in the popup below the search field.
+ * Every cell has the same fixed height, so the list never measures its cells and its height
+ * follows directly from the number of results.
+ * Results arrive in batches while a query is running. They are written into the list position by
+ * position, replacing only rows whose visible content differs from the previous query's result at
+ * that position, and leftover rows are removed once the query completes.
+ * Each query gets a generation number; batches of any query but the newest are dropped, so a
+ * slow earlier query can never overwrite the results of a later one.
+ */
+public class SearchResultsPanel extends StackPane {
+
+    /**
+     * Height of the snippet line under each search result.
+     */
+    private static final double SNIPPET_HEIGHT = 36;
+    /**
+     * Fixed height of every result cell: the title line plus the snippet.
+     */
+    private static final double CELL_HEIGHT = 30 + SNIPPET_HEIGHT;
+    /**
+     * Maximum height of the list before it scrolls.
+     */
+    private static final double MAX_HEIGHT = 400;
+
+    // The virtualized list showing the results.
+    private final ListView<SearchService.SearchResult> listView;
+    // Generation of the newest query; written on the FX thread, read by searching threads.
+    private volatile long generation = 0;
+    // The query whose results are shown, and the one that started the newest generation.
+    private String shownQuery;
+    private String pendingQuery;
+    // Position at which the next result of the current generation is written.
+    private int writeIndex = 0;
+    // Whether a batch of the current generation was written yet.
+    private boolean receivedResults = false;
+
+    /**
+     * Constructs the panel.
+     * @param onOpen Called with a result when it is opened by Enter or a click.
+     */
+    public SearchResultsPanel(Consumer<SearchService.SearchResult> onOpen) {
+        listView = new ListView<>();
+        listView.getStyleClass().add("search-results-list");
+        listView.setFixedCellSize(CELL_HEIGHT);
+        listView.setFocusTraversable(false);
+        listView.setCellFactory(lv -> new ResultCell());
+        listView.setPrefHeight(0);
+
+        listView.setOnKeyPressed(event -> {
+            if (event.getCode() == KeyCode.ENTER) {
+                SearchService.SearchResult selected = listView.getSelectionModel().getSelectedItem();
+                if (selected != null) {
+                    onOpen.accept(selected);
+                }
+                event.consume();
+            }
+        });
+        listView.setOnMouseClicked(event -> {
+            SearchService.SearchResult selected = listView.getSelectionModel().getSelectedItem();
+            if (selected != null) {
+                onOpen.accept(selected);
+            }
+        });
+
+        getStyleClass().add("search-results-panel");
+        getChildren().add(listView);
+    }
+
+    /**
+     * Starts a new query generation. Results of all earlier generations are dropped from now on,
+     * while the rows they produced stay visible until this query's results replace them.
+     * Must be called on the JavaFX Application Thread.
+     * @param query The query being run.
+     * @return The generation to pass with this query's results.
+     */
+    public long startQuery(String query) {
+        pendingQuery = query;
+        writeIndex = 0;
+        receivedResults = false;
+        return ++generation;
+    }
+
+    /**
+     * Checks whether a generation is still the newest, e.g. to stop a superseded search early.
+     * Can be called from any thread.
+     * @param queryGeneration The generation returned by {@link #startQuery(String)}.
+     * @return true if no newer query was started since.
+     */
+    public boolean isCurrent(long queryGeneration) {
+        return queryGeneration == generation;
+    }
+
+    /**
+     * Writes the next batch of results of a query, unless a newer query was started meanwhile.
+     * Must be called on the JavaFX Application Thread.
+     * @param queryGeneration The generation of the query that produced the batch.
+     * @param batch           The results, in rank order, following those of earlier batches.
+     * @return true if the batch was written.
+     */
+    public boolean appendBatch(long queryGeneration, List<SearchService.SearchResult> batch) {
+        if (!isCurrent(queryGeneration)) {
+            return false;
+        }
+        receivedResults = true;
+        shownQuery = pendingQuery;
+        ObservableList<SearchService.SearchResult> items = listView.getItems();
+        List<SearchService.SearchResult> appended = new ArrayList<>();
+        for (SearchService.SearchResult result : batch) {
+            if (writeIndex < items.size()) {
+                if (!sameContent(items.get(writeIndex), result)) {
+                    items.set(writeIndex, result);
+                }
+            } else {
+                appended.add(result);
+            }
+            writeIndex++;
+        }
+        items.addAll(appended);
+        updateHeight();
+        return true;
+    }
+
+    /**
+     * Finishes a query: removes the rows left over from the previous query beyond its last result.
+     * Does nothing if a newer query was started meanwhile.
+     * Must be called on the JavaFX Application Thread.
+     * @param queryGeneration The generation of the query that completed.
+     * @return true if the query is still the newest and its results are now shown.
+     */
+    public boolean complete(long queryGeneration) {
+        if (!isCurrent(queryGeneration)) {
+            return false;
+        }
+        if (!receivedResults) {
+            shownQuery = pendingQuery;
+        }
+        ObservableList<SearchService.SearchResult> items = listView.getItems();
+        if (writeIndex < items.size()) {
+            items.remove(writeIndex, items.size());
+        }
+        updateHeight();
+        return true;
+    }
+
+    /**
+     * Removes all results and drops those of any running query.
+     * Must be called on the JavaFX Application Thread.
+     */
+    public void clear() {
+        generation++;
+        shownQuery = null;
+        pendingQuery = null;
+        writeIndex = 0;
+        listView.getItems().clear();
+        updateHeight();
+    }
+
+    /**
+     * Gets the query whose results are shown. Rows kept from an earlier query because their
+     * content did not change still carry that query, so use this one to locate matches.
+     * @return The query, or null if no results are shown.
+     */
+    public String getQuery() {
+        return shownQuery;
+    }
+
+    /**
+     * Returns whether no results are shown.
+     * @return true if the list is empty.
+     */
+    public boolean isEmpty() {
+        return listView.getItems().isEmpty();
+    }
+
+    /**
+     * Moves the keyboard focus to the first result, e.g. when Down is pressed in the search field.
+     */
+    public void focusFirst() {
+        listView.requestFocus();
+        listView.getSelectionModel().select(0);
+        listView.scrollTo(0);
+    }
+
+    /**
+     * Sets the width of the list, e.g. to match the search field.
+     * @param width The width in pixels.
+     */
+    public void setListWidth(double width) {
+        listView.setPrefWidth(width);
+    }
+
+    /**
+     * Sizes the list to its results, up to {@link #MAX_HEIGHT}. With a fixed cell size this is exact.
+     */
+    private void updateHeight() {
+        listView.setPrefHeight(Math.min(listView.getItems().size() * CELL_HEIGHT + 2, MAX_HEIGHT));
+    }
+
+    /**
+     * Compares what two results show in a cell, and the mode their match is located in when opened;
+     * the score and query are not shown.
+     */
+    private static boolean sameContent(SearchService.SearchResult a, SearchService.SearchResult b) {
+        return a.noteId().equals(b.noteId())
+                && Objects.equals(a.title(), b.title())
+                && Objects.equals(a.setId(), b.setId())
+                && a.occurrences() == b.occurrences()
+                && Objects.equals(a.snippet(), b.snippet())
+                && a.mode() == b.mode();
+    }
+
+    /**
+     * Splits a highlighted snippet into Text nodes, with the matched words in bold.
+     * @param snippet The snippet with matches between {@link SearchService#HIGHLIGHT_START} and
+     *                {@link SearchService#HIGHLIGHT_END} markers. May be null.
+     * @return The Text nodes to show, in order.
+     */
+    private static List<Text> snippetText(String snippet) {
+        List<Text> parts = new ArrayList<>();
+        if (snippet == null) {
+            return parts;
+        }
+        int start = 0;
+        boolean highlighted = false;
+        for (int i = 0; i <= snippet.length(); i++) {
+            boolean atEnd = i == snippet.length();
+            char c = atEnd ? 0 : snippet.charAt(i);
+            if (atEnd || c == SearchService.HIGHLIGHT_START || c == SearchService.HIGHLIGHT_END) {
+                if (i > start) {
+                    Text part = new Text(snippet.substring(start, i).replace('\n', ' '));
+                    part.getStyleClass().add(highlighted ? "result-snippet-match" : "result-snippet-text");
+                    parts.add(part);
+                }
+                highlighted = c == SearchService.HIGHLIGHT_START;
+                start = i + 1;
+            }
+        }
+        return parts;
+    }
+
+    /**
+     * Cell showing the set and title, the number of matches and the highlighted snippet of a result.
+     */
+    private static class ResultCell extends ListCell<SearchService.SearchResult> {
+        private final BorderPane pane = new BorderPane();
+        private final Label mainLabel = new Label();
+        private final Label occurrencesLabel = new Label();
+        private final TextFlow snippetFlow = new TextFlow();
+
+        ResultCell() {
+            mainLabel.getStyleClass().add("result-title");
+            occurrencesLabel.getStyleClass().add("result-occurrences");
+            snippetFlow.getStyleClass().add("result-snippet");
+            snippetFlow.setMaxHeight(SNIPPET_HEIGHT);
+            pane.setLeft(mainLabel);
+            pane.setRight(occurrencesLabel);
+            pane.setBottom(snippetFlow);
+        }
+
+        /**
+         * Called by JavaFX to update the content of the cell.
+         * The set name is looked up at render time, so renamed sets show their current name.
+         * @param item  The SearchResult item for this cell, or null if the cell is empty.
+         * @param empty True if the cell is empty, false otherwise.
+         */
+        @Override
+        protected void updateItem(SearchService.SearchResult item, boolean empty) {
+            super.updateItem(item, empty);
+            if (empty || item == null) {
+                setGraphic(null);
+            } else {
+                String setName = AppState.getInstance().getSetById(item.setId())
+                        .map(set -> set.getName())
+                        .orElse("");
+                mainLabel.setText(setName + "  ›  " + item.title());
+                occurrencesLabel.setText(item.occurrences() == 0 ? ""
+                        : item.occurrences() > SearchService.MAX_COUNTED_OCCURRENCES
+                        ? SearchService.MAX_COUNTED_OCCURRENCES + "+"
+                        : String.valueOf(item.occurrences()));
+                snippetFlow.getChildren().setAll(snippetText(item.snippet()));
+                setGraphic(pane);
+            }
+        }
+    }
+}
@@ -5,95 +5,66 @@ import com.eureka.NoteSelectionListener;
 import com.eureka.model.AppState;
 import com.eureka.model.Note;
 import com.eureka.model.NoteSet;
-import javafx.animation.RotateTransition;
-import javafx.event.ActionEvent;
+import javafx.beans.binding.Bindings;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.value.ObservableValue;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
-import javafx.geometry.Side;
-import javafx.scene.Node;
 import javafx.scene.control.*;
-import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
 import javafx.scene.layout.Region;
-import javafx.scene.layout.VBox;
-import javafx.scene.shape.SVGPath;
-import javafx.util.Duration;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 /**
- * Represents a collapsible row in the sidebar displaying a NoteSet (folder).
- * Contains a header with the set's name, icons, action buttons (add note, context menu),
- * and a collapsible panel (VBox) to display the NoteRows belonging to this set.
+ * Graphic of a sidebar tree cell displaying a NoteSet (folder).
+ * Contains the set's name, icons and action buttons (add note, context menu); clicking it
+ * expands or collapses the set's notes in the tree.
+ * Icons, tooltips and the context menu are shared with all other rows, see {@link RowGraphics}.
+ * A row is created once per cell and reused for whichever set the cell currently shows,
+ * see {@link #setNoteSet(NoteSet, ObservableValue, BooleanProperty)}.
+ * Changes are made through {@link AppState}, whose change events update the tree.
  */
-public class SetRow extends VBox {
+public class SetRow extends HBox {
 
-    // The NoteSet data object this row represents.
-    private final NoteSet noteSet;
-    // The VBox panel that holds the NoteRows for this set (collapsible).
-    private final VBox notesPanel;
+    // The NoteSet data object this row currently represents.
+    private NoteSet noteSet;
+    // Expanded state of the tree item of the current set.
+    private BooleanProperty expanded;
     // Listener to notify about note interactions within this set.
     private final NoteSelectionListener noteSelectionListener;
     // Reference to the application's global state.
     private final AppState appState;
-    // Tracks whether the notesPanel is currently expanded.
-    private boolean isExpanded = false;
-    // Callback function to run when changes require the parent (Sidebar) to refresh.
-    private final Runnable onSetChangedCallback;
     // Label displaying the name of the note set.
     private final Label setNameLabel;
-    // SVG icon used as the expand/collapse arrow.
-    private final SVGPath arrowIcon;
-    // SVG icon representing the set (folder).
-    private final SVGPath setIcon;
+    // Container of the expand/collapse arrow, rotated while the set is expanded.
+    private final Region arrowContainer;
 
     /**
      * Constructs a SetRow UI component.
-     * @param noteSet               The NoteSet object to display.
-     * @param listener              The listener to notify about note interactions.
-     * @param onSetChangedCallback A callback function to execute when the set list needs refreshing
-     * (e.g., after deleting or renaming this set).
+     * Call {@link #setNoteSet(NoteSet, ObservableValue, BooleanProperty)} before showing it.
+     * @param listener The listener to notify about note interactions.
      */
-    public SetRow(NoteSet noteSet, NoteSelectionListener listener, Runnable onSetChangedCallback) {
-        this.noteSet = noteSet;
+    public SetRow(NoteSelectionListener listener) {
         this.noteSelectionListener = listener;
         this.appState = AppState.getInstance();
-        this.onSetChangedCallback = onSetChangedCallback;
-
-        getStyleClass().add("set-row");
 
-        // === Header Panel (HBox containing icons, label, buttons) ===
-        HBox headerPanel = new HBox(8);
-        headerPanel.setAlignment(Pos.CENTER_LEFT);
-        headerPanel.getStyleClass().add("header");
-        headerPanel.setPadding(new Insets(4, 0, 4, 0));
+        getStyleClass().addAll("set-row", "header");
+        setSpacing(8);
+        setAlignment(Pos.CENTER_LEFT);
+        setPadding(new Insets(4, 0, 4, 0));
 
         // --- Expand/Collapse Arrow ---
-        arrowIcon = new SVGPath();
-        arrowIcon.setContent("M8 5l6 6-6 6z");
-        arrowIcon.getStyleClass().add("arrow-icon");
-
-        // Container for the arrow icon
-        Region arrowContainer = new Region();
-        arrowContainer.setShape(arrowIcon);
-        arrowContainer.getStyleClass().add("arrow-icon");
-        arrowContainer.setMinWidth(20);
-        arrowContainer.setMinHeight(20);
+        arrowContainer = RowGraphics.createIcon(RowGraphics.Icon.ARROW, "arrow-icon", 20);
 
         // --- Set Icon (folder) ---
-        setIcon = createSetIcon();
-        Region setIconContainer = new Region();
-        setIconContainer.setShape(setIcon);
-        setIconContainer.getStyleClass().add("set-icon-container");
-        setIconContainer.setMinWidth(18);
-        setIconContainer.setMinHeight(18);
+        Region setIconContainer = RowGraphics.createIcon(RowGraphics.Icon.SET, "set-icon-container", 18);
 
         // --- Set Name Label ---
-        this.setNameLabel = new Label(noteSet.getName());
-        setNameLabel.setStyle("-fx-font-weight: semibold; -fx-font-size: 13;"); // Styling
+        this.setNameLabel = new Label();
+        setNameLabel.getStyleClass().add("set-row-name");
 
         // --- Spacer (pushes action buttons to the right) ---
         Region spacer = new Region();
@@ -101,123 +72,41 @@ public class SetRow extends VBox {
 
         // === Action Buttons ===
         // --- Add Note Button ---
-        Button addButton = createActionButton(
-                "M12 5v14m-7-7h14",  // Plus icon SVG
-                "Add new note",      // Tooltip text
-                e -> addNewNote()      // Action handler
-        );
-
-        // --- Context Menu Button ---
-        Button menuButton = createActionButton(
-                "M12 8a2 2 0 110-4 2 2 0 010 4zm0 6a2 2 0 110-4 2 2 0 010 4zm0 6a2 2 0 110-4 2 2 0 010 4z",  // Vertical dots SVG
-                "More options",       // Tooltip text
-                null                  // Action handler set below to show ContextMenu
-        );
+        Button addButton = RowGraphics.createIconButton(RowGraphics.Icon.PLUS, "Add new note");
+        addButton.setOnAction(e -> addNewNote());
 
-        // === Context Menu (for Rename/Delete Set) ===
-        ContextMenu contextMenu = new ContextMenu();
+        // --- Context Menu Button (Rename/Delete Set, shared by all rows) ---
+        Button menuButton = RowGraphics.createIconButton(RowGraphics.Icon.DOTS_VERTICAL, "More options");
+        menuButton.setOnAction(e -> RowGraphics.showSetMenu(menuButton, this::renameSet, this::deleteSet));
 
-        MenuItem renameItem = new MenuItem("Rename Set");
-        renameItem.setOnAction(e -> renameSet()); // Link to renameSet method
-
-        MenuItem deleteItem = new MenuItem("Delete Set");
-        deleteItem.getStyleClass().add("destructive-menu-item"); // Style for dangerous actions
-        deleteItem.setOnAction(e -> deleteSet()); // Link to deleteSet method
-
-        contextMenu.getItems().addAll(renameItem, new SeparatorMenuItem(), deleteItem); // Add items
-        // Make the menuButton show the contextMenu when clicked
-        menuButton.setOnAction(e -> contextMenu.show(menuButton, Side.BOTTOM, 0, 5));
-
-        // --- Add components to the header ---
-        headerPanel.getChildren().addAll(
+        // --- Add components to the row ---
+        getChildren().addAll(
                 arrowContainer, setIconContainer, setNameLabel, spacer, addButton, menuButton
         );
 
-        // === Notes Panel (collapsible VBox for NoteRows) ===
-        notesPanel = new VBox(0);
-        notesPanel.getStyleClass().add("notes-panel");
-        notesPanel.setVisible(false);
-        notesPanel.setManaged(false);
-        this.getChildren().addAll(headerPanel, notesPanel);
-
         // === Event Handlers ===
-        headerPanel.setOnMouseClicked(event -> {
-            if (!(event.getTarget() instanceof Button || event.getTarget() instanceof SVGPath)) {
-                toggleExpand();
+        setOnMouseClicked(event -> {
+            if (expanded != null && !(event.getTarget() instanceof Button)) {
+                expanded.set(!expanded.get());
             }
         });
     }
 
-    /**
-     * Creates an action button with an SVG icon and tooltip.
-     *
-     * @param svgContent The string containing the SVG path data for the icon.
-     * @param tooltip    The text to display in the button's tooltip.
-     * @param handler    The EventHandler to be called when the button is clicked. Can be null.
-     * @return A configured Button.
-     */
-    private Button createActionButton(String svgContent, String tooltip, javafx.event.EventHandler<ActionEvent> handler) {
-        SVGPath path = new SVGPath();
-        path.setContent(svgContent);
-        path.getStyleClass().add("svg-path");
-
-        Button button = new Button();
-        button.setGraphic(path);
-        button.getStyleClass().add("icon-button");
-        button.setTooltip(new Tooltip(tooltip));
-
-        if (handler != null) {
-            button.setOnAction(handler);
-        }
-
-        return button;
-    }
-
-    /**
-     * Creates the SVGPath object representing the folder icon for the set.
-     * @return An SVGPath object configured as a folder icon.
-     */
-    private SVGPath createSetIcon() {
-        SVGPath icon = new SVGPath();
-        icon.setContent("M3 7a2 2 0 012-2h4l2 2h4a2 2 0 012 2v8a2 2 0 01-2 2H5a2 2 0 01-2-2V7z");
-        icon.getStyleClass().add("svg-path");
-        return icon;
-    }
-
-    /**
-     * Toggles the visibility and managed state of the notesPanel.
-     * Animates the expand/collapse arrow icon.
-     * Refreshes the list of notes if expanding.
-     */
-    private void toggleExpand() {
-        isExpanded = !isExpanded;
-
-        RotateTransition rt = new RotateTransition(Duration.millis(200), arrowIcon);
-        rt.setToAngle(isExpanded ? 90 : 0);
-        rt.play();
-
-        notesPanel.setVisible(isExpanded);
-        notesPanel.setManaged(isExpanded);
-
-        if (isExpanded) {
-            refreshNotesList();
-        }
-    }
-
     /**
      * Opens a dialog to add a new note to the current set.
      * Expands the set if it's currently collapsed.
-     * Creates the note, adds it to the AppState and search service,
-     * refreshes the notes list, and selects the new note.
+     * Creates the note, adds it to the AppState (which adds its row) and search service,
+     * and selects the new note.
      */
     private void addNewNote() {
-        if (!isExpanded) {
-            toggleExpand();
+        NoteSet targetSet = noteSet;
+        if (expanded != null) {
+            expanded.set(true);
         }
 
         TextInputDialog dialog = new TextInputDialog();
         dialog.setTitle("Create New Note");
-        dialog.setHeaderText("Enter title for note in \"" + noteSet.getName() + "\":");
+        dialog.setHeaderText("Enter title for note in \"" + targetSet.getName() + "\":");
         dialog.setContentText("Title:");
 
         dialog.getDialogPane().getStyleClass().add("styled-dialog");
@@ -226,10 +115,9 @@ public class SetRow extends VBox {
         result.ifPresent(title -> {
             String trimmedTitle = title.trim();
             if (!trimmedTitle.isEmpty()) {
-                Note newNote = new Note(noteSet.getId(), trimmedTitle);
+                Note newNote = new Note(targetSet.getId(), trimmedTitle);
                 appState.addNote(newNote);
                 EurekaApp.getSearchService().addOrUpdateNote(newNote);
-                refreshNotesList();
                 noteSelectionListener.onNoteSelected(newNote);
             }
         });
@@ -237,34 +125,36 @@ public class SetRow extends VBox {
 
     /**
      * Shows a confirmation dialog and deletes the entire set and all notes within it if confirmed.
-     * Removes notes from the search service, updates AppState, notifies listeners,
-     * and triggers the callback to refresh the parent list (Sidebar).
+     * Removes notes from the search service, updates AppState (which removes the set's rows)
+     * and notifies listeners.
      */
     private void deleteSet() {
+        NoteSet targetSet = noteSet;
         Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
         alert.setTitle("Delete Set");
-        alert.setHeaderText("Delete the set \"" + noteSet.getName() + "\"?");
+        alert.setHeaderText("Delete the set \"" + targetSet.getName() + "\"?");
         alert.setContentText("This will permanently delete the set and all notes within it.\nThis action cannot be undone.");
 
         alert.getButtonTypes().setAll(ButtonType.OK, ButtonType.CANCEL);
 
         Optional<ButtonType> result = alert.showAndWait();
         if (result.isPresent() && result.get() == ButtonType.OK) {
-            List<Note> notesToDelete = List.copyOf(appState.getNotesForSet(noteSet.getId()));
+            List<Note> notesToDelete = List.copyOf(appState.getNotesForSet(targetSet.getId()));
             notesToDelete.forEach(note -> EurekaApp.getSearchService().deleteNote(note));
-            appState.deleteSet(noteSet.getId());
-            noteSelectionListener.onSetDeleted(noteSet.getId(), notesToDelete);
-            onSetChangedCallback.run();
+            appState.deleteSet(targetSet.getId());
+            noteSelectionListener.onSetDeleted(targetSet.getId(), notesToDelete);
         }
     }
 
     /**
      * Opens a dialog to rename the current set.
-     * If a new valid name is entered, it updates the NoteSet object,
-     * updates the UI label, and triggers the callback to refresh the parent list.
+     * If a new valid name is entered, it renames the set through AppState,
+     * whose change event updates the set's row.
+     * The search index only stores the set ID, so no reindexing is needed.
      */
     private void renameSet() {
-        TextInputDialog dialog = new TextInputDialog(noteSet.getName());
+        NoteSet targetSet = noteSet;
+        TextInputDialog dialog = new TextInputDialog(targetSet.getName());
         dialog.setTitle("Rename Set");
         dialog.setHeaderText("Enter new name for the set:");
         dialog.setContentText("Name:");
@@ -272,37 +162,28 @@ public class SetRow extends VBox {
         Optional<String> result = dialog.showAndWait();
         result.ifPresent(newName -> {
             String trimmedName = newName.trim();
-            if (!trimmedName.isEmpty() && !trimmedName.equals(noteSet.getName())) {
-                noteSet.setName(trimmedName);
-                this.setNameLabel.setText(noteSet.getName());
-                onSetChangedCallback.run();
+            if (!trimmedName.isEmpty() && !trimmedName.equals(targetSet.getName())) {
+                appState.renameSet(targetSet.getId(), trimmedName);
             }
         });
     }
 
+    // === Public API Methods ===
+
     /**
-     * Clears and repopulates the notesPanel with NoteRow instances
-     * corresponding to the notes currently in this set according to AppState.
-     * Displays a label if the set contains no notes.
+     * Shows another set in this row, e.g. when the cell holding the row is reused while scrolling.
+     * @param noteSet  The NoteSet object to display.
+     * @param name     The displayed name of the set, updated when the set is renamed.
+     * @param expanded The expanded state of the set's tree item; toggled by clicking the row
+     *                 and reflected by the arrow.
      */
-    private void refreshNotesList() {
-        notesPanel.getChildren().clear();
-        List<Note> notesInSet = appState.getNotesForSet(noteSet.getId());
-
-        if (notesInSet.isEmpty()) {
-            Label emptyLabel = new Label("No notes in this set");
-            emptyLabel.getStyleClass().add("empty-set-label");
-            notesPanel.getChildren().add(emptyLabel);
-        } else {
-            for (Note note : notesInSet) {
-                NoteRow noteRow = new NoteRow(note, noteSelectionListener, this::refreshNotesList);
-                notesPanel.getChildren().add(noteRow);
-            }
-        }
+    public void setNoteSet(NoteSet noteSet, ObservableValue<String> name, BooleanProperty expanded) {
+        this.noteSet = noteSet;
+        this.expanded = expanded;
+        setNameLabel.textProperty().bind(name);
+        arrowContainer.rotateProperty().bind(Bindings.when(expanded).then(90).otherwise(0));
     }
 
-    // === Public API Methods ===
-
     /**
      * Gets the NoteSet object associated with this row.
      * @return The NoteSet object.
@@ -310,25 +191,4 @@ public class SetRow extends VBox {
     public NoteSet getNoteSet() {
         return noteSet;
     }
-
-    /**
-     * Programmatically expands the notes panel if it is currently collapsed.
-     * Calls toggleExpand() only if needed.
-     */
-    public void expand() {
-        if (!isExpanded) {
-            toggleExpand();
-        }
-    }
-
-    /**
-     * Gets a list of the NoteRow components currently displayed within the notesPanel.
-     * @return A List of NoteRow objects.
-     */
-    public List<NoteRow> getNoteRows() {
-        return notesPanel.getChildren().stream()
-                .filter(node -> node instanceof NoteRow)
-                .map(node -> (NoteRow) node)
-                .collect(Collectors.toList());
-    }
-}
\ No newline at end of file
+}
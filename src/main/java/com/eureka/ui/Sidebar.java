@@ -9,28 +9,55 @@ import javafx.animation.KeyFrame;
 import javafx.animation.KeyValue;
 import javafx.animation.RotateTransition;
 import javafx.animation.Timeline;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
 import javafx.geometry.Insets;
-import javafx.scene.Node;
 import javafx.scene.control.Button;
-import javafx.scene.control.ScrollPane;
+import javafx.scene.control.Label;
 import javafx.scene.control.SplitPane;
 import javafx.scene.control.TextInputDialog;
+import javafx.scene.control.TreeCell;
+import javafx.scene.control.TreeItem;
+import javafx.scene.control.TreeView;
 import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.Region;
 import javafx.scene.layout.VBox;
 import javafx.scene.shape.SVGPath;
 import javafx.util.Duration;
-import java.util.Optional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Represents the collapsible sidebar component of the application.
- * Displays a list of note sets (SetRow instances) and provides controls
- * for creating new sets and collapsing/expanding the sidebar itself.
+ * Displays the note sets and their notes, the tags and the saved searches, and provides
+ * controls for creating new sets and collapsing/expanding the sidebar itself.
+ * The sets and notes are shown in a virtualized {@link TreeView}: only the visible rows get
+ * nodes (a {@link SetRow} or {@link NoteRow} per cell, reused while scrolling), and the notes
+ * of a set are only turned into tree items once the set is expanded.
+ * The tree follows {@link AppState} change events with targeted inserts, removals and updates,
+ * so items (and with them the expansion state) survive every change except their own removal.
  */
-public class Sidebar extends BorderPane {
+public class Sidebar extends BorderPane implements AppState.ChangeListener {
 
-    // VBox container holding all the SetRow components.
-    private final VBox setsPanel;
+    // Placeholder value of the single child of a set without notes.
+    private static final String EMPTY_SET_PLACEHOLDER = "No notes in this set";
+
+    // Virtualized tree of sets (first level) and notes (second level).
+    private final TreeView<Object> setsTree;
+    // Hidden root item of setsTree; its children are the set items.
+    private final TreeItem<Object> treeRoot;
+    // Tree item of every set, by set ID.
+    private final Map<String, SetTreeItem> setItemsById = new HashMap<>();
+    // Tree item of every note of a loaded set, by note ID.
+    private final Map<String, NoteTreeItem> noteItemsById = new HashMap<>();
     // Reference to the global application state.
     private final AppState appState;
     // Listener to notify about note selection events originating from this sidebar.
@@ -39,12 +66,21 @@ public class Sidebar extends BorderPane {
     private final SplitPane parentSplitPane;
     // Button for creating a new note set.
     private final Button newSetButton;
-    // ScrollPane that contains the setsPanel, allowing scrolling if sets exceed available height.
-    private final ScrollPane scrollPane;
     // Button to toggle the collapsed/expanded state of the sidebar.
     private final Button toggleButton;
     // SVG icon used within the toggleButton, animates rotation.
     private final SVGPath toggleIcon;
+    // Section below the sets listing the saved searches and their matching notes.
+    private final SavedSearchesPanel savedSearchesPanel;
+    // Section below the sets listing the #tags of the vault; holds the saved searches below it.
+    private final VBox bottomPanel;
+    // Tag list, which hands clicked tags to the search.
+    private final TagsPanel tagsPanel;
+
+    // ID of the note open in the selected editor tab, highlighted in the tree; null if none.
+    private String activeNoteId;
+    // Item of the active note, or null if there is none or its set was never expanded.
+    private NoteTreeItem activeItem;
 
     private boolean isCollapsed = false;
     private double lastDividerPosition = 0.3; // Default expanded position
@@ -88,18 +124,30 @@ public class Sidebar extends BorderPane {
 
         this.setTop(topBar);
 
-        // --- Sets Panel Setup (VBox inside ScrollPane) ---
-        setsPanel = new VBox(8);
-        setsPanel.setPadding(new Insets(12, 12, 0, 12));
+        // --- Sets Tree Setup (virtualized, scrolls by itself) ---
+        treeRoot = new TreeItem<>();
+        setsTree = new TreeView<>(treeRoot);
+        setsTree.setShowRoot(false);
+        setsTree.setCellFactory(tv -> new SidebarCell());
+        setsTree.setPadding(new Insets(12, 12, 0, 12));
+        setsTree.getStyleClass().add("sidebar-tree");
 
-        // ScrollPane to contain the setsPanel
-        scrollPane = new ScrollPane(setsPanel);
-        scrollPane.setFitToWidth(true);
-        scrollPane.setHbarPolicy(ScrollPane.ScrollBarPolicy.NEVER);
-        scrollPane.getStyleClass().add("sidebar-scroll-pane");
+        this.setCenter(setsTree);
 
-        this.setCenter(scrollPane);
+        tagsPanel = new TagsPanel();
+        savedSearchesPanel = new SavedSearchesPanel(listener);
+        bottomPanel = new VBox(tagsPanel, savedSearchesPanel);
+        this.setBottom(bottomPanel);
         updateSetsList();
+        appState.addChangeListener(this);
+    }
+
+    /**
+     * Sets the callback run when a tag is clicked in the tag list, e.g. to filter the search by it.
+     * @param onTagSelected Receives the normalized tag, without the leading '#'.
+     */
+    public void setOnTagSelected(Consumer<String> onTagSelected) {
+        tagsPanel.setOnTagSelected(onTagSelected);
     }
 
     /**
@@ -134,8 +182,10 @@ public class Sidebar extends BorderPane {
 
         newSetButton.setManaged(false);
         newSetButton.setVisible(false);
-        scrollPane.setManaged(false);
-        scrollPane.setVisible(false);
+        setsTree.setManaged(false);
+        setsTree.setVisible(false);
+        bottomPanel.setManaged(false);
+        bottomPanel.setVisible(false);
 
         if (animate) {
             animateDividerTo(0.0);
@@ -155,8 +205,10 @@ public class Sidebar extends BorderPane {
 
         newSetButton.setManaged(true);
         newSetButton.setVisible(true);
-        scrollPane.setManaged(true);
-        scrollPane.setVisible(true);
+        setsTree.setManaged(true);
+        setsTree.setVisible(true);
+        bottomPanel.setManaged(true);
+        bottomPanel.setVisible(true);
 
         if (animate) {
             animateDividerTo(lastDividerPosition);
@@ -190,8 +242,8 @@ public class Sidebar extends BorderPane {
 
     /**
      * Opens a dialog to prompt the user for a new set name.
-     * If a valid name is entered, creates a new NoteSet, adds it to the AppState,
-     * and updates the list displayed in the sidebar.
+     * If a valid name is entered, creates a new NoteSet and adds it to the AppState,
+     * whose change event adds it to the tree.
      */
     private void createNewSet() {
         TextInputDialog dialog = new TextInputDialog();
@@ -205,27 +257,113 @@ public class Sidebar extends BorderPane {
             if (!trimmedName.isEmpty()) {
                 NoteSet newSet = new NoteSet(trimmedName);
                 appState.addSet(newSet);
-                updateSetsList();
             }
         });
     }
 
     /**
-     * Clears and repopulates the setsPanel with SetRow components
-     * based on the current list of sets in AppState.
+     * Replaces the set items of the tree with fresh, collapsed ones based on the current list of sets
+     * in AppState. Used to populate the tree; later changes arrive as change events.
      */
     public void updateSetsList() {
-        setsPanel.getChildren().clear();
+        setItemsById.clear();
+        noteItemsById.clear();
+        activeItem = null;
+        List<TreeItem<Object>> setItems = new ArrayList<>();
         for (NoteSet set : appState.getSets()) {
-            SetRow setRow = new SetRow(set, noteSelectionListener, this::updateSetsList);
-            setsPanel.getChildren().add(setRow);
+            SetTreeItem setItem = new SetTreeItem(set);
+            setItemsById.put(set.getId(), setItem);
+            setItems.add(setItem);
+        }
+        treeRoot.getChildren().setAll(setItems);
+    }
+
+    /**
+     * Appends an item for a new set.
+     * @param set The set that was added.
+     */
+    @Override
+    public void onSetAdded(NoteSet set) {
+        SetTreeItem setItem = new SetTreeItem(set);
+        setItemsById.put(set.getId(), setItem);
+        treeRoot.getChildren().add(setItem);
+    }
+
+    /**
+     * Removes the item of a deleted set together with its note items.
+     * @param set The set that was deleted.
+     */
+    @Override
+    public void onSetRemoved(NoteSet set) {
+        SetTreeItem setItem = setItemsById.remove(set.getId());
+        if (setItem != null) {
+            for (TreeItem<Object> child : setItem.getChildren()) {
+                if (child instanceof NoteTreeItem noteItem) {
+                    noteItemsById.remove(noteItem.getNote().getId());
+                    if (noteItem == activeItem) {
+                        activeItem = null;
+                    }
+                }
+            }
+            treeRoot.getChildren().remove(setItem);
+        }
+    }
+
+    /**
+     * Updates the displayed name of a renamed set; only the cell showing it changes.
+     * @param set The set that was renamed.
+     */
+    @Override
+    public void onSetChanged(NoteSet set) {
+        SetTreeItem setItem = setItemsById.get(set.getId());
+        if (setItem != null) {
+            setItem.name.set(set.getName());
+        }
+    }
+
+    /**
+     * Appends an item for a new note, if the notes of its set are loaded.
+     * @param note The note that was added.
+     */
+    @Override
+    public void onNoteAdded(Note note) {
+        SetTreeItem setItem = setItemsById.get(note.getSetId());
+        if (setItem != null) {
+            setItem.addNote(note);
         }
     }
 
     /**
-     * Ensures the SetRow corresponding to the given note's set ID is expanded.
+     * Removes the item of a deleted note, if the notes of its set are loaded.
+     * @param note The note that was deleted.
+     */
+    @Override
+    public void onNoteRemoved(Note note) {
+        NoteTreeItem noteItem = noteItemsById.remove(note.getId());
+        if (noteItem == activeItem) {
+            activeItem = null;
+        }
+        if (noteItem != null && noteItem.getParent() instanceof SetTreeItem setItem) {
+            setItem.removeNote(noteItem);
+        }
+    }
+
+    /**
+     * Updates the displayed title of a renamed note; only the cell showing it changes.
+     * @param note The note that was renamed.
+     */
+    @Override
+    public void onNoteChanged(Note note) {
+        NoteTreeItem noteItem = noteItemsById.get(note.getId());
+        if (noteItem != null) {
+            noteItem.title.set(note.getTitle());
+        }
+    }
+
+    /**
+     * Ensures the set containing the given note is expanded.
      * If the sidebar is collapsed, it expands it first.
-     * @param note The Note whose parent SetRow should be expanded. Can be null.
+     * @param note The Note whose parent set should be expanded. Can be null.
      */
     public void expandSetForNote(Note note) {
         if (isCollapsed) {
@@ -233,30 +371,203 @@ public class Sidebar extends BorderPane {
         }
         if (note == null) return;
 
-        String setId = note.getSetId();
-        for (Node child : setsPanel.getChildren()) {
-            if (child instanceof SetRow setRow) {
-                if (setRow.getNoteSet().getId().equals(setId)) {
-                    setRow.expand();
-                    break;
-                }
-            }
+        SetTreeItem setItem = setItemsById.get(note.getSetId());
+        if (setItem != null) {
+            setItem.setExpanded(true);
         }
     }
 
     /**
-     * Updates the highlighting state of all NoteRows within all SetRows.
-     * Only the NoteRow corresponding to the activeNote (if any) will be highlighted.
+     * Highlights the row of the active note.
+     * Looks the note's item up by ID and flips the active state of the previous and the new item,
+     * so at most two rows change and nothing is allocated.
      * @param activeNote The Note that is currently active/selected in the editor, or null if none.
      */
     public void updateNoteHighlighting(Note activeNote) {
-        for (Node child : setsPanel.getChildren()) {
-            if (child instanceof SetRow setRow) {
-                for (NoteRow noteRow : setRow.getNoteRows()) {
-                    boolean isActive = activeNote != null && noteRow.getNote().getId().equals(activeNote.getId());
-                    noteRow.setActive(isActive);
+        String noteId = activeNote != null ? activeNote.getId() : null;
+        if (Objects.equals(noteId, activeNoteId)) {
+            return;
+        }
+        activeNoteId = noteId;
+        if (activeItem != null) {
+            activeItem.active.set(false);
+        }
+        activeItem = noteId != null ? noteItemsById.get(noteId) : null;
+        if (activeItem != null) {
+            activeItem.active.set(true);
+        }
+    }
+
+    /**
+     * Registers a newly created note item, making it the active item if it shows the active note.
+     * @param noteItem The item to register.
+     */
+    private void registerNoteItem(NoteTreeItem noteItem) {
+        String noteId = noteItem.getNote().getId();
+        noteItemsById.put(noteId, noteItem);
+        if (noteId.equals(activeNoteId)) {
+            noteItem.active.set(true);
+            activeItem = noteItem;
+        }
+    }
+
+    /**
+     * Tree item of a note set. Its note items are created when the set is first expanded,
+     * so collapsed sets cost a single item regardless of how many notes they hold.
+     * Once loaded, the note items are kept up to date by the change events.
+     */
+    private final class SetTreeItem extends TreeItem<Object> {
+
+        // Displayed name, bound by the cell currently showing this item.
+        final StringProperty name;
+        // Child shown while the set has no notes.
+        private final TreeItem<Object> placeholder = new TreeItem<>(EMPTY_SET_PLACEHOLDER);
+        // Whether the children reflect the set's notes; false until the set is first expanded.
+        private boolean loaded = false;
+
+        /**
+         * Constructs a collapsed item for a set.
+         * @param set The set to show.
+         */
+        SetTreeItem(NoteSet set) {
+            super(set);
+            name = new SimpleStringProperty(set.getName());
+            expandedProperty().addListener((obs, wasExpanded, isExpanded) -> {
+                if (isExpanded && !loaded) {
+                    loadNotes();
+                }
+            });
+        }
+
+        /**
+         * A set is never a leaf, so it can always be expanded, even before its notes are loaded.
+         */
+        @Override
+        public boolean isLeaf() {
+            return false;
+        }
+
+        /**
+         * Creates the items for the notes currently in the set, or the placeholder if it has none.
+         */
+        private void loadNotes() {
+            loaded = true;
+            List<Note> notesInSet = appState.getNotesForSet(getNoteSet().getId());
+            List<TreeItem<Object>> noteItems = new ArrayList<>(Math.max(1, notesInSet.size()));
+            for (Note note : notesInSet) {
+                NoteTreeItem noteItem = new NoteTreeItem(note);
+                registerNoteItem(noteItem);
+                noteItems.add(noteItem);
+            }
+            if (noteItems.isEmpty()) {
+                noteItems.add(placeholder);
+            }
+            getChildren().setAll(noteItems);
+        }
+
+        /**
+         * Appends an item for a note added to the set, replacing the placeholder if shown.
+         * Does nothing before the notes are loaded; the note is picked up when they are.
+         * @param note The added note.
+         */
+        void addNote(Note note) {
+            if (!loaded) {
+                return;
+            }
+            getChildren().remove(placeholder);
+            NoteTreeItem noteItem = new NoteTreeItem(note);
+            registerNoteItem(noteItem);
+            getChildren().add(noteItem);
+        }
+
+        /**
+         * Removes the item of a deleted note, showing the placeholder if the set became empty.
+         * @param noteItem The item to remove.
+         */
+        void removeNote(NoteTreeItem noteItem) {
+            getChildren().remove(noteItem);
+            if (getChildren().isEmpty()) {
+                getChildren().add(placeholder);
+            }
+        }
+
+        /**
+         * @return The set shown by this item.
+         */
+        NoteSet getNoteSet() {
+            return (NoteSet) getValue();
+        }
+    }
+
+    /**
+     * Tree item of a note.
+     */
+    private static final class NoteTreeItem extends TreeItem<Object> {
+
+        // Displayed title, bound by the cell currently showing this item.
+        final StringProperty title;
+        // Whether the note is open in the selected editor tab, observed by the cell showing this item.
+        final BooleanProperty active = new SimpleBooleanProperty(false);
+
+        /**
+         * Constructs the item for a note.
+         * @param note The note to show.
+         */
+        NoteTreeItem(Note note) {
+            super(note);
+            title = new SimpleStringProperty(note.getTitle());
+        }
+
+        /**
+         * @return The note shown by this item.
+         */
+        Note getNote() {
+            return (Note) getValue();
+        }
+    }
+
+    /**
+     * Cell of the sets tree. Creates its SetRow, NoteRow and placeholder label once, on first use,
+     * and rebinds them to whatever item the cell shows.
+     */
+    private final class SidebarCell extends TreeCell<Object> {
+
+        private SetRow setRow;
+        private NoteRow noteRow;
+        private Label emptyLabel;
+
+        SidebarCell() {
+            getStyleClass().add("sidebar-tree-cell");
+            // SetRow draws its own arrow; an empty node replaces the default disclosure triangle.
+            setDisclosureNode(new Region());
+        }
+
+        @Override
+        protected void updateItem(Object item, boolean empty) {
+            super.updateItem(item, empty);
+            setText(null);
+            if (empty || item == null) {
+                setGraphic(null);
+            } else if (getTreeItem() instanceof SetTreeItem setItem) {
+                if (setRow == null) {
+                    setRow = new SetRow(noteSelectionListener);
+                }
+                setRow.setNoteSet(setItem.getNoteSet(), setItem.name, setItem.expandedProperty());
+                setGraphic(setRow);
+            } else if (getTreeItem() instanceof NoteTreeItem noteItem) {
+                if (noteRow == null) {
+                    noteRow = new NoteRow(noteSelectionListener);
+                }
+                noteRow.setNote(noteItem.getNote(), noteItem.title, noteItem.active);
+                setGraphic(noteRow);
+            } else {
+                if (emptyLabel == null) {
+                    emptyLabel = new Label();
+                    emptyLabel.getStyleClass().add("empty-set-label");
                 }
+                emptyLabel.setText(item.toString());
+                setGraphic(emptyLabel);
             }
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,117 @@
+package com.eureka.ui;
+
+import com.eureka.EurekaApp;
+import com.eureka.I18n;
+import com.eureka.TagIndex;
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.VBox;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Sidebar section listing the inline #tags of the vault with their note counts, most used first.
+ * Clicking a tag hands it to a callback, which restricts the search to that tag.
+ * The list is refreshed only when the {@link TagIndex} reports a change in some note's tags.
+ */
+public class TagsPanel extends VBox implements TagIndex.TagListener {
+
+    // Height of one tag row.
+    private static final double ROW_HEIGHT = 24;
+    // Maximum number of rows shown before the list scrolls.
+    private static final int MAX_VISIBLE_ROWS = 8;
+
+    // List displaying the tags and their counts.
+    private final ListView<TagIndex.TagCount> tagList;
+    // Set while a refresh is queued on the FX thread, so bursts of changes refresh the list once.
+    private final AtomicBoolean refreshPending = new AtomicBoolean(false);
+    // Called with the tag that was clicked.
+    private Consumer<String> onTagSelected = tag -> {};
+
+    /**
+     * Constructs the TagsPanel and starts listening for tag changes.
+     */
+    public TagsPanel() {
+        super(6);
+        getStyleClass().add("tags-panel");
+        setPadding(new Insets(8, 12, 0, 12));
+
+        Label header = new Label();
+        header.textProperty().bind(I18n.bind("tags.title"));
+        header.getStyleClass().add("tags-header");
+
+        tagList = new ListView<>();
+        tagList.getStyleClass().add("tag-list");
+        tagList.setFixedCellSize(ROW_HEIGHT);
+        tagList.setCellFactory(lv -> new ListCell<>() {
+            private final BorderPane pane = new BorderPane();
+            private final Label tagLabel = new Label();
+            private final Label countLabel = new Label();
+
+            {
+                countLabel.getStyleClass().add("tag-count");
+                pane.setLeft(tagLabel);
+                pane.setRight(countLabel);
+            }
+
+            @Override
+            protected void updateItem(TagIndex.TagCount item, boolean empty) {
+                super.updateItem(item, empty);
+                if (empty || item == null) {
+                    setGraphic(null);
+                } else {
+                    tagLabel.setText("#" + item.tag());
+                    countLabel.setText(String.valueOf(item.count()));
+                    setGraphic(pane);
+                }
+            }
+        });
+        tagList.setOnMouseClicked(event -> {
+            TagIndex.TagCount selected = tagList.getSelectionModel().getSelectedItem();
+            if (selected != null) {
+                onTagSelected.accept(selected.tag());
+            }
+        });
+
+        getChildren().addAll(header, tagList);
+
+        TagIndex tagIndex = EurekaApp.getSearchService().getTagIndex();
+        tagIndex.addListener(this);
+        refresh();
+    }
+
+    /**
+     * Sets the callback run when a tag is clicked.
+     * @param onTagSelected Receives the normalized tag, without the leading '#'.
+     */
+    public void setOnTagSelected(Consumer<String> onTagSelected) {
+        this.onTagSelected = onTagSelected;
+    }
+
+    /**
+     * Called by the {@link TagIndex} when tags were added, removed or recounted.
+     * Queues a single refresh on the JavaFX Application Thread.
+     */
+    @Override
+    public void onTagsChanged() {
+        if (refreshPending.compareAndSet(false, true)) {
+            Platform.runLater(this::refresh);
+        }
+    }
+
+    /**
+     * Reloads the tag counts from the index.
+     */
+    private void refresh() {
+        refreshPending.set(false);
+        List<TagIndex.TagCount> counts = EurekaApp.getSearchService().getTagIndex().getTagCounts();
+        tagList.getItems().setAll(counts);
+        tagList.setPrefHeight(Math.max(1, Math.min(counts.size(), MAX_VISIBLE_ROWS)) * ROW_HEIGHT + 2);
+    }
+}
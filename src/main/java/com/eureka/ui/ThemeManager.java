@@ -20,6 +20,14 @@ public class ThemeManager {
 
     private static final String LIGHT_CSS = "/light.css";
     private static final String DARK_CSS = "/dark.css";
+    /**
+     * Theme-independent styles of the sidebar rows, applied after the theme stylesheet.
+     */
+    private static final String SIDEBAR_CSS = "/sidebar.css";
+    /**
+     * Theme-independent styles of the search bar and results, applied after the theme stylesheet.
+     */
+    private static final String SEARCH_CSS = "/search.css";
 
     /**
      * JavaFX property holding the currently active theme.
@@ -42,7 +50,8 @@ public class ThemeManager {
     /**
      * Applies the specified theme to the given Scene.
      * Clears existing stylesheets and adds the appropriate CSS file (light.css or dark.css)
-     * based on the selected theme. Handles potential errors if CSS files are not found.
+     * based on the selected theme, followed by the sidebar and search stylesheets.
+     * Handles potential errors if CSS files are not found.
      * @param scene The Scene to which the theme stylesheet should be applied.
      * @param theme The Theme (LIGHT or DARK) to apply.
      */
@@ -51,6 +60,17 @@ public class ThemeManager {
 
         String cssPath = (theme == Theme.DARK) ? DARK_CSS : LIGHT_CSS;
 
+        addStylesheet(scene, cssPath);
+        addStylesheet(scene, SIDEBAR_CSS);
+        addStylesheet(scene, SEARCH_CSS);
+    }
+
+    /**
+     * Adds a stylesheet from the resources to the scene.
+     * @param scene   The Scene to add the stylesheet to.
+     * @param cssPath The resource path of the stylesheet.
+     */
+    private static void addStylesheet(Scene scene, String cssPath) {
         URL cssUrl = ThemeManager.class.getResource(cssPath);
 
         if (cssUrl != null) {
@@ -1,32 +1,39 @@
 package com.eureka.ui;
 
+import com.eureka.DuplicateDetector;
 import com.eureka.EurekaApp;
+import com.eureka.FxWatchdog;
 import com.eureka.I18n;
+import com.eureka.IndexReconciler;
+import com.eureka.IndexDirectoryMode;
 import com.eureka.NoteSelectionListener;
 import com.eureka.SearchService;
+import com.eureka.TagIndex;
 import com.eureka.model.AppState;
 import com.eureka.model.Note;
 
 import javafx.application.Platform;
-import javafx.collections.FXCollections;
+import javafx.geometry.Bounds;
 import javafx.geometry.Insets;
-import javafx.geometry.Side;
 import javafx.scene.Node;
 import javafx.scene.control.*;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
-import javafx.scene.input.MouseEvent;
-import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
+import javafx.stage.Popup;
 import javafx.util.Callback;
+import javafx.util.StringConverter;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.TreeSet;
 
 /**
  * Represents the top bar of the application, containing the main menu (Settings, Language, Theme)
@@ -39,27 +46,121 @@ public class TopBar extends VBox {
      * The text field used for entering search queries.
      */
     private final TextField searchField;
+    /**
+     * Toggle that switches the search into typo-tolerant (fuzzy) mode.
+     */
+    private final ToggleButton fuzzyToggle;
+    /**
+     * Toggle that switches the search into structured mode (phrases, boolean operators, fields, regex).
+     * Shares a toggle group with {@link #fuzzyToggle}, so at most one of them is selected.
+     */
+    private final ToggleButton structuredToggle;
+    /**
+     * Shows why the current structured query is invalid. Hidden while the query is valid.
+     */
+    private final Label queryErrorLabel;
+    /**
+     * Says that the search ran out of time and more notes may match. Hidden for complete results.
+     */
+    private final Label partialResultsLabel;
+    /**
+     * Menu item that rebuilds the search index. Disabled while an index build is running.
+     */
+    private MenuItem rebuildIndexItem;
+    /**
+     * Shows the active tag filter; clicking it removes the filter. Hidden while no tag is selected.
+     */
+    private final Button tagFilterButton;
+    /**
+     * The normalized tag the search is restricted to, or null for none.
+     */
+    private String activeTag;
+    /**
+     * Drop-down restricting the search to one set. Shows the per-set match counts of the last search.
+     */
+    private final ComboBox<SetFacet> setFilterBox;
+    /**
+     * Drop-down restricting the search to notes created or updated within a recent time window.
+     */
+    private final ComboBox<DateRange> dateFilterBox;
+    /**
+     * Drop-down choosing whether the date filter applies to the creation or the update time.
+     */
+    private final ComboBox<DateField> dateFieldBox;
+    /**
+     * True while the set drop-down is being refilled with new counts, so that does not trigger a search.
+     */
+    private boolean updatingSetFacets = false;
+    /**
+     * Progress bar shown in the search area while the search index is being rebuilt.
+     */
+    private final ProgressBar indexProgressBar;
     /**
      * Listener to notify when a note is selected from the search results.
      */
     private final NoteSelectionListener noteSelectionListener;
     /**
-     * ListView used inside the popup to display search results.
+     * Editor area whose cap on live editors is set from the Settings menu.
+     */
+    private final EditorContainer editorContainer;
+    /**
+     * Virtualized list of the results of the newest query.
+     */
+    private final SearchResultsPanel searchResultsPanel;
+    /**
+     * Popup showing the searchResultsPanel below the search field.
+     */
+    private final Popup searchResultsPopup;
+
+    /**
+     * An entry of the set filter drop-down.
+     * @param setId The ID of the set, or null for the "all sets" entry.
+     * @param count The number of notes in the set that matched the last search.
      */
-    private final ListView<SearchService.SearchResult> searchResultsList;
+    private record SetFacet(String setId, int count) {}
+
+    /**
+     * Time windows offered by the date filter, measured back from the current time.
+     */
+    private enum DateRange {
+        ANY("search.filter.anyTime", 0),
+        DAY("search.filter.pastDay", 1),
+        WEEK("search.filter.pastWeek", 7),
+        MONTH("search.filter.pastMonth", 30),
+        YEAR("search.filter.pastYear", 365);
+
+        private final String labelKey;
+        private final long days;
+
+        DateRange(String labelKey, long days) {
+            this.labelKey = labelKey;
+            this.days = days;
+        }
+    }
+
     /**
-     * ContextMenu acting as a popup to show the searchResultsList below the search field.
+     * The note timestamps the date filter can apply to.
      */
-    private final ContextMenu searchResultsPopup;
+    private enum DateField {
+        UPDATED("search.filter.updated"),
+        CREATED("search.filter.created");
+
+        private final String labelKey;
+
+        DateField(String labelKey) {
+            this.labelKey = labelKey;
+        }
+    }
 
     /**
      * Constructs the TopBar component.
      * Initializes the menu bar, search area, search field, and search results popup.
      * Sets up the layout and wires up the search functionality.
-     * @param listener The listener to be notified when a note is selected from search results.
+     * @param editorContainer The editor area, notified when a note is selected from search results.
      */
-    public TopBar(NoteSelectionListener listener) {
-        this.noteSelectionListener = listener;
+    public TopBar(EditorContainer editorContainer) {
+        this.noteSelectionListener = editorContainer;
+        this.editorContainer = editorContainer;
 
         MenuBar menuBar = createMenuBar();
 
@@ -77,25 +178,116 @@ public class TopBar extends VBox {
         searchField.getStyleClass().add("search-field");
         HBox.setHgrow(searchField, Priority.ALWAYS);
 
-        searchArea.getChildren().addAll(title, searchField);
+        fuzzyToggle = new ToggleButton();
+        fuzzyToggle.textProperty().bind(I18n.bind("search.fuzzy"));
+        fuzzyToggle.getStyleClass().add("search-mode-toggle");
 
-        this.getChildren().addAll(menuBar, searchArea);
+        structuredToggle = new ToggleButton();
+        structuredToggle.textProperty().bind(I18n.bind("search.structured"));
+        structuredToggle.getStyleClass().add("search-mode-toggle");
+        Tooltip structuredTooltip = new Tooltip();
+        structuredTooltip.textProperty().bind(I18n.bind("search.structured.tooltip"));
+        structuredToggle.setTooltip(structuredTooltip);
 
-        searchResultsList = new ListView<>();
-        searchResultsList.getStyleClass().add("search-results-list");
-        searchResultsList.setStyle("-fx-border-color: transparent;");
+        ToggleGroup modeGroup = new ToggleGroup();
+        fuzzyToggle.setToggleGroup(modeGroup);
+        structuredToggle.setToggleGroup(modeGroup);
 
-        CustomMenuItem menuItem = new CustomMenuItem(searchResultsList, false);
-        searchResultsPopup = new ContextMenu(menuItem);
-        searchResultsPopup.getStyleClass().add("search-popup");
+        setFilterBox = new ComboBox<>();
+        setFilterBox.getStyleClass().add("search-filter");
+        setFilterBox.setConverter(new StringConverter<>() {
+            @Override
+            public String toString(SetFacet facet) {
+                if (facet == null) return "";
+                String name = facet.setId() == null
+                        ? I18n.get("search.filter.allSets")
+                        : AppState.getInstance().getSetById(facet.setId()).map(set -> set.getName()).orElse("?");
+                return facet.count() > 0 ? name + " (" + facet.count() + ")" : name;
+            }
+
+            @Override
+            public SetFacet fromString(String string) {
+                return null;
+            }
+        });
+        setFilterBox.getItems().add(new SetFacet(null, 0));
+        setFilterBox.getSelectionModel().selectFirst();
+
+        dateFilterBox = new ComboBox<>();
+        dateFilterBox.getStyleClass().add("search-filter");
+        dateFilterBox.setConverter(new StringConverter<>() {
+            @Override
+            public String toString(DateRange range) {
+                return range == null ? "" : I18n.get(range.labelKey);
+            }
+
+            @Override
+            public DateRange fromString(String string) {
+                return null;
+            }
+        });
+        dateFilterBox.getItems().addAll(DateRange.values());
+        dateFilterBox.getSelectionModel().select(DateRange.ANY);
+
+        dateFieldBox = new ComboBox<>();
+        dateFieldBox.getStyleClass().add("search-filter");
+        dateFieldBox.setConverter(new StringConverter<>() {
+            @Override
+            public String toString(DateField field) {
+                return field == null ? "" : I18n.get(field.labelKey);
+            }
+
+            @Override
+            public DateField fromString(String string) {
+                return null;
+            }
+        });
+        dateFieldBox.getItems().addAll(DateField.values());
+        dateFieldBox.getSelectionModel().select(DateField.UPDATED);
+
+        indexProgressBar = new ProgressBar(0);
+        indexProgressBar.getStyleClass().add("index-progress");
+        indexProgressBar.setVisible(false);
+        indexProgressBar.setManaged(false);
+
+        tagFilterButton = new Button();
+        tagFilterButton.getStyleClass().add("tag-filter");
+        tagFilterButton.setVisible(false);
+        tagFilterButton.setManaged(false);
+        tagFilterButton.setOnAction(e -> filterByTag(null));
+
+        searchArea.getChildren().addAll(title, searchField, tagFilterButton, setFilterBox, dateFieldBox,
+                dateFilterBox, fuzzyToggle, structuredToggle, indexProgressBar);
+
+        queryErrorLabel = new Label();
+        queryErrorLabel.getStyleClass().add("query-error");
+        queryErrorLabel.setPadding(new Insets(0, 12, 4, 204));
+        queryErrorLabel.setVisible(false);
+        queryErrorLabel.setManaged(false);
+
+        partialResultsLabel = new Label();
+        partialResultsLabel.textProperty().bind(I18n.bind("search.partialResults"));
+        partialResultsLabel.getStyleClass().add("search-notice");
+        partialResultsLabel.setPadding(new Insets(0, 12, 4, 204));
+        partialResultsLabel.setVisible(false);
+        partialResultsLabel.setManaged(false);
+
+        this.getChildren().addAll(menuBar, searchArea, queryErrorLabel, partialResultsLabel);
+
+        searchResultsPanel = new SearchResultsPanel(this::openNoteFromResult);
+        searchResultsPanel.getStyleClass().add("search-popup");
+
+        searchResultsPopup = new Popup();
+        searchResultsPopup.getContent().add(searchResultsPanel);
         searchResultsPopup.setAutoHide(true);
+        searchResultsPopup.setHideOnEscape(true);
 
         setupSearchFunctionality();
     }
 
     /**
      * Creates and configures the main MenuBar for the application.
-     * Includes menus for Settings, Language, and Theme.
+     * Includes menus for Settings, Language, Theme and the number of open editors.
      * Uses internationalized strings for menu texts.
      * @return The configured MenuBar.
      */
@@ -117,6 +309,8 @@ public class TopBar extends VBox {
         languages.put("Deutsch", Locale.GERMAN);
         languages.put("Español", new Locale("es"));
         languages.put("Українська", new Locale("uk"));
+        // Load the offered languages in the background so switching is instant.
+        I18n.preload(languages.values());
 
         ToggleGroup langToggleGroup = new ToggleGroup();
         for (Map.Entry<String, Locale> entry : languages.entrySet()) {
@@ -146,26 +340,176 @@ public class TopBar extends VBox {
             themeMenu.getItems().add(themeItem);
         }
 
-        settingsMenu.getItems().addAll(languageMenu, themeMenu);
+        // --- Index Storage Submenu (applies on next start) ---
+        Menu indexStorageMenu = new Menu();
+        indexStorageMenu.textProperty().bind(I18n.bind("menu.indexStorage"));
+        ToggleGroup indexStorageToggleGroup = new ToggleGroup();
+        IndexDirectoryMode currentMode = IndexDirectoryMode.load();
+
+        for (IndexDirectoryMode mode : IndexDirectoryMode.values()) {
+            RadioMenuItem modeItem = new RadioMenuItem(mode.name());
+            modeItem.setToggleGroup(indexStorageToggleGroup);
+            modeItem.setUserData(mode);
+            if (currentMode == mode) {
+                modeItem.setSelected(true);
+            }
+            modeItem.setOnAction(e -> ((IndexDirectoryMode) modeItem.getUserData()).save());
+            indexStorageMenu.getItems().add(modeItem);
+        }
+
+        // --- Open Editors Submenu (how many tabs keep a live editor) ---
+        Menu openEditorsMenu = new Menu();
+        openEditorsMenu.textProperty().bind(I18n.bind("menu.openEditors"));
+        ToggleGroup openEditorsToggleGroup = new ToggleGroup();
+        TreeSet<Integer> caps = new TreeSet<>(List.of(4, 8, 16, 32));
+        caps.add(editorContainer.getMaxHydratedTabs());
+
+        for (int cap : caps) {
+            RadioMenuItem capItem = new RadioMenuItem(String.valueOf(cap));
+            capItem.setToggleGroup(openEditorsToggleGroup);
+            capItem.setUserData(cap);
+            if (editorContainer.getMaxHydratedTabs() == cap) {
+                capItem.setSelected(true);
+            }
+            capItem.setOnAction(e -> editorContainer.setMaxHydratedTabs((Integer) capItem.getUserData()));
+            openEditorsMenu.getItems().add(capItem);
+        }
+
+        // --- Rebuild Search Index ---
+        rebuildIndexItem = new MenuItem();
+        rebuildIndexItem.textProperty().bind(I18n.bind("menu.rebuildIndex"));
+        rebuildIndexItem.setOnAction(e -> rebuildSearchIndex(rebuildIndexItem));
+
+        // --- Find Near-Duplicate Notes ---
+        MenuItem duplicatesItem = new MenuItem();
+        duplicatesItem.textProperty().bind(I18n.bind("menu.findDuplicates"));
+        duplicatesItem.setOnAction(e -> findDuplicates(duplicatesItem));
+
+        // --- Check Index Integrity ---
+        MenuItem checkIndexItem = new MenuItem();
+        checkIndexItem.textProperty().bind(I18n.bind("menu.checkIndex"));
+        checkIndexItem.setOnAction(e -> checkSearchIndex(checkIndexItem));
+
+        // --- Diagnostics (the watchdog setting applies on next start) ---
+        CheckMenuItem watchdogItem = new CheckMenuItem();
+        watchdogItem.textProperty().bind(I18n.bind("menu.watchdog"));
+        watchdogItem.setSelected(FxWatchdog.isEnabled());
+        watchdogItem.setOnAction(e -> FxWatchdog.setEnabled(watchdogItem.isSelected()));
+
+        MenuItem diagnosticsItem = new MenuItem();
+        diagnosticsItem.textProperty().bind(I18n.bind("menu.diagnostics"));
+        diagnosticsItem.setOnAction(e -> new DiagnosticsDialog(EurekaApp.getWatchdog()).show());
+
+        settingsMenu.getItems().addAll(languageMenu, themeMenu, openEditorsMenu, new SeparatorMenuItem(), indexStorageMenu,
+                rebuildIndexItem, checkIndexItem, duplicatesItem, new SeparatorMenuItem(), watchdogItem, diagnosticsItem);
         menuBar.getMenus().add(settingsMenu);
         return menuBar;
     }
 
     /**
-     * Sets up the event listeners and cell factory for the search field and search results list.
-     * Handles text changes, focus changes, key presses (Down, Enter, Escape), and mouse clicks
-     * to perform searches, navigate results, open notes, and hide the popup.
+     * Rebuilds the search index in the background using all available processors.
+     * Shows the rebuild progress in the search area and disables the menu item until done.
+     * @param trigger The menu item that started the rebuild.
+     */
+    private void rebuildSearchIndex(MenuItem trigger) {
+        trigger.setDisable(true);
+        indexProgressBar.setProgress(0);
+        indexProgressBar.setVisible(true);
+        indexProgressBar.setManaged(true);
+        SearchService service = EurekaApp.getSearchService();
+        List<Note> notes = service.snapshotForRebuild();
+
+        new Thread(() -> {
+            try {
+                service.rebuildIndex(notes, Runtime.getRuntime().availableProcessors(),
+                        (indexed, total) -> Platform.runLater(() ->
+                                indexProgressBar.setProgress(total == 0 ? 1 : (double) indexed / total)));
+            } catch (IOException e) {
+                System.err.println("Error rebuilding the search index:");
+                e.printStackTrace();
+            } finally {
+                Platform.runLater(() -> {
+                    indexProgressBar.setVisible(false);
+                    indexProgressBar.setManaged(false);
+                    trigger.setDisable(false);
+                });
+            }
+        }, "search-rebuild-ui").start();
+    }
+
+    /**
+     * Compares the search index with the notes in the background, repairs any drift,
+     * and reports what was found. Disables the menu item until the check is done.
+     * @param trigger The menu item that started the check.
+     */
+    private void checkSearchIndex(MenuItem trigger) {
+        trigger.setDisable(true);
+        new Thread(() -> {
+            try {
+                IndexReconciler.Report report = EurekaApp.getSearchService().getReconciler().runNow();
+                Platform.runLater(() -> {
+                    Alert alert = new Alert(Alert.AlertType.INFORMATION);
+                    alert.titleProperty().bind(I18n.bind("menu.checkIndex"));
+                    alert.setHeaderText(I18n.get("index.check.result", report.drift()));
+                    alert.setContentText(report.toString());
+                    alert.show();
+                });
+            } catch (Exception e) {
+                System.err.println("Error checking the search index:");
+                e.printStackTrace();
+            } finally {
+                Platform.runLater(() -> trigger.setDisable(false));
+            }
+        }, "index-check-ui").start();
+    }
+
+    /**
+     * Scans the vault for near-duplicate notes in the background and shows the clusters in a dialog.
+     * Disables the menu item until the scan is done.
+     * @param trigger The menu item that started the scan.
+     */
+    private void findDuplicates(MenuItem trigger) {
+        trigger.setDisable(true);
+        new Thread(() -> {
+            try {
+                List<DuplicateDetector.DuplicateCluster> clusters = EurekaApp.getSearchService()
+                        .getDuplicateDetector().findClusters(DuplicateDetector.DEFAULT_THRESHOLD);
+                Platform.runLater(() -> new DuplicatesDialog(clusters, noteSelectionListener).show());
+            } catch (Exception e) {
+                System.err.println("Error scanning for duplicate notes:");
+                e.printStackTrace();
+            } finally {
+                Platform.runLater(() -> trigger.setDisable(false));
+            }
+        }, "duplicate-scan-ui").start();
+    }
+
+    /**
+     * Sets up the event listeners for the search field and search results panel.
+     * Handles text changes, focus changes and key presses (Down, Escape) to perform searches,
+     * move into the results, and hide the popup. Opening results is handled by the panel.
      */
     private void setupSearchFunctionality() {
         searchField.textProperty().addListener((obs, oldVal, newVal) -> {
             String trimmedQuery = (newVal != null) ? newVal.trim() : "";
             if (trimmedQuery.isEmpty()) {
-                searchResultsPopup.hide();
+                hideSearchResults();
+                showQueryError(null);
             } else {
                 performSearch(trimmedQuery);
             }
         });
 
+        fuzzyToggle.selectedProperty().addListener((obs, oldVal, newVal) -> refreshSearch());
+        structuredToggle.selectedProperty().addListener((obs, oldVal, newVal) -> refreshSearch());
+        dateFilterBox.valueProperty().addListener((obs, oldVal, newVal) -> refreshSearch());
+        dateFieldBox.valueProperty().addListener((obs, oldVal, newVal) -> refreshSearch());
+        setFilterBox.valueProperty().addListener((obs, oldVal, newVal) -> {
+            if (!updatingSetFacets) {
+                refreshSearch();
+            }
+        });
+
         searchField.focusedProperty().addListener((obs, oldVal, newVal) -> {
             if (!newVal && searchResultsPopup.isShowing()) {
             }
@@ -175,8 +519,7 @@ public class TopBar extends VBox {
         searchField.setOnKeyPressed((KeyEvent event) -> {
             if (searchResultsPopup.isShowing()) {
                 if (event.getCode() == KeyCode.DOWN) {
-                    searchResultsList.requestFocus();
-                    searchResultsList.getSelectionModel().select(0);
+                    searchResultsPanel.focusFirst();
                     event.consume();
                 } else if (event.getCode() == KeyCode.ESCAPE) {
                     searchResultsPopup.hide();
@@ -185,114 +528,248 @@ public class TopBar extends VBox {
             }
         });
 
-        searchResultsList.setOnKeyPressed((KeyEvent event) -> {
-            if (event.getCode() == KeyCode.ENTER) {
-                SearchService.SearchResult selected = searchResultsList.getSelectionModel().getSelectedItem();
-                if (selected != null) {
-                    openNoteFromResult(selected);
-                }
-                event.consume();
-            } else if (event.getCode() == KeyCode.ESCAPE) {
+        searchResultsPanel.addEventHandler(KeyEvent.KEY_PRESSED, event -> {
+            if (event.getCode() == KeyCode.ESCAPE) {
                 searchResultsPopup.hide();
                 searchField.requestFocus();
                 event.consume();
             }
         });
+    }
 
-        searchResultsList.setOnMouseClicked((MouseEvent event) -> {
-            SearchService.SearchResult selected = searchResultsList.getSelectionModel().getSelectedItem();
-            if (selected != null) {
-                openNoteFromResult(selected);
-            }
-        });
+    /**
+     * Re-runs the search for the current text of the search field, e.g. after a filter changed.
+     */
+    private void refreshSearch() {
+        String trimmedQuery = searchField.getText() != null ? searchField.getText().trim() : "";
+        if (!trimmedQuery.isEmpty() || activeTag != null) {
+            performSearch(trimmedQuery);
+        }
+    }
 
-        searchResultsList.setCellFactory(lv -> new ListCell<SearchService.SearchResult>() {
-            private final BorderPane pane = new BorderPane();
-            private final Label mainLabel = new Label();
-            private final Label wordIndexLabel = new Label();
+    /**
+     * Enables or disables searching, e.g. while the index is built at startup.
+     * While disabled, the search field says so, the index progress bar is shown, and the index
+     * cannot be rebuilt, so no second build starts alongside the running one.
+     * @param ready true once the search index is ready.
+     */
+    public void setSearchReady(boolean ready) {
+        searchField.setDisable(!ready);
+        rebuildIndexItem.setDisable(!ready);
+        searchField.promptTextProperty().unbind();
+        searchField.promptTextProperty().bind(I18n.bind(ready ? "search.prompt" : "search.indexing"));
+        indexProgressBar.setProgress(ready ? 1 : 0);
+        indexProgressBar.setVisible(!ready);
+        indexProgressBar.setManaged(!ready);
+    }
 
-            {
-                mainLabel.getStyleClass().add("result-title");
-                wordIndexLabel.getStyleClass().add("result-word-index");
-                pane.setLeft(mainLabel);
-                pane.setRight(wordIndexLabel);
-            }
+    /**
+     * Shows the progress of an index build started outside the TopBar, e.g. at startup.
+     * Can be called from any thread.
+     * @param indexed The number of notes indexed so far.
+     * @param total   The total number of notes to index.
+     */
+    public void showIndexProgress(int indexed, int total) {
+        Platform.runLater(() -> indexProgressBar.setProgress(total == 0 ? 1 : (double) indexed / total));
+    }
 
-            /**
-             * Called by JavaFX to update the content of the cell.
-             * Sets the text of the labels based on the SearchResult item.
-             * @param item  The SearchResult item for this cell, or null if the cell is empty.
-             * @param empty True if the cell is empty, false otherwise.
-             */
-            @Override
-            protected void updateItem(SearchService.SearchResult item, boolean empty) {
-                super.updateItem(item, empty);
-                if (empty || item == null) {
-                    setGraphic(null);
-                } else {
-                    mainLabel.setText(item.setName() + "  ›  " + item.title());
-                    wordIndexLabel.setText("Word: " + item.wordIndex());
-                    setGraphic(pane);
-                }
+    /**
+     * Restricts the search to notes containing a tag, e.g. when a tag is clicked in the sidebar.
+     * With an empty search field, the notes of the tag are listed.
+     * @param tag The tag to filter by, or null to remove the tag filter.
+     */
+    public void filterByTag(String tag) {
+        activeTag = tag == null ? null : TagIndex.normalize(tag);
+        boolean show = activeTag != null;
+        tagFilterButton.setText(show ? "#" + activeTag + "  \u2715" : "");
+        tagFilterButton.setVisible(show);
+        tagFilterButton.setManaged(show);
+        if (show) {
+            searchField.requestFocus();
+            refreshSearch();
+        } else if (searchField.getText() == null || searchField.getText().isBlank()) {
+            hideSearchResults();
+        } else {
+            refreshSearch();
+        }
+    }
+
+    /**
+     * Builds the search filter from the current state of the set and date drop-downs and the tag filter.
+     * @return The filter to apply to the next search.
+     */
+    private SearchService.SearchFilter currentFilter() {
+        SearchService.SearchFilter filter = SearchService.SearchFilter.NONE;
+        SetFacet setFacet = setFilterBox.getValue();
+        if (setFacet != null && setFacet.setId() != null) {
+            filter = filter.withSet(setFacet.setId());
+        }
+        DateRange range = dateFilterBox.getValue();
+        if (range != null && range != DateRange.ANY) {
+            long cutoff = System.currentTimeMillis() - range.days * 24L * 60 * 60 * 1000;
+            filter = dateFieldBox.getValue() == DateField.CREATED
+                    ? filter.withCreatedBetween(cutoff, Long.MAX_VALUE)
+                    : filter.withUpdatedBetween(cutoff, Long.MAX_VALUE);
+        }
+        if (activeTag != null) {
+            filter = filter.withTag(activeTag);
+        }
+        return filter;
+    }
+
+    /**
+     * Refills the set drop-down with the per-set counts of the latest search,
+     * keeping the current selection even if that set had no matches.
+     * @param setCounts Match counts keyed by set ID, largest first.
+     */
+    private void updateSetFacets(Map<String, Integer> setCounts) {
+        SetFacet selected = setFilterBox.getValue();
+        String selectedSetId = selected != null ? selected.setId() : null;
+
+        List<SetFacet> facets = new ArrayList<>();
+        int total = setCounts.values().stream().mapToInt(Integer::intValue).sum();
+        facets.add(new SetFacet(null, total));
+        SetFacet toSelect = facets.get(0);
+        for (Map.Entry<String, Integer> entry : setCounts.entrySet()) {
+            SetFacet facet = new SetFacet(entry.getKey(), entry.getValue());
+            facets.add(facet);
+            if (entry.getKey().equals(selectedSetId)) {
+                toSelect = facet;
             }
-        });
+        }
+        if (selectedSetId != null && !setCounts.containsKey(selectedSetId)) {
+            toSelect = new SetFacet(selectedSetId, 0);
+            facets.add(toSelect);
+        }
+
+        updatingSetFacets = true;
+        setFilterBox.getItems().setAll(facets);
+        setFilterBox.getSelectionModel().select(toSelect);
+        updatingSetFacets = false;
     }
 
     /**
      * Performs the search asynchronously in a background thread.
-     * Updates the search results popup on the JavaFX Application Thread.
+     * Uses the mode of the selected toggle and applies the set and date filters.
+     * Results are streamed into the results panel batch by batch on the JavaFX Application Thread;
+     * the set counts are updated once the search completes. Each search starts a new generation of
+     * the panel, so only the newest query's results are shown and superseded searches stop early.
+     * Invalid structured queries are reported below the search field instead.
      * @param query The search query string.
      */
     private void performSearch(String query) {
+        SearchService.SearchMode mode = fuzzyToggle.isSelected() ? SearchService.SearchMode.FUZZY
+                : structuredToggle.isSelected() ? SearchService.SearchMode.STRUCTURED
+                : SearchService.SearchMode.PREFIX;
+        SearchService.SearchFilter filter = currentFilter();
+        long generation = searchResultsPanel.startQuery(query);
         new Thread(() -> {
             try {
-                List<SearchService.SearchResult> results = EurekaApp.getSearchService().search(query);
+                SearchService.SearchResponse response = EurekaApp.getSearchService().search(query, mode, filter,
+                        batch -> {
+                            Platform.runLater(() -> {
+                                if (searchResultsPanel.appendBatch(generation, batch)) {
+                                    showSearchResults();
+                                }
+                            });
+                            return searchResultsPanel.isCurrent(generation);
+                        });
                 Platform.runLater(() -> {
-                    if (results.isEmpty()) {
+                    if (!searchResultsPanel.complete(generation)) {
+                        return;
+                    }
+                    showQueryError(null);
+                    showPartialResults(response.partial());
+                    updateSetFacets(response.setCounts());
+                    if (searchResultsPanel.isEmpty()) {
                         searchResultsPopup.hide();
                     } else {
-                        searchResultsList.setItems(FXCollections.observableArrayList(results));
                         showSearchResults();
                     }
                 });
+            } catch (SearchService.QuerySyntaxException e) {
+                Platform.runLater(() -> {
+                    if (searchResultsPanel.isCurrent(generation)) {
+                        hideSearchResults();
+                        showQueryError(e.getMessage());
+                    }
+                });
             } catch (Exception e) {
 
                 e.printStackTrace();
             }
-        }).start();
+        }, "search-query").start();
+    }
+
+    /**
+     * Shows or hides the notice that the last search was cut short by its time budget,
+     * so an empty or short result list is not mistaken for "no matches".
+     * @param partial true if the results are incomplete.
+     */
+    private void showPartialResults(boolean partial) {
+        partialResultsLabel.setVisible(partial);
+        partialResultsLabel.setManaged(partial);
+    }
+
+    /**
+     * Shows or hides the query error below the search field.
+     * @param message The error to show, or null to hide the label.
+     */
+    private void showQueryError(String message) {
+        boolean show = message != null;
+        queryErrorLabel.setText(show ? I18n.get("search.invalidQuery", message) : "");
+        queryErrorLabel.setVisible(show);
+        queryErrorLabel.setManaged(show);
+        if (show) {
+            if (!searchField.getStyleClass().contains("search-field-error")) {
+                searchField.getStyleClass().add("search-field-error");
+            }
+        } else {
+            searchField.getStyleClass().remove("search-field-error");
+        }
     }
 
     /**
      * Handles opening a note selected from the search results.
-     * Finds the corresponding Note object and notifies the NoteSelectionListener.
-     * Hides the search popup and clears the search field.
+     * Finds the corresponding Note object, locates the first match of the shown query in its content
+     * and notifies the NoteSelectionListener. Hides the search popup and clears the search field.
      * @param result The SearchResult object selected by the user.
      */
     private void openNoteFromResult(SearchService.SearchResult result) {
         Optional<Note> noteOpt = AppState.getInstance().getNoteById(result.noteId());
+        String query = searchResultsPanel.getQuery() != null ? searchResultsPanel.getQuery() : result.query();
         noteOpt.ifPresent(note -> {
-            noteSelectionListener.onNoteSelectedFromSearch(note, result.position(), result.wordIndex(), result.query());
+            SearchService.MatchLocation match = EurekaApp.getSearchService().locateMatch(note, query, result.mode());
+            if (match != null) {
+                noteSelectionListener.onNoteSelectedFromSearch(note, match.position(), match.length());
+            } else {
+                noteSelectionListener.onNoteSelectedFromSearch(note, -1, 0);
+            }
         });
         searchResultsPopup.hide();
         searchField.clear();
     }
 
     /**
-     * Shows the search results popup below the search field.
-     * Adjusts the width and height of the popup list based on the search field width
-     * and the number of results, up to a maximum height.
+     * Shows the search results popup below the search field, as wide as the field.
+     * The panel sizes itself to its results.
      */
     private void showSearchResults() {
-        searchResultsList.setPrefWidth(searchField.getWidth());
-
-        int itemCount = searchResultsList.getItems().size();
-        double itemHeight = 30;
-        double maxHeight = 400;
-        double newHeight = Math.min(itemCount * itemHeight, maxHeight);
-        searchResultsList.setPrefHeight(newHeight);
-
-        if (!searchResultsPopup.isShowing()) {
-            searchResultsPopup.show(searchField, Side.BOTTOM, 0, 5);
+        searchResultsPanel.setListWidth(searchField.getWidth());
+        if (!searchResultsPopup.isShowing() && searchField.getScene() != null) {
+            Bounds fieldBounds = searchField.localToScreen(searchField.getBoundsInLocal());
+            searchResultsPopup.getScene().getStylesheets().setAll(searchField.getScene().getStylesheets());
+            searchResultsPopup.show(searchField, fieldBounds.getMinX(), fieldBounds.getMaxY() + 5);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Hides the search results popup and the partial-results notice, and clears the results,
+     * dropping those of any running search.
+     */
+    private void hideSearchResults() {
+        searchResultsPopup.hide();
+        searchResultsPanel.clear();
+        showPartialResults(false);
+    }
+}
@@ -0,0 +1,129 @@
+package com.eureka;
+
+import com.eureka.model.Note;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the MinHash banding and the clustering of {@link DuplicateDetector}.
+ */
+class DuplicateDetectorTest {
+
+    private DuplicateDetector detector;
+
+    @BeforeEach
+    void setUp() {
+        detector = new DuplicateDetector();
+    }
+
+    @AfterEach
+    void tearDown() {
+        detector.close();
+    }
+
+    @Test
+    void identicalNotesFormOneClusterWithFullSimilarity() throws InterruptedException {
+        Note original = note(words(0, 200));
+        Note copy = note(words(0, 200).toUpperCase());
+        Note other = note(words(1_000, 200));
+        detector.rebuild(List.of(original, copy, other));
+
+        List<DuplicateDetector.DuplicateCluster> clusters = detector.findClusters(DuplicateDetector.DEFAULT_THRESHOLD);
+
+        assertEquals(1, clusters.size());
+        assertEquals(Set.of(original.getId(), copy.getId()), Set.copyOf(clusters.get(0).noteIds()));
+        assertEquals(1.0, clusters.get(0).similarity());
+    }
+
+    @Test
+    void clustersJoinNotesThatAreOnlySimilarThroughAnotherNote() throws InterruptedException {
+        // Each note is the previous one shifted by 25 words: neighbours share about 77% of their
+        // shingles, the first and last only about 59%.
+        Note first = note(words(0, 200));
+        Note middle = note(words(25, 200));
+        Note last = note(words(50, 200));
+        detector.rebuild(List.of(first, middle, last));
+
+        List<DuplicateDetector.DuplicateCluster> clusters = detector.findClusters(0.68);
+
+        assertEquals(1, clusters.size());
+        assertEquals(Set.of(first.getId(), middle.getId(), last.getId()), Set.copyOf(clusters.get(0).noteIds()));
+        assertTrue(clusters.get(0).similarity() >= 0.68);
+
+        detector.remove(middle.getId());
+        assertTrue(detector.findClusters(0.68).isEmpty());
+    }
+
+    @Test
+    void dissimilarNotesAreNotClustered() throws InterruptedException {
+        detector.rebuild(List.of(note(words(0, 200)), note(words(100, 200))));
+
+        assertTrue(detector.findClusters(DuplicateDetector.DEFAULT_THRESHOLD).isEmpty());
+    }
+
+    @Test
+    void signaturesIgnoreCaseAndPunctuationButNeedOneShingle() {
+        assertNull(DuplicateDetector.signature("only four words here"));
+        assertArrayEquals(DuplicateDetector.signature("five words make a shingle"),
+                DuplicateDetector.signature("Five words, make a shingle!"));
+    }
+
+    @Test
+    void updatesAndRemovalsAreAppliedIncrementally() throws InterruptedException {
+        Note original = note(words(0, 200));
+        Note draft = note(words(500, 200));
+        detector.rebuild(List.of(original, draft));
+        assertTrue(detector.findClusters(DuplicateDetector.DEFAULT_THRESHOLD).isEmpty());
+
+        draft.setContent(original.getContent());
+        detector.update(draft);
+        assertEquals(1, detector.findClusters(DuplicateDetector.DEFAULT_THRESHOLD).size());
+
+        detector.remove(draft.getId());
+        assertTrue(detector.findClusters(DuplicateDetector.DEFAULT_THRESHOLD).isEmpty());
+    }
+
+    @Test
+    void updatesQueuedAfterARebuildWinOverItsSnapshot() throws InterruptedException {
+        Note original = note(words(0, 200));
+        Note draft = note(words(500, 200));
+        detector.update(draft);
+        detector.rebuild(List.of(original, draft));
+        draft.setContent(original.getContent());
+        detector.update(draft);
+        Note added = note(original.getContent());
+        detector.update(added);
+        detector.remove(original.getId());
+
+        List<DuplicateDetector.DuplicateCluster> clusters = detector.findClusters(DuplicateDetector.DEFAULT_THRESHOLD);
+
+        assertEquals(1, clusters.size());
+        assertEquals(Set.of(draft.getId(), added.getId()), Set.copyOf(clusters.get(0).noteIds()));
+    }
+
+    private static Note note(String content) {
+        Note note = new Note("set", "Note");
+        note.setContent(content);
+        return note;
+    }
+
+    /**
+     * Builds a text of distinct words w{from} .. w{from + count - 1}.
+     */
+    private static String words(int from, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = from; i < from + count; i++) {
+            text.append('w').append(i).append(' ');
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,69 @@
+package com.eureka;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Formattable;
+import java.util.Formatter;
+import java.util.Locale;
+import java.util.MissingFormatArgumentException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests that compiled {@link I18n.Message}s format exactly like String.format on their pattern.
+ */
+class I18nTest {
+
+    @Test
+    void stringSlotsMatchStringFormat() {
+        assertFormatsLike("Found %s notes in %s", "12", "Work");
+        assertFormatsLike("%s%s", "a", null);
+        assertFormatsLike("Value: %s", 42);
+        assertFormatsLike("Keep %s literally", "%d and %s");
+    }
+
+    @Test
+    void escapesAndLineSeparatorsMatchStringFormat() {
+        assertFormatsLike("100%% done%nnext: %s", "tags");
+        assertFormatsLike("No arguments at all");
+    }
+
+    @Test
+    void numbersAndOtherConversionsMatchStringFormat() {
+        assertFormatsLike("%d notes", 42);
+        assertFormatsLike("%d notes", 4_000_000_000L);
+        assertFormatsLike("%5s|%-5s|", "a", "b");
+        assertFormatsLike("%2$s before %1$s", "one", "two");
+        assertFormatsLike("%.1f%%", 12.345);
+    }
+
+    @Test
+    void numbersFollowTheDefaultFormatLocale() {
+        Locale previous = Locale.getDefault(Locale.Category.FORMAT);
+        try {
+            Locale.setDefault(Locale.Category.FORMAT, Locale.forLanguageTag("th-TH-u-nu-thai"));
+            assertFormatsLike("%d notes", 42);
+            assertFormatsLike("%s notes", 42);
+        } finally {
+            Locale.setDefault(Locale.Category.FORMAT, previous);
+        }
+    }
+
+    @Test
+    void formattableArgumentsMatchStringFormat() {
+        Formattable shouting = (Formatter formatter, int flags, int width, int precision) ->
+                formatter.format("LOUD");
+        assertFormatsLike("Say %s", shouting);
+    }
+
+    @Test
+    void missingArgumentsFailLikeStringFormat() {
+        assertThrows(MissingFormatArgumentException.class, () -> I18n.Message.compile("Hello %s").format());
+        assertFormatsLike("Hello %s", "you", "and more");
+    }
+
+    private static void assertFormatsLike(String pattern, Object... args) {
+        assertEquals(String.format(pattern, args), I18n.Message.compile(pattern).format(args));
+    }
+}
@@ -0,0 +1,169 @@
+package com.eureka;
+
+import com.eureka.model.AppState;
+import com.eureka.model.Note;
+import com.eureka.model.NoteSet;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.SortedDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.util.BytesRef;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests that {@link IndexReconciler} finds and repairs every kind of drift between the index and AppState.
+ */
+class IndexReconcilerTest {
+
+    private Path storage;
+    private AppState state;
+    private NoteSet set;
+    private Note first;
+    private SearchService service;
+    private IndexReconciler reconciler;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        state = AppState.createEmptyState();
+        set = new NoteSet("Notes");
+        state.addSet(set);
+        first = addNote("First", "the first note");
+        addNote("Second", "the second note");
+
+        storage = Files.createTempDirectory("eureka-reconciler");
+        service = new SearchService(storage);
+        service.rebuildIndex();
+        reconciler = service.getReconciler();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        service.close();
+        try (Stream<Path> paths = Files.walk(storage)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Test
+    void consistentIndexHasNoDrift() throws Exception {
+        IndexReconciler.Report report = reconciler.runNow();
+
+        assertEquals(2, report.indexedDocs());
+        assertEquals(2, report.notes());
+        assertEquals(0, report.drift());
+    }
+
+    @Test
+    void orphanedDocumentIsDeleted() throws Exception {
+        service.indexNote(new Note(set.getId(), "Ghost"));
+
+        IndexReconciler.Report report = reconciler.runNow();
+
+        assertEquals(3, report.indexedDocs());
+        assertEquals(1, report.orphans());
+        assertEquals(1, report.drift());
+        assertRepaired();
+    }
+
+    @Test
+    void staleDocumentIsReindexed() throws Exception {
+        first.setContent("the first note, rewritten");
+        first.setUpdatedAt(first.getUpdatedAt() + 1);
+
+        IndexReconciler.Report report = reconciler.runNow();
+
+        assertEquals(1, report.stale());
+        assertEquals(1, report.drift());
+        assertEquals(1, service.search("rewritten").size());
+        assertRepaired();
+    }
+
+    @Test
+    void missingNoteIsIndexed() throws Exception {
+        addNote("Third", "a late arrival");
+
+        IndexReconciler.Report report = reconciler.runNow();
+
+        assertEquals(2, report.indexedDocs());
+        assertEquals(3, report.notes());
+        assertEquals(1, report.missing());
+        assertEquals(1, service.search("arrival").size());
+        assertRepaired();
+    }
+
+    @Test
+    void duplicateDocumentsAreMergedIntoOne() throws Exception {
+        Document copy = new Document();
+        copy.add(new StringField("id", first.getId(), Field.Store.YES));
+        copy.add(new SortedDocValuesField("id", new BytesRef(first.getId())));
+        copy.add(new LongPoint("updatedAt", first.getUpdatedAt()));
+        copy.add(new NumericDocValuesField("updatedAt", first.getUpdatedAt()));
+        copy.add(new IntPoint("length", first.getContent().length()));
+        copy.add(new NumericDocValuesField("length", first.getContent().length()));
+        indexWriter().addDocument(copy);
+
+        IndexReconciler.Report report = reconciler.runNow();
+
+        assertEquals(1, report.duplicates());
+        assertEquals(1, report.drift());
+        assertRepaired();
+    }
+
+    @Test
+    void changesMadeWhileTheIndexIsRebuiltAreKept() throws Exception {
+        List<Note> snapshot = service.snapshotForRebuild();
+        Note late = addNote("Third", "a late arrival");
+        service.addOrUpdateNote(late);
+        state.deleteNote(first.getId());
+        service.deleteNote(first);
+
+        service.rebuildIndex(snapshot, 2, null);
+
+        assertEquals(1, service.search("arrival").size());
+        assertEquals(0, service.search("first").size());
+        assertRepaired();
+    }
+
+    /**
+     * Asserts that a second run finds the index and AppState in agreement.
+     */
+    private void assertRepaired() throws Exception {
+        IndexReconciler.Report report = reconciler.runNow();
+        assertEquals(0, report.drift());
+        assertEquals(report.notes(), report.indexedDocs());
+    }
+
+    /**
+     * The service's writer. Duplicate documents cannot be produced through its API, so the
+     * test adds one directly.
+     */
+    private IndexWriter indexWriter() throws ReflectiveOperationException {
+        java.lang.reflect.Field field = SearchService.class.getDeclaredField("indexWriter");
+        field.setAccessible(true);
+        return (IndexWriter) field.get(service);
+    }
+
+    private Note addNote(String title, String content) {
+        Note note = new Note(set.getId(), title);
+        note.setContent(content);
+        state.addNote(note);
+        return note;
+    }
+}
@@ -0,0 +1,111 @@
+package com.eureka;
+
+import com.eureka.model.AppState;
+import com.eureka.model.Note;
+import com.eureka.model.NoteSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the incremental link graph of {@link LinkIndex} and the rewriting of links on rename.
+ */
+class LinkIndexTest {
+
+    private AppState state;
+    private NoteSet set;
+    private LinkIndex index;
+
+    @BeforeEach
+    void setUp() {
+        state = AppState.createEmptyState();
+        set = new NoteSet("Notes");
+        state.addSet(set);
+        index = new LinkIndex();
+    }
+
+    @Test
+    void extractLinksNormalizesTitlesAndIgnoresLabels() {
+        assertEquals(Set.of("project plan", "budget"),
+                LinkIndex.extractLinks("See [[Project   Plan]] and [[budget|the numbers]], or [[ ]] and [[broken"));
+    }
+
+    @Test
+    void updateAppliesOnlyTheDifference() {
+        Note source = addNote("Source", "[[Alpha]] [[Beta]]");
+        index.update(source);
+        assertEquals(Set.of(source.getId()), index.getReferrers("alpha"));
+        assertEquals(Set.of(source.getId()), index.getReferrers("BETA"));
+
+        source.setContent("[[Beta]] [[Gamma]]");
+        index.update(source);
+
+        assertTrue(index.getReferrers("Alpha").isEmpty());
+        assertEquals(Set.of(source.getId()), index.getReferrers("Beta"));
+        assertEquals(Set.of(source.getId()), index.getReferrers("Gamma"));
+        assertEquals(Set.of("beta", "gamma"), index.getOutgoing(source.getId()));
+    }
+
+    @Test
+    void removeDropsOutgoingLinksButKeepsLinksToTheTitle() {
+        Note target = addNote("Target", "[[Other]]");
+        Note source = addNote("Source", "[[Target]]");
+        index.rebuild(List.of(target, source));
+
+        index.remove(target.getId());
+
+        assertTrue(index.getReferrers("Other").isEmpty());
+        assertEquals(Set.of(source.getId()), index.getReferrers("Target"));
+    }
+
+    @Test
+    void backlinksExcludeTheNoteItself() {
+        Note target = addNote("Target", "[[Target]]");
+        Note source = addNote("Source", "[[target]]");
+        index.rebuild(List.of(target, source));
+
+        assertEquals(List.of(source), index.getBacklinks(target));
+    }
+
+    @Test
+    void retargetLinksRewritesReferrersAndKeepsLabels() {
+        Note target = addNote("Old title", "");
+        Note source = addNote("Source", "Read [[old  TITLE]] and [[Old title|this]], not [[Other]].");
+        index.rebuild(List.of(target, source));
+
+        target.setTitle("New title");
+        List<Note> changed = index.retargetLinks(target, "Old title");
+
+        assertEquals(List.of(source), changed);
+        assertEquals("Read [[New title]] and [[New title|this]], not [[Other]].", source.getContent());
+        assertTrue(index.getReferrers("Old title").isEmpty());
+        assertEquals(Set.of(source.getId()), index.getReferrers("New title"));
+    }
+
+    @Test
+    void retargetLinksLeavesLinksToAnotherNoteWithTheOldTitle() {
+        Note renamed = addNote("Meeting", "");
+        addNote("meeting", "");
+        Note source = addNote("Source", "[[Meeting]]");
+        index.rebuild(state.getAllNotes());
+
+        renamed.setTitle("Standup");
+        List<Note> changed = index.retargetLinks(renamed, "Meeting");
+
+        assertTrue(changed.isEmpty());
+        assertEquals("[[Meeting]]", source.getContent());
+        assertEquals(Set.of(source.getId()), index.getReferrers("Meeting"));
+    }
+
+    private Note addNote(String title, String content) {
+        Note note = new Note(set.getId(), title);
+        note.setContent(content);
+        state.addNote(note);
+        return note;
+    }
+}
@@ -0,0 +1,90 @@
+package com.eureka;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.PhraseQuery;
+import org.apache.lucene.search.TermQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that {@link SavedSearchIndex} keeps saved search members up to date one changed note at a time.
+ */
+class SavedSearchIndexTest {
+
+    private SavedSearchIndex index;
+    private List<String> notifications;
+
+    @BeforeEach
+    void setUp() {
+        index = new SavedSearchIndex(new StandardAnalyzer());
+        index.register("todo", new TermQuery(new Term("content", "todo")), Set.of("existing"));
+        index.register("release", new PhraseQuery("title", "release", "plan"), Set.of());
+        notifications = new ArrayList<>();
+        index.addListener(notifications::add);
+    }
+
+    @Test
+    void matchingNoteIsAdded() {
+        index.percolate("note", "Monday", "TODO: call the bank");
+
+        assertEquals(Set.of("existing", "note"), index.getMembers("todo"));
+        assertEquals(List.of("todo"), notifications);
+    }
+
+    @Test
+    void queriesSeeTheFieldsTheyAddress() {
+        index.percolate("note", "Release plan", "todo");
+
+        assertEquals(Set.of("note"), index.getMembers("release"));
+        assertEquals(Set.of("existing", "note"), index.getMembers("todo"));
+
+        index.percolate("other", "Plan release", "nothing to do");
+        assertEquals(Set.of("note"), index.getMembers("release"));
+    }
+
+    @Test
+    void noteThatStopsMatchingIsRemoved() {
+        index.percolate("existing", "Monday", "all done");
+
+        assertTrue(index.getMembers("todo").isEmpty());
+        assertEquals(List.of("todo"), notifications);
+    }
+
+    @Test
+    void unchangedMembershipDoesNotNotify() {
+        index.percolate("existing", "Monday", "todo still open");
+        index.percolate("unrelated", "Tuesday", "nothing here");
+
+        assertEquals(Set.of("existing"), index.getMembers("todo"));
+        assertTrue(notifications.isEmpty());
+    }
+
+    @Test
+    void deletedNoteLeavesEverySavedSearch() {
+        index.percolate("note", "Release plan", "todo");
+        notifications.clear();
+
+        index.remove("note");
+
+        assertEquals(Set.of("existing"), index.getMembers("todo"));
+        assertTrue(index.getMembers("release").isEmpty());
+        assertEquals(Set.of("todo", "release"), Set.copyOf(notifications));
+    }
+
+    @Test
+    void unregisteredSearchHasNoMembers() {
+        index.unregister("todo");
+        index.percolate("note", "Monday", "todo");
+
+        assertTrue(index.getMembers("todo").isEmpty());
+        assertTrue(notifications.isEmpty());
+    }
+}
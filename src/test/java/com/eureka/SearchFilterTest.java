@@ -0,0 +1,128 @@
+package com.eureka;
+
+import com.eureka.model.AppState;
+import com.eureka.model.Note;
+import com.eureka.model.NoteSet;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests that the filter clauses of {@link SearchService.SearchFilter} restrict a search inside Lucene.
+ */
+class SearchFilterTest {
+
+    private Path storage;
+    private SearchService service;
+    private NoteSet work;
+    private NoteSet home;
+    private Note planning;
+    private Note groceries;
+    private Note journal;
+    private long journalCreatedAfter;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        AppState state = AppState.createEmptyState();
+        work = new NoteSet("Work");
+        home = new NoteSet("Home");
+        state.addSet(work);
+        state.addSet(home);
+
+        planning = addNote(state, work, "Planning", "alpha roadmap for the next quarter #Q3");
+        planning.setUpdatedAt(1_000L);
+        groceries = addNote(state, home, "Groceries", "alpha");
+        Thread.sleep(5);
+        journalCreatedAfter = System.currentTimeMillis();
+        Thread.sleep(5);
+        journal = addNote(state, work, "Journal", "alpha " + "entry ".repeat(100));
+
+        storage = Files.createTempDirectory("eureka-search-filter");
+        service = new SearchService(storage);
+        service.rebuildIndex();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        service.close();
+        try (Stream<Path> paths = Files.walk(storage)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Test
+    void noFilterMatchesEveryNote() throws IOException {
+        assertEquals(Set.of(planning.getId(), groceries.getId(), journal.getId()),
+                noteIds(SearchService.SearchFilter.NONE));
+    }
+
+    @Test
+    void setFilterRestrictsResultsButNotSetCounts() throws IOException {
+        SearchService.SearchResponse response = service.search("alpha", SearchService.SearchMode.PREFIX,
+                SearchService.SearchFilter.NONE.withSet(work.getId()));
+
+        assertEquals(Set.of(planning.getId(), journal.getId()), noteIds(response));
+        assertEquals(2, response.setCounts().get(work.getId()));
+        assertEquals(1, response.setCounts().get(home.getId()));
+    }
+
+    @Test
+    void updatedWindowMatchesOnlyNotesUpdatedWithinIt() throws IOException {
+        assertEquals(Set.of(planning.getId()),
+                noteIds(SearchService.SearchFilter.NONE.withUpdatedBetween(500L, 2_000L)));
+    }
+
+    @Test
+    void createdWindowMatchesOnlyNotesCreatedWithinIt() throws IOException {
+        assertEquals(Set.of(journal.getId()),
+                noteIds(SearchService.SearchFilter.NONE.withCreatedBetween(journalCreatedAfter, Long.MAX_VALUE)));
+    }
+
+    @Test
+    void lengthRangeMatchesOnlyNotesOfThatLength() throws IOException {
+        assertEquals(Set.of(groceries.getId()), noteIds(SearchService.SearchFilter.NONE.withLengthBetween(0, 10)));
+        assertEquals(Set.of(planning.getId(), journal.getId()),
+                noteIds(SearchService.SearchFilter.NONE.withLengthBetween(11, Integer.MAX_VALUE)));
+    }
+
+    @Test
+    void tagFilterMatchesOnlyTaggedNotes() throws IOException {
+        assertEquals(Set.of(planning.getId()), noteIds(SearchService.SearchFilter.NONE.withTag("#q3")));
+        assertEquals(Set.of(), noteIds(SearchService.SearchFilter.NONE.withTag("q4")));
+    }
+
+    @Test
+    void restrictionsCombine() throws IOException {
+        SearchService.SearchFilter filter = SearchService.SearchFilter.NONE
+                .withSet(work.getId())
+                .withLengthBetween(0, 100);
+        assertEquals(Set.of(planning.getId()), noteIds(filter));
+    }
+
+    private Set<String> noteIds(SearchService.SearchFilter filter) throws IOException {
+        return noteIds(service.search("alpha", SearchService.SearchMode.PREFIX, filter));
+    }
+
+    private static Set<String> noteIds(SearchService.SearchResponse response) {
+        return response.results().stream().map(SearchService.SearchResult::noteId).collect(Collectors.toSet());
+    }
+
+    private static Note addNote(AppState state, NoteSet set, String title, String content) {
+        Note note = new Note(set.getId(), title);
+        note.setContent(content);
+        state.addNote(note);
+        return note;
+    }
+}
@@ -0,0 +1,110 @@
+package com.eureka;
+
+import com.eureka.model.AppState;
+import com.eureka.model.Note;
+import com.eureka.model.NoteSet;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that search results are highlighted and handed out in batches, and how occurrences are counted.
+ */
+class SearchResultBatchTest {
+
+    private Path storage;
+    private SearchService service;
+    private Note exactlyAtCap;
+    private Note pastCap;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        AppState state = AppState.createEmptyState();
+        NoteSet set = new NoteSet("Notes");
+        state.addSet(set);
+        for (int i = 0; i < 25; i++) {
+            addNote(state, set, "Fruit " + i, "An apple a day, note " + i + ".");
+        }
+        exactlyAtCap = addNote(state, set, "At cap",
+                "banana ".repeat(SearchService.MAX_COUNTED_OCCURRENCES));
+        pastCap = addNote(state, set, "Past cap",
+                "banana ".repeat(SearchService.MAX_COUNTED_OCCURRENCES + 50));
+
+        storage = Files.createTempDirectory("eureka-result-batches");
+        service = new SearchService(storage);
+        service.rebuildIndex();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        service.close();
+        try (Stream<Path> paths = Files.walk(storage)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Test
+    void resultsArriveInHighlightedBatches() throws IOException {
+        List<List<SearchService.SearchResult>> batches = new ArrayList<>();
+
+        SearchService.SearchResponse response = service.search("apple", SearchService.SearchMode.PREFIX,
+                SearchService.SearchFilter.NONE, batch -> batches.add(List.copyOf(batch)));
+
+        assertEquals(25, response.results().size());
+        assertEquals(2, batches.size());
+        assertEquals(20, batches.get(0).size());
+        assertEquals(5, batches.get(1).size());
+        for (SearchService.SearchResult result : response.results()) {
+            assertTrue(result.snippet().contains(SearchService.HIGHLIGHT_START + "apple" + SearchService.HIGHLIGHT_END)
+                    || result.snippet().contains(SearchService.HIGHLIGHT_START + "Apple" + SearchService.HIGHLIGHT_END));
+        }
+    }
+
+    @Test
+    void listenerCanStopTheSearchAfterABatch() throws IOException {
+        List<List<SearchService.SearchResult>> batches = new ArrayList<>();
+
+        SearchService.SearchResponse response = service.search("apple", SearchService.SearchMode.PREFIX,
+                SearchService.SearchFilter.NONE, batch -> {
+                    batches.add(List.copyOf(batch));
+                    return false;
+                });
+
+        assertEquals(1, batches.size());
+        assertEquals(20, response.results().size());
+        assertTrue(response.setCounts().isEmpty());
+    }
+
+    @Test
+    void occurrencesAreCountedUpToOnePastTheCap() throws IOException {
+        Map<String, Integer> occurrences = new HashMap<>();
+        for (SearchService.SearchResult result : service.search("banana")) {
+            occurrences.put(result.noteId(), result.occurrences());
+        }
+
+        assertEquals(Map.of(exactlyAtCap.getId(), SearchService.MAX_COUNTED_OCCURRENCES,
+                pastCap.getId(), SearchService.MAX_COUNTED_OCCURRENCES + 1), occurrences);
+    }
+
+    private static Note addNote(AppState state, NoteSet set, String title, String content) {
+        Note note = new Note(set.getId(), title);
+        note.setContent(content);
+        state.addNote(note);
+        return note;
+    }
+}
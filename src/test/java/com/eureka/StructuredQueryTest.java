@@ -0,0 +1,129 @@
+package com.eureka;
+
+import com.eureka.model.AppState;
+import com.eureka.model.Note;
+import com.eureka.model.NoteSet;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the parsing and reporting of {@link SearchService.SearchMode#STRUCTURED} queries.
+ */
+class StructuredQueryTest {
+
+    private Path storage;
+    private SearchService service;
+    private Note release;
+    private Note review;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        AppState state = AppState.createEmptyState();
+        NoteSet work = new NoteSet("Work");
+        state.addSet(work);
+        release = addNote(state, work, "Release checklist", "Tag the build, then publish the release notes.");
+        review = addNote(state, work, "Code review", "Notes on the release of the build tooling.");
+
+        storage = Files.createTempDirectory("eureka-structured-query");
+        service = new SearchService(storage);
+        service.rebuildIndex();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        service.close();
+        try (Stream<Path> paths = Files.walk(storage)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Test
+    void phraseMatchesOnlyAdjacentWords() throws IOException {
+        assertEquals(Set.of(release.getId()), noteIds("\"release notes\""));
+        assertEquals(Set.of(release.getId(), review.getId()), noteIds("release AND notes"));
+    }
+
+    @Test
+    void fieldPrefixRestrictsTheField() throws IOException {
+        assertEquals(Set.of(review.getId()), noteIds("title:review"));
+        assertEquals(Set.of(release.getId(), review.getId()), noteIds("content:build"));
+    }
+
+    @Test
+    void operatorsCombineClauses() throws IOException {
+        assertEquals(Set.of(release.getId()), noteIds("build NOT tooling"));
+        assertEquals(Set.of(release.getId(), review.getId()), noteIds("checklist OR tooling"));
+    }
+
+    @Test
+    void regularExpressionMatchesTerms() throws IOException {
+        assertEquals(Set.of(release.getId()), noteIds("/publi[a-z]+/"));
+    }
+
+    @Test
+    void unknownFieldIsRejected() {
+        SearchService.QuerySyntaxException e = assertThrows(SearchService.QuerySyntaxException.class,
+                () -> noteIds("setId:abc"));
+        assertTrue(e.getMessage().contains("setId"));
+    }
+
+    @Test
+    void invalidSyntaxIsReportedOnOneLine() {
+        SearchService.QuerySyntaxException e = assertThrows(SearchService.QuerySyntaxException.class,
+                () -> noteIds("release AND (notes"));
+        assertNotNull(e.getMessage());
+        assertFalse(e.getMessage().contains("\n"));
+    }
+
+    @Test
+    void leadingWildcardIsRejected() {
+        assertThrows(SearchService.QuerySyntaxException.class, () -> noteIds("*ease"));
+    }
+
+    @Test
+    void tooComplexRegularExpressionIsRejected() {
+        SearchService.QuerySyntaxException e = assertThrows(SearchService.QuerySyntaxException.class,
+                () -> noteIds("/[ab]*a[ab]{20}/"));
+        assertEquals("Regular expression is too complex", e.getMessage());
+    }
+
+    @Test
+    void structuredMatchIsLocatedWithTheParsedQuery() {
+        SearchService.MatchLocation match = service.locateMatch(release, "title:release AND \"release notes\"",
+                SearchService.SearchMode.STRUCTURED);
+
+        assertNotNull(match);
+        assertEquals(release.getContent().indexOf("release notes"), match.position());
+        assertEquals("release notes".length(), match.length());
+        assertEquals(6, match.wordIndex());
+    }
+
+    private Set<String> noteIds(String query) throws IOException {
+        return service.search(query, SearchService.SearchMode.STRUCTURED, SearchService.SearchFilter.NONE)
+                .results().stream().map(SearchService.SearchResult::noteId).collect(Collectors.toSet());
+    }
+
+    private static Note addNote(AppState state, NoteSet set, String title, String content) {
+        Note note = new Note(set.getId(), title);
+        note.setContent(content);
+        state.addNote(note);
+        return note;
+    }
+}
@@ -0,0 +1,97 @@
+package com.eureka;
+
+import com.eureka.model.Note;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests tag extraction and the incremental inverted index of {@link TagIndex}.
+ */
+class TagIndexTest {
+
+    @Test
+    void tagsAreLowercasedAndKeptInOrderOfFirstAppearance() {
+        assertEquals(List.of("work", "home"), List.copyOf(TagIndex.extractTags("Plan #Work and #home, then #WORK.")));
+    }
+
+    @Test
+    void tagsMayContainDigitsSeparatorsAndSlashes() {
+        assertEquals(Set.of("2024-plan", "project/eureka", "to_do"),
+                TagIndex.extractTags("#2024-plan #project/eureka #to_do"));
+    }
+
+    @Test
+    void trailingSeparatorsBelongToTheSentence() {
+        assertEquals(Set.of("done", "a/b"), TagIndex.extractTags("Mark it #done- and file under #a/b/."));
+    }
+
+    @Test
+    void headingsNumbersAndEntitiesAreNotTags() {
+        assertTrue(TagIndex.extractTags("# Heading\nIssue #42 and &#39; quotes").isEmpty());
+    }
+
+    @Test
+    void hashInsideAWordOrAfterAnotherHashIsNotATag() {
+        assertTrue(TagIndex.extractTags("C#sharp and ##double").isEmpty());
+    }
+
+    @Test
+    void overlongRunsAreNotTags() {
+        assertEquals(Set.of("short"), TagIndex.extractTags("#" + "x".repeat(65) + " #short"));
+        assertEquals(Set.of("y".repeat(64)), TagIndex.extractTags("#" + "y".repeat(64)));
+    }
+
+    @Test
+    void textWithoutTagsHasNone() {
+        assertTrue(TagIndex.extractTags(null).isEmpty());
+        assertTrue(TagIndex.extractTags("no tags here").isEmpty());
+    }
+
+    @Test
+    void normalizeStripsTheHashAndLowercases() {
+        assertEquals("work", TagIndex.normalize("  #Work "));
+        assertEquals("", TagIndex.normalize(null));
+    }
+
+    @Test
+    void updateAppliesOnlyTheDifferenceAndNotifiesOnChange() {
+        TagIndex index = new TagIndex();
+        AtomicInteger notifications = new AtomicInteger();
+        index.addListener(notifications::incrementAndGet);
+        Note note = new Note("set", "Note");
+        note.setContent("#alpha #beta");
+        index.update(note);
+
+        note.setContent("#beta #gamma and more text");
+        index.update(note);
+        note.setContent("#gamma #beta, reworded");
+        index.update(note);
+
+        assertEquals(2, notifications.get());
+        assertTrue(index.getNotes("alpha").isEmpty());
+        assertEquals(Set.of(note.getId()), index.getNotes("#Beta"));
+        assertEquals(Set.of("beta", "gamma"), index.getTags(note.getId()));
+    }
+
+    @Test
+    void tagCountsAreSortedByUseThenName() {
+        TagIndex index = new TagIndex();
+        Note first = new Note("set", "First");
+        first.setContent("#b #a");
+        Note second = new Note("set", "Second");
+        second.setContent("#c #b");
+        index.rebuild(List.of(first, second));
+
+        assertEquals(List.of(new TagIndex.TagCount("b", 2), new TagIndex.TagCount("a", 1),
+                new TagIndex.TagCount("c", 1)), index.getTagCounts());
+
+        index.remove(second.getId());
+        assertEquals(List.of(new TagIndex.TagCount("a", 1), new TagIndex.TagCount("b", 1)), index.getTagCounts());
+    }
+}